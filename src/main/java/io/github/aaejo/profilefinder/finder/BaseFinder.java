@@ -3,6 +3,11 @@ package io.github.aaejo.profilefinder.finder;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jsoup.nodes.Document;
@@ -10,8 +15,12 @@ import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import io.github.aaejo.finder.client.FinderClient;
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.github.aaejo.profilefinder.finder.client.AsyncFetcher;
+import io.github.aaejo.profilefinder.finder.client.FetchLimiter;
 import io.github.aaejo.profilefinder.finder.configuration.CrawlingProperties;
 import io.micrometer.core.instrument.MeterRegistry;
 
@@ -21,18 +30,187 @@ import io.micrometer.core.instrument.MeterRegistry;
 public abstract class BaseFinder {
     private static final Logger log = LoggerFactory.getLogger(BaseFinder.class);
 
-    public DebugData debugData;
-    protected SearchState state;
-
     protected final FinderClient client;
     protected final CrawlingProperties crawlingProperties;
     protected final MeterRegistry registry;
 
+    private FetchLimiter fetchLimiter = FetchLimiter.UNLIMITED;
+
     public BaseFinder(FinderClient client, CrawlingProperties crawlingProperties, MeterRegistry registry) {
         this.client = client;
         this.crawlingProperties = crawlingProperties;
         this.registry = registry;
-        this.state = SearchState.IDLE;
+    }
+
+    /**
+     * Fetch a page as part of the given search. Pages already fetched for the search are served from its page cache.
+     *
+     * @param context   search this fetch is being made for
+     * @param url       page to fetch
+     * @return the client's response
+     */
+    protected FinderClientResponse fetch(SearchContext context, String url) {
+        FinderClientResponse cached = context.getPageCache().get(url);
+        if (cached != null) {
+            registry.counter("jds.profile-finder.page-cache", "result", "hit").increment();
+            return cached;
+        }
+        registry.counter("jds.profile-finder.page-cache", "result", "miss").increment();
+
+        context.incrementFetchCount();
+        if (context.getBudget() != null) {
+            context.getBudget().recordFetch();
+        }
+        FetchLimiter.Permit permit;
+        try {
+            permit = fetchLimiter.acquire(url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new FinderClientResponse(null, -1, Optional.of(e));
+        }
+
+        long start = System.nanoTime();
+        FinderClientResponse page = null;
+        try {
+            page = client.get(url);
+        } finally {
+            permit.release(page, System.nanoTime() - start);
+        }
+        context.getPageCache().put(url, page);
+        return page;
+    }
+
+    /**
+     * Fetch a page as part of the given search, without blocking if the client can fetch asynchronously. Otherwise
+     * the page is fetched as by {@link #fetch(SearchContext, String)} on the given executor.
+     * <p>
+     * Cancelling the fetch gives up its place in the limiter's and scheduler's queues, if it is still waiting, or
+     * interrupts it if it is blocking.
+     *
+     * @param context           search this fetch is being made for
+     * @param url               page to fetch
+     * @param blockingExecutor  executor to fetch on if the client can only fetch by blocking
+     * @return a future of the client's response
+     */
+    protected CompletableFuture<FinderClientResponse> fetchAsync(SearchContext context, String url,
+            ExecutorService blockingExecutor) {
+        if (!(client instanceof AsyncFetcher asyncClient)) {
+            CompletableFuture<FinderClientResponse> fetched = new CompletableFuture<>();
+            Future<?> task = blockingExecutor.submit(() -> {
+                try {
+                    fetched.complete(fetch(context, url));
+                } catch (RuntimeException e) {
+                    fetched.completeExceptionally(e);
+                }
+            });
+            fetched.whenComplete((page, e) -> {
+                if (fetched.isCancelled()) {
+                    task.cancel(true);
+                }
+            });
+            return fetched;
+        }
+
+        FinderClientResponse cached = context.getPageCache().get(url);
+        if (cached != null) {
+            registry.counter("jds.profile-finder.page-cache", "result", "hit").increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+        registry.counter("jds.profile-finder.page-cache", "result", "miss").increment();
+
+        context.incrementFetchCount();
+        if (context.getBudget() != null) {
+            context.getBudget().recordFetch();
+        }
+
+        CompletableFuture<FetchLimiter.Permit> turn = fetchLimiter.acquireAsync(url);
+        AtomicReference<CompletableFuture<FinderClientResponse>> started = new AtomicReference<>();
+        CompletableFuture<FinderClientResponse> fetched = turn.thenCompose(permit -> {
+            long start = System.nanoTime();
+            CompletableFuture<FinderClientResponse> response;
+            try {
+                response = asyncClient.getAsync(url);
+            } catch (RuntimeException e) {
+                permit.release(null, System.nanoTime() - start);
+                throw e;
+            }
+            started.set(response);
+            return response.whenComplete((page, e) -> permit.release(page, System.nanoTime() - start));
+        }).thenApply(page -> {
+            context.getPageCache().put(url, page);
+            return page;
+        });
+
+        fetched.whenComplete((page, e) -> {
+            if (fetched.isCancelled()) {
+                turn.cancel(false);
+                CompletableFuture<FinderClientResponse> response = started.get();
+                if (response != null) {
+                    response.cancel(false);
+                }
+            }
+        });
+        return fetched;
+    }
+
+    /**
+     * @param fetchLimiter  limiter for the fetches made by this finder, which are unlimited if there is none
+     */
+    @Autowired(required = false)
+    public void setFetchLimiter(FetchLimiter fetchLimiter) {
+        this.fetchLimiter = fetchLimiter != null ? fetchLimiter : FetchLimiter.UNLIMITED;
+    }
+
+    /**
+     * Start a new crawl budget for a finder stage, limited according to the crawling properties.
+     *
+     * @param context   search the stage is part of
+     * @param stage     name of the stage, used to tag metrics
+     * @return the new budget, which the context will also hold until the next stage starts
+     */
+    protected CrawlBudget startBudget(SearchContext context, String stage) {
+        CrawlBudget budget = new CrawlBudget(stage, crawlingProperties.maxPages(), crawlingProperties.deadline());
+        context.setBudget(budget);
+        return budget;
+    }
+
+    /**
+     * Check whether a stage's crawl budget has run out, recording it the first time it does.
+     *
+     * @param budget    budget to check
+     * @return true if crawling should stop
+     */
+    protected boolean isBudgetExhausted(CrawlBudget budget) {
+        CrawlBudget.Limit limit = budget.exhaustedLimit();
+        if (limit == null) {
+            return false;
+        }
+
+        if (budget.markReported()) {
+            log.info("Crawl budget for {} stage exhausted by {} limit after {} fetches", budget.getStage(),
+                    limit.name().toLowerCase(), budget.getPagesFetched());
+            registry.counter("jds.profile-finder.crawl-budget.exhausted",
+                    "stage", budget.getStage(),
+                    "limit", limit.name().toLowerCase())
+                    .increment();
+        }
+        return true;
+    }
+
+    /**
+     * Record that a crawl was stopped early.
+     *
+     * @param stage             name of the finder stage that stopped, used to tag metrics
+     * @param earlyTermination  policy that stopped the crawl
+     * @param fetchesSaved      number of links that were still queued, and so were never fetched
+     */
+    protected void recordEarlyTermination(String stage, EarlyTermination earlyTermination, int fetchesSaved) {
+        String policy = earlyTermination.getPolicy().name().toLowerCase();
+        log.info("Stopped {} crawl early by {} policy, {} queued links not fetched", stage, policy, fetchesSaved);
+        registry.summary("jds.profile-finder.early-termination.fetches-saved",
+                "stage", stage,
+                "policy", policy)
+                .record(fetchesSaved);
     }
 
     protected List<Element> drillDownToUniqueMain(Document page) {
@@ -101,7 +279,7 @@ public abstract class BaseFinder {
         return drillDown;
     }
 
-    protected int tryAddLinks(CrawlQueue queue, String host, double initialWeight, Elements links) {
+    protected int tryAddLinks(CrawlQueue queue, String host, double initialWeight, int depth, Elements links) {
         int count = 0;
         for (Element addLink : links) {
             if (StringUtils.startsWith(addLink.attr("href"), "#")) { // Getting non-absolute URL for once
@@ -115,14 +293,19 @@ public abstract class BaseFinder {
                 continue;
             }
 
-            if (tryAddLink(queue, host, initialWeight, href)) {
+            if (tryAddLink(queue, host, initialWeight, depth, href)) {
                 count++;
             }
         }
         return count;
     }
 
-    protected boolean tryAddLink(CrawlQueue queue, String host, double initialWeight, String url) {
+    protected boolean tryAddLink(CrawlQueue queue, String host, double initialWeight, int depth, String url) {
+        if (crawlingProperties.maxDepth() > 0 && depth > crawlingProperties.maxDepth()) {
+            log.debug("Will not crawl link beyond max depth {}", url);
+            return false;
+        }
+
         if (StringUtils.containsAny(url, crawlingProperties.disallowedHosts())) {
             log.debug("Will not crawl link to disallowed host {}", url);
             return false;
@@ -144,6 +327,6 @@ public abstract class BaseFinder {
             return false;
         }
 
-        return queue.add(url, initialWeight);
+        return queue.add(url, initialWeight, depth);
     }
 }
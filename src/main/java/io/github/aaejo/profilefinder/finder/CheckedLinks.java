@@ -0,0 +1,76 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.util.AbstractCollection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The links a crawl has already checked, along with the confidence each one was given.
+ * <p>
+ * Links are keyed by their {@link UrlCanonicalizer canonical} URL, so variations of an already checked URL count as
+ * checked too. Only the highest confidence for each canonical URL is kept, and the best link overall is tracked as
+ * links are added, so both lookups are constant time.
+ *
+ * @author Omri Harary
+ */
+public class CheckedLinks extends AbstractCollection<CrawlTarget> {
+
+    private final Map<String, CrawlTarget> targets = new HashMap<>();
+    private CrawlTarget best;
+
+    public boolean add(String url, double weight) {
+        return add(new CrawlTarget(url, weight, null));
+    }
+
+    public boolean add(String url, double weight, SearchState source) {
+        return add(new CrawlTarget(url, weight, source));
+    }
+
+    /**
+     * Record a checked link, unless its canonical URL has already been checked with greater or equal confidence.
+     *
+     * @return whether the link was recorded
+     */
+    @Override
+    public boolean add(CrawlTarget target) {
+        String key = UrlCanonicalizer.canonicalize(target.url());
+        CrawlTarget existing = targets.get(key);
+        if (existing != null && existing.weight() >= target.weight()) {
+            return false;
+        }
+
+        targets.put(key, target);
+        if (best == null || target.weight() > best.weight()) {
+            best = target;
+        }
+        return true;
+    }
+
+    public boolean contains(String url) {
+        return targets.containsKey(UrlCanonicalizer.canonicalize(url));
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof CrawlTarget target && contains(target.url());
+    }
+
+    /**
+     * @return the checked link with the highest confidence, or null if nothing has been checked
+     */
+    public CrawlTarget getBest() {
+        return best;
+    }
+
+    @Override
+    public Iterator<CrawlTarget> iterator() {
+        return Collections.unmodifiableCollection(targets.values()).iterator();
+    }
+
+    @Override
+    public int size() {
+        return targets.size();
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Limits on how much crawling a single finder stage may do, so that one sprawling site cannot tie up a consumer.
+ *
+ * @author Omri Harary
+ */
+public class CrawlBudget {
+
+    public enum Limit {
+        PAGES,
+        DEADLINE
+    }
+
+    private final String stage;
+    private final int maxPages;
+    private final Instant deadline;
+
+    private int pagesFetched;
+    private boolean reported;
+
+    /**
+     * @param stage     name of the finder stage this budget is for
+     * @param maxPages  most pages that may be fetched, or 0 for no limit
+     * @param timeLimit longest the stage may take from now, or null for no limit
+     */
+    public CrawlBudget(String stage, int maxPages, Duration timeLimit) {
+        this.stage = stage;
+        this.maxPages = maxPages;
+        this.deadline = timeLimit != null && !timeLimit.isZero() ? Instant.now().plus(timeLimit) : null;
+    }
+
+    void recordFetch() {
+        pagesFetched++;
+    }
+
+    /**
+     * @return the limit that has been reached, or null if there is still budget left
+     */
+    public Limit exhaustedLimit() {
+        if (maxPages > 0 && pagesFetched >= maxPages) {
+            return Limit.PAGES;
+        }
+        if (deadline != null && !Instant.now().isBefore(deadline)) {
+            return Limit.DEADLINE;
+        }
+        return null;
+    }
+
+    /**
+     * Mark the exhaustion of this budget as reported.
+     *
+     * @return true if it had not already been reported
+     */
+    boolean markReported() {
+        if (reported) {
+            return false;
+        }
+        reported = true;
+        return true;
+    }
+
+    /**
+     * @return the stage
+     */
+    public String getStage() {
+        return stage;
+    }
+
+    /**
+     * @return the number of pages fetched against this budget
+     */
+    public int getPagesFetched() {
+        return pagesFetched;
+    }
+}
@@ -1,47 +1,173 @@
 package io.github.aaejo.profilefinder.finder;
 
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
 import org.jsoup.select.Elements;
 
 /**
+ * Max-priority queue of crawl targets that only ever holds one target per URL, keeping whichever was offered with the
+ * highest weight.
+ * <p>
+ * Backed by a binary heap with an index from each URL to its slot in the heap, so membership checks are constant time
+ * and offering, re-weighting and polling are all logarithmic.
+ *
  * @author Omri Harary
  */
-public class CrawlQueue extends PriorityQueue<CrawlTarget> {
+public class CrawlQueue extends AbstractQueue<CrawlTarget> {
+    private static final int DEFAULT_INITIAL_CAPACITY = 11;
+
+    private CrawlTarget[] heap;
+    private final ObjectIntHashMap<String> slots;
+    private int size;
+    private int modCount;
 
     /**
-     * 
+     *
      */
     public CrawlQueue() {
-        super(Comparator.reverseOrder());
+        this(DEFAULT_INITIAL_CAPACITY);
     }
 
     /**
      * @param initialCapacity
      */
     public CrawlQueue(int initialCapacity) {
-        super(initialCapacity, Comparator.reverseOrder());
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("Initial capacity must be at least 1");
+        }
+        this.heap = new CrawlTarget[initialCapacity];
+        this.slots = new ObjectIntHashMap<>(initialCapacity);
     }
 
     @Override
     public boolean offer(CrawlTarget e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+
         // The queue should only ever contain unique target URLs
-        if (contains(e)) {
-            // If the queue contains a target URL, remove it if it has a lower weight than
-            // the one we are attempting to add.
-            if (removeIf(t -> t.equals(e) && t.weight() < e.weight())) {
-                // If we successfully removed an entry for the same URL but with a lower weight
-                // we can add the new target with the higher weight.
-                return super.offer(e);
+        int slot = slots.getIfAbsent(e.url(), -1);
+        if (slot != -1) {
+            if (heap[slot].weight() < e.weight()) {
+                // If the queue contains the target URL with a lower weight than the one we are attempting to add,
+                // replace it and move it up to its new position.
+                heap[slot] = e;
+                modCount++;
+                siftUp(slot);
+                return true;
             } else {
-                // If the removal failed (i.e. the target present had greater or equal weight)
-                // skip adding the new target
+                // If the target present has greater or equal weight, skip adding the new target
                 return false;
             }
         }
+
         // If the new target URL is unique, just offer as normal
-        return super.offer(e);
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length < 64 ? heap.length * 2 + 2 : heap.length + (heap.length >> 1));
+        }
+        heap[size] = e;
+        slots.put(e.url(), size);
+        size++;
+        modCount++;
+        siftUp(size - 1);
+        return true;
+    }
+
+    /**
+     * Same as {@link #offer(CrawlTarget)}, returning false rather than throwing when the target is not added.
+     */
+    @Override
+    public boolean add(CrawlTarget e) {
+        return offer(e);
+    }
+
+    @Override
+    public CrawlTarget poll() {
+        if (size == 0) {
+            return null;
+        }
+        return removeAt(0);
+    }
+
+    @Override
+    public CrawlTarget peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof CrawlTarget target && contains(target.url());
+    }
+
+    public boolean contains(String s) {
+        return slots.containsKey(s);
+    }
+
+    /**
+     * @param url   target URL to look up
+     * @return the target queued for the URL, or null if there is none
+     */
+    public CrawlTarget get(String url) {
+        int slot = slots.getIfAbsent(url, -1);
+        return slot == -1 ? null : heap[slot];
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof CrawlTarget target)) {
+            return false;
+        }
+        int slot = slots.getIfAbsent(target.url(), -1);
+        if (slot == -1) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(heap, 0, size, null);
+        slots.clear();
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Iterates over the queued targets in no particular order.
+     */
+    @Override
+    public Iterator<CrawlTarget> iterator() {
+        return new Iterator<>() {
+            private final int expectedModCount = modCount;
+            private int cursor;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < size;
+            }
+
+            @Override
+            public CrawlTarget next() {
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (cursor >= size) {
+                    throw new NoSuchElementException();
+                }
+                return heap[cursor++];
+            }
+        };
     }
 
     public boolean add(String url, double weight) {
@@ -52,6 +178,10 @@ public class CrawlQueue extends PriorityQueue<CrawlTarget> {
         return add(new CrawlTarget(url, weight, source));
     }
 
+    public boolean add(String url, double weight, int depth) {
+        return add(new CrawlTarget(url, weight, null, depth));
+    }
+
     public boolean addAll(String[] urls, double weight) {
         boolean modified = false;
         for (int i = 0; i < urls.length; i++) {
@@ -71,8 +201,61 @@ public class CrawlQueue extends PriorityQueue<CrawlTarget> {
         return modified;
     }
 
-    public boolean contains(String s) {
-        // Since CrawlTarget.equals only compares url...
-        return super.contains(new CrawlTarget(s, 0, null));
+    private CrawlTarget removeAt(int slot) {
+        CrawlTarget removed = heap[slot];
+        slots.remove(removed.url());
+        modCount++;
+
+        int last = --size;
+        if (slot == last) {
+            heap[last] = null;
+        } else {
+            CrawlTarget moved = heap[last];
+            heap[last] = null;
+            heap[slot] = moved;
+            slots.put(moved.url(), slot);
+            siftDown(slot);
+            if (heap[slot] == moved) {
+                siftUp(slot);
+            }
+        }
+        return removed;
+    }
+
+    private void siftUp(int slot) {
+        CrawlTarget target = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            CrawlTarget parentTarget = heap[parent];
+            if (Double.compare(parentTarget.weight(), target.weight()) >= 0) {
+                break;
+            }
+            heap[slot] = parentTarget;
+            slots.put(parentTarget.url(), slot);
+            slot = parent;
+        }
+        heap[slot] = target;
+        slots.put(target.url(), slot);
+    }
+
+    private void siftDown(int slot) {
+        CrawlTarget target = heap[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && Double.compare(heap[right].weight(), heap[child].weight()) > 0) {
+                child = right;
+            }
+            CrawlTarget childTarget = heap[child];
+            if (Double.compare(target.weight(), childTarget.weight()) >= 0) {
+                break;
+            }
+            heap[slot] = childTarget;
+            slots.put(childTarget.url(), slot);
+            slot = child;
+        }
+        heap[slot] = target;
+        slots.put(target.url(), slot);
     }
 }
@@ -3,9 +3,18 @@ package io.github.aaejo.profilefinder.finder;
 import java.util.Comparator;
 
 /**
+ * @param url       page to crawl
+ * @param weight    priority of the page, or the confidence it was given once checked
+ * @param source    search state that produced the target, if any
+ * @param depth     number of links followed from the page the crawl started at
+ *
  * @author Omri Harary
  */
-public record CrawlTarget(String url, double weight, SearchState source) implements Comparable<CrawlTarget> {
+public record CrawlTarget(String url, double weight, SearchState source, int depth) implements Comparable<CrawlTarget> {
+
+    public CrawlTarget(String url, double weight, SearchState source) {
+        this(url, weight, source, 0);
+    }
 
     @Override
     public int compareTo(CrawlTarget o) {
@@ -5,6 +5,6 @@ import io.github.aaejo.messaging.records.Institution;
 public class DebugData {
 
     public Institution institution;
-    public CrawlQueue checkedLinks;
+    public CheckedLinks checkedLinks;
     public String details;
 }
@@ -1,27 +1,43 @@
 package io.github.aaejo.profilefinder.finder;
 
 import java.net.URI;
-import java.util.Arrays;
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.collections.api.map.primitive.ImmutableObjectDoubleMap;
 import org.eclipse.collections.impl.map.mutable.primitive.ObjectDoubleHashMap;
-import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 import io.github.aaejo.finder.client.FinderClient;
 import io.github.aaejo.finder.client.FinderClientResponse;
 import io.github.aaejo.messaging.records.Institution;
+import io.github.aaejo.profilefinder.finder.client.SiteMapReader;
 import io.github.aaejo.profilefinder.finder.configuration.CrawlingProperties;
 import io.github.aaejo.profilefinder.finder.configuration.DepartmentFinderProperties;
+import io.github.aaejo.profilefinder.finder.configuration.EarlyTerminationProperties;
+import io.github.aaejo.profilefinder.finder.configuration.TemplateProbingProperties;
 import io.github.aaejo.profilefinder.finder.exception.DepartmentSiteNotFoundException;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 
 /**
  * @author Omri Harary
@@ -34,15 +50,58 @@ public class DepartmentFinder extends BaseFinder {
     private KafkaTemplate<String, DebugData> debugTemplate;
 
     private final DepartmentFinderProperties properties;
+    private final TemplateProbingProperties templateProbingProperties;
+    private final EarlyTerminationProperties earlyTerminationProperties;
+    private final ExecutorService templateProbeExecutor;
+    private final DepartmentPageScorer pageScorer;
+    private final KeywordMatcher siteMapMatcher;
+
+    private SiteMapReader siteMapReader;
+    private HostOutcomeCache hostOutcomeCache;
 
     public DepartmentFinder(FinderClient client, DepartmentFinderProperties properties,
-            CrawlingProperties crawlingProperties, MeterRegistry registry) {
+            TemplateProbingProperties templateProbingProperties, CrawlingProperties crawlingProperties,
+            EarlyTerminationProperties earlyTerminationProperties, MeterRegistry registry) {
         super(client, crawlingProperties, registry);
         this.properties = properties;
+        this.templateProbingProperties = templateProbingProperties;
+        this.earlyTerminationProperties = earlyTerminationProperties;
+        this.templateProbeExecutor = templateProbingProperties.parallel()
+                ? Executors.newCachedThreadPool(new CustomizableThreadFactory("template-probe-"))
+                : null;
+        this.pageScorer = new DepartmentPageScorer(properties.getImportantDepartmentKeywords());
+        this.siteMapMatcher = new KeywordMatcher(properties.getKeywords());
+    }
+
+    /**
+     * @param siteMapReader reader to stream sitemaps with, or null to fetch them in full through the client instead
+     */
+    @Autowired(required = false)
+    public void setSiteMapReader(SiteMapReader siteMapReader) {
+        this.siteMapReader = siteMapReader;
+    }
+
+    /**
+     * @param hostOutcomeCache  cache of what earlier searches learned about hosts, or null to not use one
+     */
+    @Autowired(required = false)
+    public void setHostOutcomeCache(HostOutcomeCache hostOutcomeCache) {
+        this.hostOutcomeCache = hostOutcomeCache;
     }
 
     public double foundDepartmentSite(final FinderClientResponse page) {
-        ImmutableObjectDoubleMap<DepartmentKeyword> report = foundDepartmentSiteDetailed(page);
+        return foundDepartmentSite(page, foundDepartmentSiteDetailed(page));
+    }
+
+    /**
+     * Same as {@link #foundDepartmentSite(FinderClientResponse)}, but reusing the report already computed for the page
+     * during the given search, if there is one.
+     */
+    public double foundDepartmentSite(SearchContext context, final FinderClientResponse page) {
+        return foundDepartmentSite(page, foundDepartmentSiteDetailed(context, page));
+    }
+
+    private double foundDepartmentSite(final FinderClientResponse page, ImmutableObjectDoubleMap<DepartmentKeyword> report) {
         if (report.size() == 1 && report.containsKey(DepartmentKeyword.UNDEFINED)) {
             return report.get(DepartmentKeyword.UNDEFINED);
         }
@@ -54,6 +113,24 @@ public class DepartmentFinder extends BaseFinder {
         return confidence;
     }
 
+    /**
+     * Same as {@link #foundDepartmentSiteDetailed(FinderClientResponse)}, but reusing the report already computed for
+     * the page during the given search, if there is one.
+     */
+    public ImmutableObjectDoubleMap<DepartmentKeyword> foundDepartmentSiteDetailed(SearchContext context,
+            final FinderClientResponse page) {
+        if (page == null || page.location() == null) {
+            return foundDepartmentSiteDetailed(page);
+        }
+
+        ImmutableObjectDoubleMap<DepartmentKeyword> report = context.getPageCache().getDepartmentReport(page.location());
+        if (report == null) {
+            report = foundDepartmentSiteDetailed(page);
+            context.getPageCache().putDepartmentReport(page.location(), report);
+        }
+        return report;
+    }
+
     public ImmutableObjectDoubleMap<DepartmentKeyword> foundDepartmentSiteDetailed(final FinderClientResponse page) {
         if (page == null || page.document() == null) {
             log.info("Negative confidence that department site found at null page");
@@ -67,155 +144,72 @@ public class DepartmentFinder extends BaseFinder {
                     .toImmutable();
         }
 
-        ObjectDoubleHashMap<DepartmentKeyword> confidence = ObjectDoubleHashMap.newMap();
-        String location = page.location();
-        String title = page.document().title();
-
-        for (DepartmentKeyword keyword : properties.getImportantDepartmentKeywords()) {
-            confidence.addToValue(keyword, 0);
-
-            if (StringUtils.containsAnyIgnoreCase(title, keyword.getVariants())
-                    || StringUtils.containsAnyIgnoreCase(location, keyword.getVariants())) {
-                HashSet<String> tokenizedIdentifiers = new HashSet<>();
-                Arrays.stream(location.split("\\W"))
-                        .map(token -> token.toLowerCase())
-                        .forEach(token -> tokenizedIdentifiers.add(token));
-                Arrays.stream(title.split(" "))
-                        .map(token -> token.toLowerCase())
-                        .forEach(token -> tokenizedIdentifiers.add(token));
-
-                for (String token : tokenizedIdentifiers) {
-                    double modifier;
-                    if (StringUtils.equalsAnyIgnoreCase(token, keyword.getVariants())) {
-                        modifier = 0.5;
-                    } else {
-                        modifier = switch (token) {
-                            case "department", "school" -> 0.5;
-                            case "degree"               -> -1.0;
-                            case "calendar"             -> -5.0;
-                            default -> 0.0;
-                        };
-                    }
-
-                    log.debug("{} confidence change based on token {} present in page title or location", modifier, token);
-                    confidence.addToValue(keyword, modifier);
-                }
-            }
-
-            // Images (w/ alt text) relating to philosophy that links back to same page (ie likely logos)
-            Elements relevantImageLinks = page.document().select(keyword.getRelevantImageLink());
-            for (Element imgLink : relevantImageLinks) {
-                if (imgLink.parent().absUrl("href").equals(location)) {
-                    log.debug("Found relevant image linking back to same page. High confidence added");
-                    confidence.addToValue(keyword, 0.8);
-                }
-                /*
-                * NOTES:
-                * - Case for a relevant image not linking back, which removes confidence?
-                * - What about relevant non-link images?
-                * - Should confidences scale based on number of results?
-                */
-
-            }
-
-            // Relevantly titled text link that leads back to same page
-            Elements relevantLinks = page.document().select(keyword.getRelevantLink());
-            for (Element link : relevantLinks) {
-                if (link.absUrl("href").equals(location)) {
-                    log.debug("Found relevant link back to same page. High confidence added");
-                    confidence.addToValue(keyword, 0.8);
-                }
-                /*
-                 * NOTES:
-                 * - This one might need to be made to have less significant impact
-                 * - Should probably refine for better text comparison. Like combining
-                 *    "department" with philosophy
-                 * - For this one it's probably more dangerous to scale for number of results
-                 *    and/or remove confidence for non-returning links. But it can be considered
-                 */
-            }
-
-            // Relevant heading element, scaled by heading size
-            Elements relevantHeadings = page.document().select(keyword.getRelevantHeading());
-            for (Element heading : relevantHeadings) {
-                double modifier = switch (heading.tagName()) {
-                    case "h1" -> 0.85;
-                    case "h2" -> 0.82;
-                    case "h3" -> 0.8;
-                    case "h4" -> 0.5;
-                    case "h5" -> 0.3;
-                    case "h6" -> 0.1;
-                    default -> 0;
-                };
-                log.debug("{} confidence added based on relevant {}-level heading", modifier, heading.tagName());
-                confidence.addToValue(keyword, modifier);
-            }
-        }
-
-        return confidence.toImmutable();
+        return pageScorer.score(page.document(), page.location());
     }
 
-    public FinderClientResponse findDepartmentSite(Institution institution, FinderClientResponse inPage, double initialConfidence) {
-        CrawlQueue checkedLinks = new CrawlQueue();
+    public FinderClientResponse findDepartmentSite(SearchContext context, FinderClientResponse inPage, double initialConfidence) {
+        Institution institution = context.getInstitution();
+        DebugData debugData = context.startCrawl();
+        context.setDepartmentDebugData(debugData);
+        CheckedLinks checkedLinks = context.getCheckedLinks();
         checkedLinks.add(inPage.location(), initialConfidence);
-        debugData = new DebugData();
-        debugData.institution = institution;
-        debugData.checkedLinks = checkedLinks;
 
         // 1. Try some basics
-        state = SearchState.TEMPLATE;
+        context.setState(SearchState.TEMPLATE);
         URI institutionUri = URI.create(institution.website());
         String hostname = StringUtils.removeStart(institutionUri.getHost(), "www.");
         String scheme = institutionUri.getScheme();
 
-        for (String template : properties.getTemplates()) {
-            String templatedUrl = scheme + "://" + String.format(template, hostname);
-            FinderClientResponse page = client.get(templatedUrl);
-
-            double confidence = foundDepartmentSite(page);
+        List<String> templatedUrls = properties.getTemplates().stream()
+                .map(template -> scheme + "://" + String.format(template, hostname))
+                .toList();
+
+        Timer.Sample phaseSample = Timer.start(registry);
+        templatedUrls = skipCachedTemplates(context, hostname, templatedUrls);
+        TemplateProbe templateHit = templateProbingProperties.parallel()
+                ? probeTemplatesInParallel(context, hostname, templatedUrls)
+                : probeTemplates(context, hostname, templatedUrls);
+        recordPhase(phaseSample, SearchState.TEMPLATE, templateProbingProperties.parallel() ? "parallel" : "sequential");
+
+        if (templateHit != null) {
+            debugData.details = "Templating";
+            debugTemplate.send("department.debug", institution.name(), debugData);
+            registry.counter("jds.profile-finder.department-finder.found",
+                    "country", institution.country(),
+                    "mechanism", "templating")
+                    .increment();
+            log.info("Identified {} as department page with {} confidence", templateHit.page().location(),
+                    templateHit.confidence());
+            context.setState(SearchState.IDLE);
+            return templateHit.page();
+        }
 
-            if (page != null && !templatedUrl.equals(page.location())) {
-                // ...
-                checkedLinks.add(page.location(), confidence, state);
-            }
-            checkedLinks.add(templatedUrl, confidence, state);
+        context.setState(SearchState.SITEMAP);
+        phaseSample = Timer.start(registry);
+        CrawlBudget budget = startBudget(context, "department");
+        CrawlQueue crawlQueue = context.getCrawlQueue();
+        queueSiteMapLinks(crawlQueue, inPage.location(), hostname);
 
-            if (confidence >= 1.4) {
-                debugData.details = "Templating";
-                debugTemplate.send("department.debug", institution.name(), debugData);
-                registry.counter("jds.profile-finder.department-finder.found",
-                        "country", institution.country(),
-                        "mechanism", "templating")
-                        .increment();
-                log.info("Identified {} as department page with {} confidence", page.location(), confidence);
-                state = SearchState.IDLE;
-                return page;
+        CrawlTarget target;
+        while ((target = crawlQueue.poll()) != null) {
+            if (isBudgetExhausted(budget)) {
+                break;
             }
-        }
-
-        state = SearchState.SITEMAP;
-        HashSet<String> flatSiteMap = client.getSiteMapURLs(inPage.location());
-        CrawlQueue crawlQueue = new CrawlQueue();
 
-        for (String url : flatSiteMap) {
-            for (DepartmentKeyword keyword : properties.getKeywords()) {
-                if (keyword.getVariantsRegex().matcher(url).find()) {
-                    tryAddLink(crawlQueue, hostname, keyword.getWeight(), url);
-                }
+            if (checkedLinks.contains(target.url())) {
+                log.debug("Skipping checked link {}", target.url());
+                continue; // Skip if this is a URL that was already checked, e.g. by templating
             }
-        }
 
-        CrawlTarget target;
-        while ((target = crawlQueue.poll()) != null) {
-            FinderClientResponse page = client.get(target.url());
+            FinderClientResponse page = fetch(context, target.url());
 
-            double confidence = foundDepartmentSite(page);
+            double confidence = foundDepartmentSite(context, page);
 
             if (page != null && !target.url().equals(page.location())) {
                 // ...
-                checkedLinks.add(page.location(), confidence, state);
+                checkedLinks.add(page.location(), confidence, context.getState());
             }
-            checkedLinks.add(target.url(), confidence, state);
+            checkedLinks.add(target.url(), confidence, context.getState());
             if (confidence >= 1.4) {
                 debugData.details = "SiteMap";
                 debugTemplate.send("department.debug", institution.name(), debugData);
@@ -224,44 +218,59 @@ public class DepartmentFinder extends BaseFinder {
                         "mechanism", "sitemap")
                         .increment();
                 log.info("Identified {} as department page with {} confidence", page.location(), confidence);
-                state = SearchState.IDLE;
+                recordPhase(phaseSample, SearchState.SITEMAP, "sequential");
+                context.setState(SearchState.IDLE);
                 return page;
             }
         }
+        recordPhase(phaseSample, SearchState.SITEMAP, "sequential");
 
         // 2. Actual crawling I guess?
         // (*1) NOTE: currently starting from inPage again but maybe should go from highest confidence page found from step 1?
 
         // 2.1 Specialized crawling
 
-        state = SearchState.CRAWL;
-        queueLinksFromPage(crawlQueue, inPage, initialConfidence, institution); // (*1)
+        context.setState(SearchState.CRAWL);
+        phaseSample = Timer.start(registry);
+        crawlQueue.clear(); // Left over sitemap targets if the budget ran out
+        queueLinksFromPage(crawlQueue, inPage, initialConfidence, 0, institution); // (*1)
+        EarlyTermination earlyTermination = new EarlyTermination(earlyTerminationProperties);
 
         target = null;
         while ((target = crawlQueue.poll()) != null) {
-            if (checkedLinks.contains(target)) {
+            if (isBudgetExhausted(budget)) {
+                break;
+            }
+
+            if (checkedLinks.contains(target.url())) {
                 log.info("Skipping checked link {}", target.url()); // TODO: make debug later
                 continue; // Skip if this is a URL that has already been checked
             }
 
-            FinderClientResponse page = client.get(target.url());
+            FinderClientResponse page = fetch(context, target.url());
 
-            double confidence = foundDepartmentSite(page);
+            double confidence = foundDepartmentSite(context, page);
             if (page != null && !target.url().equals(page.location())) {
                 // ...
-                checkedLinks.add(page.location(), confidence, state);
+                checkedLinks.add(page.location(), confidence, context.getState());
+            }
+            checkedLinks.add(target.url(), confidence, context.getState());
+            queueLinksFromPage(crawlQueue, page, confidence, target.depth(), institution);
+
+            if (earlyTermination.shouldStop(confidence)) {
+                recordEarlyTermination("department", earlyTermination, crawlQueue.size());
+                break;
             }
-            checkedLinks.add(target.url(), confidence, state);
-            queueLinksFromPage(crawlQueue, page, confidence, institution);
         }
 
         // 2.2 Just crawl every link possible maybe? (maintaining checkedLinks)
+        recordPhase(phaseSample, SearchState.CRAWL, "sequential");
 
-        CrawlTarget best = checkedLinks.peek();
+        CrawlTarget best = checkedLinks.getBest();
 
         debugData.details = "Crawling";
         debugTemplate.send("department.debug", institution.name(), debugData);
-        state = SearchState.IDLE;
+        context.setState(SearchState.IDLE);
         if (best.weight() < 1) {
             throw new DepartmentSiteNotFoundException(institution, best.url(), best.weight());
         }
@@ -271,7 +280,7 @@ public class DepartmentFinder extends BaseFinder {
                 "mechanism", "crawling")
                 .increment();
         log.info("Identified {} as department page with {} confidence", best.url(), best.weight());
-        return client.get(best.url()); // FIXME: This isn't great. What happens if we fail to get it this time?
+        return fetch(context, best.url()); // Already fetched, so served from the page cache
     }
 
     public DepartmentKeyword getPrimaryDepartment() {
@@ -282,7 +291,265 @@ public class DepartmentFinder extends BaseFinder {
         return properties.getImportantDepartmentVariants();
     }
 
-    private int queueLinksFromPage(CrawlQueue queue, FinderClientResponse page, double pageConfidence, Institution institution) {
+    /**
+     * Fetch each templated URL in order, stopping at the first one that is confidently a department site.
+     *
+     * @return the first confident template probe, or null if there was none
+     */
+    private TemplateProbe probeTemplates(SearchContext context, String hostname, List<String> templatedUrls) {
+        for (int i = 0; i < templatedUrls.size(); i++) {
+            TemplateProbe probe = probeTemplate(context, i, templatedUrls.get(i));
+            recordCheckedTemplate(context, hostname, probe);
+
+            if (probe.confidence() >= 1.4) {
+                return probe;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fetch all templated URLs at once, with at most {@link TemplateProbingProperties#maxConcurrentPerHost()} fetches
+     * running against any one host. Probes to a host start in template order, each finished probe starting the host's
+     * next. Fetches go through the client asynchronously where it can, so that probes waiting on the fetch scheduler
+     * or limiter don't hold a thread each.
+     * <p>
+     * Template order is kept as the priority: as soon as one probe is confident, and every template ahead of it has
+     * finished, the probes still running are cancelled. The most confident of the finished probes wins, with ties
+     * going to the earlier template.
+     *
+     * @return the best confident template probe, or null if there was none
+     */
+    private TemplateProbe probeTemplatesInParallel(SearchContext context, String hostname,
+            List<String> templatedUrls) {
+        ParallelTemplateProbes run = new ParallelTemplateProbes(context, templatedUrls);
+        Map<String, Queue<Integer>> hostQueues = new LinkedHashMap<>();
+        for (int i = 0; i < templatedUrls.size(); i++) {
+            hostQueues.computeIfAbsent(StringUtils.defaultString(URI.create(templatedUrls.get(i)).getHost()),
+                    host -> new ArrayDeque<>()).add(i);
+        }
+        for (Queue<Integer> hostQueue : hostQueues.values()) {
+            for (int i = 0; i < Math.max(1, templateProbingProperties.maxConcurrentPerHost()); i++) {
+                run.startNext(hostQueue);
+            }
+        }
+
+        TemplateProbe[] probes = new TemplateProbe[templatedUrls.size()];
+        try {
+            for (int completed = 0; completed < probes.length; completed++) {
+                Optional<TemplateProbe> finished = run.finished.take();
+                if (finished.isEmpty()) {
+                    continue;
+                }
+                TemplateProbe probe = finished.get();
+                probes[probe.index()] = probe;
+                recordCheckedTemplate(context, hostname, probe);
+
+                if (isTemplateProbingDecided(probes)) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            run.stop();
+        }
+
+        TemplateProbe best = null;
+        for (TemplateProbe probe : probes) {
+            if (probe != null && probe.confidence() >= 1.4 && (best == null || probe.confidence() > best.confidence())) {
+                best = probe;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return whether some probe is confident and every probe before the first confident one has finished
+     */
+    private static boolean isTemplateProbingDecided(TemplateProbe[] probes) {
+        for (TemplateProbe probe : probes) {
+            if (probe == null) {
+                return false;
+            } else if (probe.confidence() >= 1.4) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TemplateProbe probeTemplate(SearchContext context, int index, String templatedUrl) {
+        FinderClientResponse page = fetch(context, templatedUrl);
+        return new TemplateProbe(index, templatedUrl, page, foundDepartmentSite(context, page));
+    }
+
+    private void recordCheckedTemplate(SearchContext context, String hostname, TemplateProbe probe) {
+        CheckedLinks checkedLinks = context.getCheckedLinks();
+        if (probe.page() != null && !probe.url().equals(probe.page().location())) {
+            // ...
+            checkedLinks.add(probe.page().location(), probe.confidence(), SearchState.TEMPLATE);
+        }
+        checkedLinks.add(probe.url(), probe.confidence(), SearchState.TEMPLATE);
+
+        if (hostOutcomeCache != null && probe.page() != null) {
+            hostOutcomeCache.putTemplateOutcome(hostname, probe.url(), probe.page().status(), probe.confidence());
+        }
+    }
+
+    /**
+     * Leave out the templated URLs that an earlier search of the host already found not to be the department site,
+     * marking them checked with the confidence they were given then.
+     *
+     * @return the templated URLs still to probe, in the same order
+     */
+    private List<String> skipCachedTemplates(SearchContext context, String hostname, List<String> templatedUrls) {
+        if (hostOutcomeCache == null) {
+            return templatedUrls;
+        }
+
+        List<String> toProbe = new ArrayList<>(templatedUrls.size());
+        for (String url : templatedUrls) {
+            HostOutcomeCache.TemplateOutcome outcome = hostOutcomeCache.getTemplateOutcome(hostname, url);
+            if (outcome != null) {
+                log.debug("Skipping templated URL {}, which gave HTTP {} when last checked", url, outcome.status());
+                context.getCheckedLinks().add(url, outcome.confidence(), SearchState.TEMPLATE);
+            } else {
+                toProbe.add(url);
+            }
+        }
+        return toProbe;
+    }
+
+    /**
+     * Queue the URLs from the site's sitemaps that mention any department keyword. When streaming, this stops reading
+     * once enough candidates have been queued.
+     */
+    void queueSiteMapLinks(CrawlQueue crawlQueue, String pageUrl, String hostname) {
+        if (hostOutcomeCache != null) {
+            List<HostOutcomeCache.SiteMapCandidate> cached = hostOutcomeCache.getSiteMapCandidates(hostname);
+            if (cached != null) {
+                log.info("Queueing {} candidate links from cached sitemap of {}", cached.size(), hostname);
+                cached.forEach(candidate -> crawlQueue.add(candidate.url(), candidate.weight(), 1));
+                return;
+            }
+        }
+
+        if (siteMapReader == null) {
+            for (String url : client.getSiteMapURLs(pageUrl)) {
+                queueSiteMapLink(crawlQueue, hostname, url);
+            }
+        } else {
+            int maxCandidates = siteMapReader.getMaxCandidates();
+            long read = siteMapReader.read(pageUrl, url -> {
+                queueSiteMapLink(crawlQueue, hostname, url);
+                return maxCandidates <= 0 || crawlQueue.size() < maxCandidates;
+            });
+            log.info("Queued {} candidate links from {} sitemap URLs", crawlQueue.size(), read);
+        }
+
+        if (hostOutcomeCache != null) {
+            hostOutcomeCache.putSiteMapCandidates(hostname, crawlQueue.stream()
+                    .map(target -> new HostOutcomeCache.SiteMapCandidate(target.url(), target.weight()))
+                    .toList());
+        }
+    }
+
+    private void queueSiteMapLink(CrawlQueue crawlQueue, String hostname, String url) {
+        long matches = siteMapMatcher.match(url);
+        if (matches == 0) {
+            return;
+        }
+
+        // The queue keeps the highest weight a URL is added with, so only that one needs adding
+        List<DepartmentKeyword> keywords = siteMapMatcher.getKeywords();
+        double weight = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < keywords.size(); i++) {
+            if ((matches & (1L << i)) != 0) {
+                weight = Math.max(weight, keywords.get(i).getWeight());
+            }
+        }
+        tryAddLink(crawlQueue, hostname, weight, 1, url);
+    }
+
+    private void recordPhase(Timer.Sample sample, SearchState phase, String mode) {
+        sample.stop(registry.timer("jds.profile-finder.department-finder.phase",
+                "phase", phase.name().toLowerCase(),
+                "mode", mode));
+    }
+
+    @PreDestroy
+    void shutdownTemplateProbeExecutor() {
+        if (templateProbeExecutor != null) {
+            templateProbeExecutor.shutdownNow();
+        }
+    }
+
+    private record TemplateProbe(int index, String url, FinderClientResponse page, double confidence) {
+    }
+
+    /**
+     * The probes of one parallel template probing, which start each other as they finish and report to a queue.
+     */
+    private final class ParallelTemplateProbes {
+        /** Each finished probe, or empty for one that failed */
+        final BlockingQueue<Optional<TemplateProbe>> finished = new LinkedBlockingQueue<>();
+
+        private final SearchContext context;
+        private final List<String> templatedUrls;
+        private final Map<Integer, CompletableFuture<FinderClientResponse>> fetches = new ConcurrentHashMap<>();
+        private volatile boolean stopped;
+
+        ParallelTemplateProbes(SearchContext context, List<String> templatedUrls) {
+            this.context = context;
+            this.templatedUrls = templatedUrls;
+        }
+
+        /**
+         * Start the next probe in the host's queue, unless probing has stopped.
+         */
+        void startNext(Queue<Integer> hostQueue) {
+            Integer index;
+            synchronized (hostQueue) {
+                index = stopped ? null : hostQueue.poll();
+            }
+            if (index == null) {
+                return;
+            }
+
+            String url = templatedUrls.get(index);
+            try {
+                CompletableFuture<FinderClientResponse> fetch = fetchAsync(context, url, templateProbeExecutor);
+                fetches.put(index, fetch);
+                if (stopped) {
+                    // Stopped while this was starting, after the running probes were cancelled
+                    fetch.cancel(false);
+                }
+                fetch.thenApplyAsync(page -> new TemplateProbe(index, url, page, foundDepartmentSite(context, page)),
+                                templateProbeExecutor)
+                        .whenComplete((probe, e) -> {
+                            if (e != null && !stopped) {
+                                log.warn("Template probe failed", e);
+                            }
+                            finished.add(Optional.ofNullable(probe));
+                            startNext(hostQueue);
+                        });
+            } catch (RuntimeException e) {
+                log.warn("Template probe failed", e);
+                finished.add(Optional.empty());
+            }
+        }
+
+        /**
+         * Start no more probes, and cancel those still running.
+         */
+        void stop() {
+            stopped = true;
+            fetches.values().forEach(fetch -> fetch.cancel(false));
+        }
+    }
+
+    private int queueLinksFromPage(CrawlQueue queue, FinderClientResponse page, double pageConfidence, int pageDepth,
+            Institution institution) {
         if (page == null || page.document() == null) {
             return -1;
         }
@@ -294,7 +561,7 @@ public class DepartmentFinder extends BaseFinder {
             // their highest found weight in the queue because of the logic in CrawlQueue.offer
             double weight = pageConfidence * keyword.getWeight();
             Elements possibleLinks = page.document().select(keyword.getRelevantLink());
-            count += tryAddLinks(queue, host, weight, possibleLinks);
+            count += tryAddLinks(queue, host, weight, pageDepth + 1, possibleLinks);
         }
 
         return count;
@@ -0,0 +1,196 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.collections.api.map.primitive.ImmutableObjectDoubleMap;
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectDoubleHashMap;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scores how much a page looks like a department site for each of a set of keywords.
+ * <p>
+ * Gives the same scores as running each keyword's {@link DepartmentKeyword#getRelevantImageLink() image link},
+ * {@link DepartmentKeyword#getRelevantLink() link} and {@link DepartmentKeyword#getRelevantHeading() heading}
+ * selectors over the page, but classifies every element against all keywords in a single traversal of the document,
+ * rather than one traversal per selector per keyword.
+ *
+ * @author Omri Harary
+ */
+public class DepartmentPageScorer {
+    private static final Logger log = LoggerFactory.getLogger(DepartmentPageScorer.class);
+
+    private final List<DepartmentKeyword> keywords;
+    private final KeywordMatcher matcher;
+    private final String[][] lowerCaseVariants;
+
+    /**
+     * @param keywords  keywords to score pages for, at most 64
+     */
+    public DepartmentPageScorer(List<DepartmentKeyword> keywords) {
+        this.matcher = new KeywordMatcher(keywords);
+        this.keywords = matcher.getKeywords();
+        this.lowerCaseVariants = new String[this.keywords.size()][];
+        for (int i = 0; i < this.keywords.size(); i++) {
+            String[] variants = this.keywords.get(i).getVariants();
+            lowerCaseVariants[i] = new String[variants.length];
+            for (int v = 0; v < variants.length; v++) {
+                lowerCaseVariants[i][v] = variants[v].trim().toLowerCase();
+            }
+        }
+    }
+
+    /**
+     * @param document  page to score
+     * @param location  URL the page was fetched from
+     * @return the confidence that the page is a department site, for each keyword
+     */
+    public ImmutableObjectDoubleMap<DepartmentKeyword> score(Document document, String location) {
+        double[] confidence = new double[keywords.size()];
+        scoreTitleAndLocation(document.title(), location, confidence);
+        NodeTraversor.traverse(new ScoringVisitor(location, confidence), document);
+
+        ObjectDoubleHashMap<DepartmentKeyword> report = new ObjectDoubleHashMap<>(keywords.size());
+        for (int i = 0; i < keywords.size(); i++) {
+            report.addToValue(keywords.get(i), confidence[i]);
+        }
+        return report.toImmutable();
+    }
+
+    private void scoreTitleAndLocation(String title, String location, double[] confidence) {
+        HashSet<String> tokenizedIdentifiers = null;
+        for (int i = 0; i < keywords.size(); i++) {
+            String[] variants = keywords.get(i).getVariants();
+            if (!StringUtils.containsAnyIgnoreCase(title, variants)
+                    && !StringUtils.containsAnyIgnoreCase(location, variants)) {
+                continue;
+            }
+
+            if (tokenizedIdentifiers == null) {
+                tokenizedIdentifiers = new HashSet<>();
+                for (String token : location.split("\\W")) {
+                    tokenizedIdentifiers.add(token.toLowerCase());
+                }
+                for (String token : title.split(" ")) {
+                    tokenizedIdentifiers.add(token.toLowerCase());
+                }
+            }
+
+            for (String token : tokenizedIdentifiers) {
+                double modifier;
+                if (StringUtils.equalsAnyIgnoreCase(token, variants)) {
+                    modifier = 0.5;
+                } else {
+                    modifier = switch (token) {
+                        case "department", "school" -> 0.5;
+                        case "degree"               -> -1.0;
+                        case "calendar"             -> -5.0;
+                        default -> 0.0;
+                    };
+                }
+
+                log.debug("{} confidence change based on token {} present in page title or location", modifier, token);
+                confidence[i] += modifier;
+            }
+        }
+    }
+
+    /**
+     * @return a mask of the keywords with a variant contained in the (image) alt text
+     */
+    private long matchAltText(String alt) {
+        String lowerCaseAlt = alt.toLowerCase();
+        long found = 0;
+        for (int i = 0; i < lowerCaseVariants.length; i++) {
+            for (String variant : lowerCaseVariants[i]) {
+                if (lowerCaseAlt.contains(variant)) {
+                    found |= 1L << i;
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static void addToMatched(double[] confidence, long matched, double modifier) {
+        for (int i = 0; i < confidence.length; i++) {
+            if ((matched & (1L << i)) != 0) {
+                confidence[i] += modifier;
+            }
+        }
+    }
+
+    private static double headingModifier(String tagName) {
+        return switch (tagName) {
+            case "h1" -> 0.85;
+            case "h2" -> 0.82;
+            case "h3" -> 0.8;
+            case "h4" -> 0.5;
+            case "h5" -> 0.3;
+            case "h6" -> 0.1;
+            default -> Double.NaN;
+        };
+    }
+
+    private class ScoringVisitor implements NodeVisitor {
+        private final String location;
+        private final double[] confidence;
+        private int linkDepth; // Number of a[href] elements enclosing the current node
+
+        ScoringVisitor(String location, double[] confidence) {
+            this.location = location;
+            this.confidence = confidence;
+        }
+
+        @Override
+        public void head(Node node, int depth) {
+            if (!(node instanceof Element element)) {
+                return;
+            }
+
+            String tagName = element.normalName();
+            if (tagName.equals("a") && element.hasAttr("href")) {
+                // Relevantly titled text link that leads back to same page
+                long matched = matcher.match(element.text());
+                if (matched != 0 && element.absUrl("href").equals(location)) {
+                    log.debug("Found relevant link back to same page. High confidence added");
+                    addToMatched(confidence, matched, 0.8);
+                }
+                linkDepth++;
+            } else if (tagName.equals("img")) {
+                // Images (w/ alt text) relating to the keyword that links back to same page (ie likely logos)
+                if (linkDepth > 0 && element.hasAttr("alt")) {
+                    long matched = matchAltText(element.attr("alt"));
+                    if (matched != 0 && element.parent().absUrl("href").equals(location)) {
+                        log.debug("Found relevant image linking back to same page. High confidence added");
+                        addToMatched(confidence, matched, 0.8);
+                    }
+                }
+            } else {
+                // Relevant heading element, scaled by heading size
+                double modifier = headingModifier(tagName);
+                if (!Double.isNaN(modifier)) {
+                    long matched = matcher.match(element.text());
+                    if (matched != 0) {
+                        log.debug("{} confidence added based on relevant {}-level heading", modifier, tagName);
+                        addToMatched(confidence, matched, modifier);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void tail(Node node, int depth) {
+            if (node instanceof Element element && element.normalName().equals("a") && element.hasAttr("href")) {
+                linkDepth--;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.aaejo.profilefinder.finder;
+
+import io.github.aaejo.profilefinder.finder.configuration.EarlyTerminationProperties;
+import io.github.aaejo.profilefinder.finder.configuration.EarlyTerminationProperties.Policy;
+
+/**
+ * Decides when a crawl has found a good enough page to stop early, according to the configured policy. A new instance
+ * is needed for each crawl.
+ *
+ * @author Omri Harary
+ */
+public class EarlyTermination {
+
+    private final EarlyTerminationProperties properties;
+
+    private double best = Double.NEGATIVE_INFINITY;
+    private int pagesWithoutImprovement;
+
+    public EarlyTermination(EarlyTerminationProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Record the confidence of the page just checked.
+     *
+     * @param confidence    confidence of the page
+     * @return true if the crawl should stop
+     */
+    public boolean shouldStop(double confidence) {
+        if (confidence > best) {
+            best = confidence;
+            pagesWithoutImprovement = 0;
+        } else {
+            pagesWithoutImprovement++;
+        }
+
+        return switch (properties.policy()) {
+            case NONE                 -> false;
+            case FIRST_OVER_THRESHOLD -> confidence >= properties.threshold();
+            case NO_IMPROVEMENT       -> best >= properties.minimumConfidence()
+                                            && pagesWithoutImprovement >= properties.patience();
+        };
+    }
+
+    public Policy getPolicy() {
+        return properties.policy();
+    }
+}
@@ -1,8 +1,6 @@
 package io.github.aaejo.profilefinder.finder;
 
 import java.net.URI;
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -21,6 +19,7 @@ import io.github.aaejo.finder.client.FinderClientResponse;
 import io.github.aaejo.messaging.records.Institution;
 import io.github.aaejo.profilefinder.finder.configuration.CrawlingProperties;
 import io.github.aaejo.profilefinder.finder.configuration.DepartmentFinderProperties;
+import io.github.aaejo.profilefinder.finder.configuration.EarlyTerminationProperties;
 import io.github.aaejo.profilefinder.finder.exception.FacultyListNotFoundException;
 import io.micrometer.core.instrument.MeterRegistry;
 
@@ -34,13 +33,24 @@ public class FacultyFinder extends BaseFinder {
     @Autowired
     private KafkaTemplate<String, DebugData> debugTemplate;
 
+    private static final String[] IDENTIFIER_TOKENS = { "professors", "instructors", "faculty", "staff", "people",
+            "persons", "profiles", "members", "employee", "directory", "contact" };
+    // NOTE: May need to adjust weights here.
+    private static final double[] IDENTIFIER_TOKEN_WEIGHTS = { 0.7, 0.5, 0.4, 0.4, 0.37, 0.37, 0.35, 0.35, 0.25, 0.1,
+            0.1 };
+    // Weights of each of FacultyPageFeatures.TERMS
+    private static final double[] TERM_WEIGHTS = { 0.03, 0.02, 0.01, 0.01, 0.01, 0.01 };
+
     private final DepartmentFinderProperties departmentFinderProperties;
+    private final EarlyTerminationProperties earlyTerminationProperties;
 
     public FacultyFinder(FinderClient client, DepartmentFinderProperties departmentFinderProperties,
-            CrawlingProperties crawlingProperties, MeterRegistry registry) {
+            CrawlingProperties crawlingProperties, EarlyTerminationProperties earlyTerminationProperties,
+            MeterRegistry registry) {
         super(client, crawlingProperties, registry);
 
         this.departmentFinderProperties = departmentFinderProperties;
+        this.earlyTerminationProperties = earlyTerminationProperties;
     }
 
     public double foundFacultyList(final FinderClientResponse page) {
@@ -58,69 +68,25 @@ public class FacultyFinder extends BaseFinder {
         String location = page.location();
         String title = page.document().title();
 
-        HashSet<String> tokenizedIdentifiers = new HashSet<>();
-        Arrays.stream(location.split("\\W"))
-                .map(token -> token.toLowerCase())
-                .forEach(token -> tokenizedIdentifiers.add(token));
-        Arrays.stream(title.split(" "))
-                .map(token -> token.toLowerCase())
-                .forEach(token -> tokenizedIdentifiers.add(token));
-        for (String token : tokenizedIdentifiers) {
-            // NOTE: May need to adjust weights here.
-            double modifier = switch (token) {
-                case "professors"           -> 0.7;
-                case "instructors"          -> 0.5;
-                case "faculty"              -> 0.4;
-                case "staff"                -> 0.4;
-                case "people", "persons"    -> 0.37;
-                case "profiles"             -> 0.35;
-                case "members"              -> 0.35;
-                case "employee"             -> 0.25;
-                case "directory"            -> 0.1;
-                case "contact"              -> 0.1;
-                default -> 0.0;
-            };
-
-            confidence += modifier;
-        }
+        confidence += scoreIdentifierTokens(location, title);
 
         Element content = drillDownToUniqueMain(page.document()).get(0);
+        FacultyPageFeatures features = FacultyPageFeatures.extract(content);
 
-        // TODO: These should be capped to a max number so that one page doesn't end up way higher than another just by
-        //      having more matches
-        confidence += 0.03 * StringUtils.countMatches(content.text().toLowerCase(), "professor");
-        confidence += 0.02 * StringUtils.countMatches(content.text().toLowerCase(), "lecturer");
-        confidence += 0.01 * StringUtils.countMatches(content.text().toLowerCase(), "prof.");
-        confidence += 0.01 * StringUtils.countMatches(content.text().toLowerCase(), "prof ");
-        confidence += 0.01 * StringUtils.countMatches(content.text().toLowerCase(), "dr.");
-        confidence += 0.01 * StringUtils.countMatches(content.text().toLowerCase(), "dr ");
-
-        Elements mailLinks = content.select("a[href^=mailto:]");
-        confidence += 0.05 * mailLinks.size();
-        Elements telLinks = content.select("a[href^=tel:]");
-        confidence += 0.03 * telLinks.size();
-
-        Elements images = content.getElementsByTag("img");
-        confidence += 0.001 * images.size();
-
-        Elements relevantHeadings = content.select(Evaluators.RELEVANT_HEADINGS);
-        for (Element heading : relevantHeadings) {
-            double modifier = switch (heading.tagName()) {
-                case "h1" -> 0.85;
-                case "h2" -> 0.82;
-                case "h3" -> 0.8;
-                case "h4" -> 0.5;
-                case "h5" -> 0.3;
-                case "h6" -> 0.1;
-                default -> 0;
-            };
-            log.debug("{} confidence added based on relevant {}-level heading", modifier, heading.tagName());
-            confidence += modifier;
+        // Term counts are capped, so that one page doesn't end up way higher than another just by having more matches
+        for (int i = 0; i < TERM_WEIGHTS.length; i++) {
+            confidence += TERM_WEIGHTS[i] * features.getTermCount(i);
         }
 
-        Elements tables = content.getElementsByTag("table");
-        if (!tables.isEmpty()) {
-            confidence += (5 - tables.size()) / 5.0; // 1-4 tables = good, more is increasingly worse 
+        confidence += 0.05 * features.getMailLinks();
+        confidence += 0.03 * features.getTelLinks();
+        confidence += 0.001 * features.getImages();
+
+        log.debug("{} confidence added based on relevant headings", features.getHeadingConfidence());
+        confidence += features.getHeadingConfidence();
+
+        if (features.getTables() > 0) {
+            confidence += (5 - features.getTables()) / 5.0; // 1-4 tables = good, more is increasingly worse 
         }
 
         boolean anyMatchedKeywords = false;
@@ -139,27 +105,73 @@ public class FacultyFinder extends BaseFinder {
         return confidence;
     }
 
-    public FinderClientResponse findFacultyList(Institution institution, FinderClientResponse inPage, double initialConfidence) {
-        CrawlQueue checkedLinks = new CrawlQueue();
+    /**
+     * Score the distinct tokens of the page's location (split on non-word characters) and title (split on spaces),
+     * without building the tokens themselves.
+     */
+    private static double scoreIdentifierTokens(String location, String title) {
+        boolean[] seen = new boolean[IDENTIFIER_TOKENS.length];
+        double confidence = 0;
+        confidence += scoreIdentifierTokens(location, true, seen);
+        confidence += scoreIdentifierTokens(title, false, seen);
+        return confidence;
+    }
+
+    private static double scoreIdentifierTokens(String identifier, boolean splitOnNonWord, boolean[] seen) {
+        double confidence = 0;
+        int start = 0;
+        for (int i = 0; i <= identifier.length(); i++) {
+            if (i < identifier.length() && !isTokenSeparator(identifier.charAt(i), splitOnNonWord)) {
+                continue;
+            }
+
+            for (int t = 0; t < IDENTIFIER_TOKENS.length; t++) {
+                String token = IDENTIFIER_TOKENS[t];
+                if (!seen[t] && token.length() == i - start && identifier.regionMatches(true, start, token, 0, i - start)) {
+                    seen[t] = true;
+                    confidence += IDENTIFIER_TOKEN_WEIGHTS[t];
+                }
+            }
+            start = i + 1;
+        }
+        return confidence;
+    }
+
+    private static boolean isTokenSeparator(char c, boolean splitOnNonWord) {
+        if (!splitOnNonWord) {
+            return c == ' ';
+        }
+        // Same as \W
+        return !((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_');
+    }
+
+    public FinderClientResponse findFacultyList(SearchContext context, FinderClientResponse inPage, double initialConfidence) {
+        Institution institution = context.getInstitution();
+        DebugData debugData = context.startCrawl();
+        context.setFacultyDebugData(debugData);
+        CheckedLinks checkedLinks = context.getCheckedLinks();
         checkedLinks.add(inPage.location(), initialConfidence);
-        debugData = new DebugData();
-        debugData.institution = institution;
-        debugData.checkedLinks = checkedLinks;
 
-        CrawlQueue crawlQueue = new CrawlQueue();
-        queueLinksFromPage(crawlQueue, inPage, initialConfidence, institution);
+        context.setState(SearchState.CRAWL);
+        CrawlBudget budget = startBudget(context, "faculty");
+        CrawlQueue crawlQueue = context.getCrawlQueue();
+        queueLinksFromPage(crawlQueue, inPage, initialConfidence, 0, institution);
         CrawlQueue secondaryCrawlQueue = new CrawlQueue();
 
         // 1. Crawl just the links from the department page
 
         CrawlTarget target;
         while ((target = crawlQueue.poll()) != null) {
-            if (checkedLinks.contains(target)) {
+            if (isBudgetExhausted(budget)) {
+                break;
+            }
+
+            if (checkedLinks.contains(target.url())) {
                 log.info("Skipping checked link {}", target.url()); // TODO: make debug later
                 continue; // Skip if this is a URL that has already been checked
             }
 
-            FinderClientResponse page = client.get(target.url());
+            FinderClientResponse page = fetch(context, target.url());
 
             double confidence = foundFacultyList(page);
             if (page != null && !target.url().equals(page.location())) {
@@ -167,34 +179,40 @@ public class FacultyFinder extends BaseFinder {
                 checkedLinks.add(page.location(), confidence);
             }
             checkedLinks.add(target.url(), confidence);
-            queueLinksFromPage(secondaryCrawlQueue, page, confidence, institution);
+            queueLinksFromPage(secondaryCrawlQueue, page, confidence, target.depth(), institution);
         }
 
         // Early-exit if found a really good result just from the first batch
 
-        CrawlTarget earlyBest = checkedLinks.peek();
+        CrawlTarget earlyBest = checkedLinks.getBest();
         if (earlyBest.weight() >= 1.4) {
             debugData.details = "Early";
             debugTemplate.send("faculty.debug", institution.name(), debugData);
+            context.setState(SearchState.IDLE);
             registry.counter("jds.profile-finder.faculty-finder.found",
                     "country", institution.country(),
                     "mechanism", "crawling")
                     .increment();
             log.info("Identified {} as faculty list page with {} confidence", earlyBest.url(), earlyBest.weight());
-            return client.get(earlyBest.url()); // FIXME: This isn't great. What happens if we fail to get it this time?
+            return fetch(context, earlyBest.url()); // Already fetched, so served from the page cache
         }
 
         // 2. Full crawling from there
 
         crawlQueue = secondaryCrawlQueue;
+        EarlyTermination earlyTermination = new EarlyTermination(earlyTerminationProperties);
         target = null;
         while ((target = crawlQueue.poll()) != null) {
-            if (checkedLinks.contains(target)) {
+            if (isBudgetExhausted(budget)) {
+                break;
+            }
+
+            if (checkedLinks.contains(target.url())) {
                 log.info("Skipping checked link {}", target.url()); // TODO: make debug later
                 continue; // Skip if this is a URL that has already been checked
             }
 
-            FinderClientResponse page = client.get(target.url());
+            FinderClientResponse page = fetch(context, target.url());
 
             double confidence = foundFacultyList(page);
             if (page != null && !target.url().equals(page.location())) {
@@ -202,12 +220,18 @@ public class FacultyFinder extends BaseFinder {
                 checkedLinks.add(page.location(), confidence);
             }
             checkedLinks.add(target.url(), confidence);
-            queueLinksFromPage(crawlQueue, page, confidence, institution);
+            queueLinksFromPage(crawlQueue, page, confidence, target.depth(), institution);
+
+            if (earlyTermination.shouldStop(confidence)) {
+                recordEarlyTermination("faculty", earlyTermination, crawlQueue.size());
+                break;
+            }
         }
 
-        CrawlTarget best = checkedLinks.peek();
+        CrawlTarget best = checkedLinks.getBest();
 
         debugTemplate.send("faculty.debug", institution.name(), debugData);
+        context.setState(SearchState.IDLE);
         if (best.weight() < 1) {
             throw new FacultyListNotFoundException(institution, best.url(), best.weight());
         }
@@ -217,10 +241,11 @@ public class FacultyFinder extends BaseFinder {
                 "mechanism", "crawling")
                 .increment();
         log.info("Identified {} as faculty list page with {} confidence", best.url(), best.weight());
-        return client.get(best.url()); // FIXME: This isn't great. What happens if we fail to get it this time?
+        return fetch(context, best.url()); // Already fetched, so served from the page cache
     }
 
-    private int queueLinksFromPage(CrawlQueue queue, FinderClientResponse page, double pageConfidence, Institution institution) {
+    private int queueLinksFromPage(CrawlQueue queue, FinderClientResponse page, double pageConfidence, int pageDepth,
+            Institution institution) {
         if (page == null || page.document() == null) {
             return -1;
         }
@@ -235,7 +260,7 @@ public class FacultyFinder extends BaseFinder {
             double weight = pageConfidence
                     * ((level.parents().size() + 1) / (contentDrillDown.get(0).parents().size() + 1));
             Elements possibleLinks = level.select(Evaluators.POSSIBLE_LINK);
-            count += tryAddLinks(queue, host, weight, possibleLinks);
+            count += tryAddLinks(queue, host, weight, pageDepth + 1, possibleLinks);
         }
 
         return count;
@@ -246,13 +271,5 @@ public class FacultyFinder extends BaseFinder {
                 QueryParser.parse("a[href]:contains(faculty):not(:contains(faculty of)), "
                         + "a[href]:contains(staff), a[href]:contains(people), a[href]:contains(professors), "
                         + "a[href]:contains(directory)");
-        static final Evaluator RELEVANT_HEADINGS =
-                QueryParser.parse(
-                        "h1:contains(professors), h1:contains(instructors), h1:contains(faculty):not(:contains(faculty of)), h1:contains(staff), h1:contains(people), h1:contains(persons), h1:contains(members), h1:contains(employee), h1:contains(directory), h1:contains(contact), h1:contains(profiles), "
-                        + "h2:contains(professors), h2:contains(instructors), h2:contains(faculty):not(:contains(faculty of)), h2:contains(staff), h2:contains(people), h2:contains(persons), h2:contains(members), h2:contains(employee), h2:contains(directory), h2:contains(contact), h2:contains(profiles), "
-                        + "h3:contains(professors), h3:contains(instructors), h3:contains(faculty):not(:contains(faculty of)), h3:contains(staff), h3:contains(people), h3:contains(persons), h3:contains(members), h3:contains(employee), h3:contains(directory), h3:contains(contact), h3:contains(profiles), "
-                        + "h4:contains(professors), h4:contains(instructors), h4:contains(faculty):not(:contains(faculty of)), h4:contains(staff), h4:contains(people), h4:contains(persons), h4:contains(members), h4:contains(employee), h4:contains(directory), h4:contains(contact), h4:contains(profiles), "
-                        + "h5:contains(professors), h5:contains(instructors), h5:contains(faculty):not(:contains(faculty of)), h5:contains(staff), h5:contains(people), h5:contains(persons), h5:contains(members), h5:contains(employee), h5:contains(directory), h5:contains(contact), h5:contains(profiles), "
-                        + "h6:contains(professors), h6:contains(instructors), h6:contains(faculty):not(:contains(faculty of)), h6:contains(staff), h6:contains(people), h6:contains(persons), h6:contains(members), h6:contains(employee), h6:contains(directory), h6:contains(contact), h6:contains(profiles)");
     }
 }
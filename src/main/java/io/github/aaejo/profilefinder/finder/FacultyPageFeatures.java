@@ -0,0 +1,150 @@
+package io.github.aaejo.profilefinder.finder;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+/**
+ * The features of a page's main content that {@link FacultyFinder} scores faculty lists by, gathered in a single
+ * traversal of the content.
+ *
+ * @author Omri Harary
+ */
+public class FacultyPageFeatures {
+
+    /** Terms counted in the content's text */
+    public static final String[] TERMS = { "professor", "lecturer", "prof.", "prof ", "dr.", "dr " };
+
+    /**
+     * Most occurrences of any one term that are counted, so that one page doesn't end up way higher than another just
+     * by having more matches.
+     */
+    public static final int MAX_TERM_COUNT = 50;
+
+    private static final TermCounter TERM_COUNTER = new TermCounter(TERMS);
+
+    // Terms that make a heading relevant, except for "faculty" which is only relevant when not part of "faculty of"
+    private static final String[] HEADING_TERMS = { "professors", "instructors", "staff", "people", "persons",
+            "members", "employee", "directory", "contact", "profiles", "faculty", "faculty of" };
+    private static final int FACULTY = HEADING_TERMS.length - 2;
+    private static final int FACULTY_OF = HEADING_TERMS.length - 1;
+    private static final TermCounter HEADING_COUNTER = new TermCounter(HEADING_TERMS);
+
+    private final int[] termCounts;
+    private int mailLinks;
+    private int telLinks;
+    private int images;
+    private int tables;
+    private double headingConfidence;
+
+    private FacultyPageFeatures(int[] termCounts) {
+        this.termCounts = termCounts;
+    }
+
+    /**
+     * @param content   main content element of the page
+     * @return the features of the content
+     */
+    public static FacultyPageFeatures extract(Element content) {
+        FacultyPageFeatures features = new FacultyPageFeatures(TERM_COUNTER.count(content.text(), MAX_TERM_COUNT));
+        NodeTraversor.traverse(features.new FeatureVisitor(), content);
+        return features;
+    }
+
+    /**
+     * @param term  index of the term in {@link #TERMS}
+     * @return the number of occurrences of the term, up to {@link #MAX_TERM_COUNT}
+     */
+    public int getTermCount(int term) {
+        return termCounts[term];
+    }
+
+    /**
+     * @return the number of mailto: links
+     */
+    public int getMailLinks() {
+        return mailLinks;
+    }
+
+    /**
+     * @return the number of tel: links
+     */
+    public int getTelLinks() {
+        return telLinks;
+    }
+
+    /**
+     * @return the number of images
+     */
+    public int getImages() {
+        return images;
+    }
+
+    /**
+     * @return the number of tables
+     */
+    public int getTables() {
+        return tables;
+    }
+
+    /**
+     * @return the confidence from relevant headings, scaled by heading size
+     */
+    public double getHeadingConfidence() {
+        return headingConfidence;
+    }
+
+    private static double headingModifier(String tagName) {
+        return switch (tagName) {
+            case "h1" -> 0.85;
+            case "h2" -> 0.82;
+            case "h3" -> 0.8;
+            case "h4" -> 0.5;
+            case "h5" -> 0.3;
+            case "h6" -> 0.1;
+            default -> Double.NaN;
+        };
+    }
+
+    private static boolean isRelevantHeading(String text) {
+        int[] counts = HEADING_COUNTER.count(text, 1);
+        for (int i = 0; i < FACULTY; i++) {
+            if (counts[i] > 0) {
+                return true;
+            }
+        }
+        return counts[FACULTY] > 0 && counts[FACULTY_OF] == 0;
+    }
+
+    private class FeatureVisitor implements NodeVisitor {
+
+        @Override
+        public void head(Node node, int depth) {
+            if (!(node instanceof Element element)) {
+                return;
+            }
+
+            String tagName = element.normalName();
+            switch (tagName) {
+                case "a" -> {
+                    String href = element.attr("href");
+                    if (StringUtils.startsWithIgnoreCase(href, "mailto:")) {
+                        mailLinks++;
+                    } else if (StringUtils.startsWithIgnoreCase(href, "tel:")) {
+                        telLinks++;
+                    }
+                }
+                case "img" -> images++;
+                case "table" -> tables++;
+                default -> {
+                    double modifier = headingModifier(tagName);
+                    if (!Double.isNaN(modifier) && isRelevantHeading(element.text())) {
+                        headingConfidence += modifier;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.aaejo.profilefinder.finder.configuration.HostOutcomeCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * On-disk cache of what was learned about a host in earlier searches of it: which of its templated URLs turned out not
+ * to be department sites, and which of its sitemap URLs were candidates. Retried and reprocessed institutions can then
+ * skip those fetches until the outcomes expire.
+ * <p>
+ * Each host is kept in its own JSON file, written to a temporary file and then moved into place, so a crashed write
+ * never leaves a partial entry behind.
+ *
+ * @author Omri Harary
+ */
+public class HostOutcomeCache {
+    private static final Logger log = LoggerFactory.getLogger(HostOutcomeCache.class);
+
+    /**
+     * @param url           templated URL that was probed
+     * @param status        HTTP status it responded with
+     * @param confidence    confidence that it was the department site
+     * @param checkedAt     when it was probed, in epoch milliseconds
+     */
+    public record TemplateOutcome(String url, int status, double confidence, long checkedAt) {
+    }
+
+    /**
+     * @param url       sitemap URL that mentioned a department keyword
+     * @param weight    weight it was queued with
+     */
+    public record SiteMapCandidate(String url, double weight) {
+    }
+
+    /**
+     * @param host          host the outcomes are for
+     * @param templates     outcomes of probing templated URLs, by URL
+     * @param siteMap       candidates found in the host's sitemaps, or null if there are none cached
+     * @param siteMapAt     when the sitemap candidates were found, in epoch milliseconds
+     */
+    record HostEntry(String host, Map<String, TemplateOutcome> templates, List<SiteMapCandidate> siteMap,
+            long siteMapAt) {
+    }
+
+    private final Path directory;
+    private final Duration templateTtl;
+    private final Duration siteMapTtl;
+    private final Clock clock;
+    private final MeterRegistry registry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public HostOutcomeCache(Path directory, Duration templateTtl, Duration siteMapTtl, Clock clock,
+            MeterRegistry registry) {
+        this.directory = directory;
+        this.templateTtl = templateTtl;
+        this.siteMapTtl = siteMapTtl;
+        this.clock = clock;
+        this.registry = registry;
+    }
+
+    public HostOutcomeCache(HostOutcomeCacheProperties properties, MeterRegistry registry) {
+        this(properties.directory(), properties.templateTtl(), properties.siteMapTtl(), Clock.systemUTC(), registry);
+    }
+
+    /**
+     * @param host  host the URL is on
+     * @param url   templated URL
+     * @return the unexpired outcome of an earlier probe of the URL, or null if there is none
+     */
+    public synchronized TemplateOutcome getTemplateOutcome(String host, String url) {
+        HostEntry entry = read(host);
+        TemplateOutcome outcome = entry != null ? entry.templates().get(url) : null;
+        if (outcome != null && isExpired(outcome.checkedAt(), templateTtl)) {
+            outcome = null;
+        }
+        record("template", outcome != null);
+        return outcome;
+    }
+
+    /**
+     * Remember the outcome of probing a templated URL, if it is one that would come out the same next time: a client
+     * error, or a page that was not the department site. Server errors and failed fetches are worth trying again.
+     *
+     * @param host          host the URL is on
+     * @param url           templated URL
+     * @param status        HTTP status it responded with
+     * @param confidence    confidence that it was the department site
+     */
+    public synchronized void putTemplateOutcome(String host, String url, int status, double confidence) {
+        boolean clientError = status >= 400 && status < 500 && status != 408 && status != 429;
+        boolean notDepartment = status >= 200 && status < 300 && confidence < 1.4;
+        if (!clientError && !notDepartment) {
+            return;
+        }
+
+        HostEntry entry = readOrEmpty(host);
+        entry.templates().put(url, new TemplateOutcome(url, status, confidence, clock.millis()));
+        write(host, entry);
+    }
+
+    /**
+     * @param host  host to get the sitemap candidates of
+     * @return the unexpired candidates found in the host's sitemaps, or null if there are none
+     */
+    public synchronized List<SiteMapCandidate> getSiteMapCandidates(String host) {
+        HostEntry entry = read(host);
+        List<SiteMapCandidate> candidates = entry != null ? entry.siteMap() : null;
+        if (candidates != null && isExpired(entry.siteMapAt(), siteMapTtl)) {
+            candidates = null;
+        }
+        record("sitemap", candidates != null);
+        return candidates;
+    }
+
+    /**
+     * Remember the candidates found in a host's sitemaps. Nothing is kept for a host with no candidates, since that may
+     * just as well mean its sitemap could not be fetched.
+     *
+     * @param host          host the sitemaps are for
+     * @param candidates    candidates found in them
+     */
+    public synchronized void putSiteMapCandidates(String host, List<SiteMapCandidate> candidates) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        HostEntry entry = readOrEmpty(host);
+        write(host, new HostEntry(host, entry.templates(), List.copyOf(candidates), clock.millis()));
+    }
+
+    private boolean isExpired(long storedAt, Duration ttl) {
+        return clock.millis() - storedAt > ttl.toMillis();
+    }
+
+    private void record(String kind, boolean hit) {
+        registry.counter("jds.profile-finder.host-cache.lookup", "kind", kind, "result", hit ? "hit" : "miss")
+                .increment();
+        if (hit) {
+            // Each hit skips at least the one fetch of the templated URL or sitemap
+            registry.counter("jds.profile-finder.host-cache.fetches-saved", "kind", kind).increment();
+        }
+    }
+
+    private HostEntry readOrEmpty(String host) {
+        HostEntry entry = read(host);
+        if (entry == null) {
+            return new HostEntry(host, new HashMap<>(), null, 0);
+        }
+        return new HostEntry(host, new HashMap<>(entry.templates()), entry.siteMap(), entry.siteMapAt());
+    }
+
+    private HostEntry read(String host) {
+        Path path = entryPath(host);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(path.toFile(), HostEntry.class);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable host cache entry {}", path, e);
+            return null;
+        }
+    }
+
+    private void write(String host, HostEntry entry) {
+        Path path = entryPath(host);
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "entry-", ".tmp");
+            objectMapper.writeValue(temp.toFile(), entry);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to cache outcomes for " + host, e);
+        }
+    }
+
+    private Path entryPath(String host) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(host.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve("host-" + HexFormat.of().formatHex(digest) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required to be supported", e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.util.List;
+
+import org.eclipse.collections.impl.map.mutable.primitive.CharObjectHashMap;
+
+/**
+ * Finds which of a set of department keywords occur in a piece of text, checking all of their variants in a single
+ * scan.
+ * <p>
+ * Matching is equivalent to each keyword's {@link DepartmentKeyword#getVariantsRegex() variants regex}: a variant
+ * matches case-insensitively, and only as a whole word (i.e. with a word boundary on both sides). Variants are kept in
+ * a trie, so each position in the text is only compared against the variants that could actually start there.
+ *
+ * @author Omri Harary
+ */
+public class KeywordMatcher {
+
+    private final List<DepartmentKeyword> keywords;
+    private final TrieNode root = new TrieNode();
+    private final long allKeywordsMask;
+
+    /**
+     * @param keywords  keywords to match, at most 64
+     */
+    public KeywordMatcher(List<DepartmentKeyword> keywords) {
+        if (keywords.size() > Long.SIZE) {
+            throw new IllegalArgumentException("Cannot match more than " + Long.SIZE + " keywords at once");
+        }
+        this.keywords = List.copyOf(keywords);
+
+        for (int i = 0; i < this.keywords.size(); i++) {
+            for (String variant : this.keywords.get(i).getVariants()) {
+                TrieNode node = root;
+                for (int c = 0; c < variant.length(); c++) {
+                    node = node.children.getIfAbsentPut(Character.toLowerCase(variant.charAt(c)), TrieNode::new);
+                }
+                node.keywordsMask |= 1L << i;
+            }
+        }
+        this.allKeywordsMask = this.keywords.isEmpty() ? 0 : -1L >>> (Long.SIZE - this.keywords.size());
+    }
+
+    /**
+     * @param text  text to search
+     * @return a mask with bit {@code i} set if the {@code i}th keyword occurs in the text
+     */
+    public long match(CharSequence text) {
+        long found = 0;
+        int length = text.length();
+        for (int start = 0; start < length; start++) {
+            if (!isBoundary(text, start)) {
+                continue;
+            }
+
+            TrieNode node = root;
+            for (int end = start; end < length; end++) {
+                node = node.children.get(Character.toLowerCase(text.charAt(end)));
+                if (node == null) {
+                    break;
+                }
+                if (node.keywordsMask != 0 && isBoundary(text, end + 1)) {
+                    found |= node.keywordsMask;
+                    if (found == allKeywordsMask) {
+                        return found;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @param text  text to search
+     * @return whether any of the keywords occur in the text
+     */
+    public boolean matchesAny(CharSequence text) {
+        return match(text) != 0;
+    }
+
+    /**
+     * @return the keywords, in the order of their bits in {@link #match(CharSequence)} masks
+     */
+    public List<DepartmentKeyword> getKeywords() {
+        return keywords;
+    }
+
+    /**
+     * Same definition of a word boundary as {@code \b} in {@link java.util.regex.Pattern}.
+     */
+    private static boolean isBoundary(CharSequence text, int index) {
+        boolean wordBefore = index > 0 && isWordChar(text.charAt(index - 1));
+        boolean wordAfter = index < text.length() && isWordChar(text.charAt(index));
+        return wordBefore != wordAfter;
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    private static final class TrieNode {
+        final CharObjectHashMap<TrieNode> children = new CharObjectHashMap<>(2);
+        long keywordsMask;
+    }
+}
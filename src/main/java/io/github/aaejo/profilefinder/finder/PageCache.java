@@ -0,0 +1,165 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.collections.api.map.primitive.ImmutableObjectDoubleMap;
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeTraversor;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.github.aaejo.profilefinder.finder.configuration.PageCacheProperties;
+
+/**
+ * Least-recently-used cache of the pages fetched while processing an institution, keyed by
+ * {@link UrlCanonicalizer canonical} URL, so that a page never has to be fetched or scored twice.
+ * <p>
+ * A page is cached under both the URL it was requested by and the location it ended up at, but only counts once
+ * towards the size limit. The cache is bounded both by number of URLs and by an estimate of the memory taken up by
+ * the parsed pages.
+ *
+ * @author Omri Harary
+ */
+public class PageCache {
+    // Rough per-node overhead of a parsed jsoup node, on top of its text
+    private static final int NODE_OVERHEAD_BYTES = 64;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<String, CachedPage> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    public PageCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    public PageCache(PageCacheProperties properties) {
+        this(properties.maxEntries(), properties.maxSize().toBytes());
+    }
+
+    /**
+     * @param url   URL the page was requested by, or its location
+     * @return the cached page, or null if it is not cached
+     */
+    public synchronized FinderClientResponse get(String url) {
+        CachedPage cached = pages.get(UrlCanonicalizer.canonicalize(url));
+        return cached != null ? cached.page : null;
+    }
+
+    /**
+     * Cache a fetched page.
+     *
+     * @param url   URL the page was requested by
+     * @param page  the page, which is ignored if null
+     */
+    public synchronized void put(String url, FinderClientResponse page) {
+        if (page == null) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>(2);
+        keys.add(UrlCanonicalizer.canonicalize(url));
+        if (page.location() != null) {
+            String locationKey = UrlCanonicalizer.canonicalize(page.location());
+            if (!keys.contains(locationKey)) {
+                keys.add(locationKey);
+            }
+        }
+
+        CachedPage cached = new CachedPage(page, estimateBytes(page.document()));
+        for (String key : keys) {
+            release(pages.put(key, cached));
+            cached.keys++;
+        }
+        bytes += cached.bytes;
+
+        evict();
+    }
+
+    /**
+     * @param url   URL of the page
+     * @return the department report previously computed for the page, or null if there is none
+     */
+    synchronized ImmutableObjectDoubleMap<DepartmentKeyword> getDepartmentReport(String url) {
+        CachedPage cached = pages.get(UrlCanonicalizer.canonicalize(url));
+        return cached != null ? cached.departmentReport : null;
+    }
+
+    /**
+     * Remember the department report for a page, if the page is still cached.
+     */
+    synchronized void putDepartmentReport(String url, ImmutableObjectDoubleMap<DepartmentKeyword> report) {
+        CachedPage cached = pages.get(UrlCanonicalizer.canonicalize(url));
+        if (cached != null) {
+            cached.departmentReport = report;
+        }
+    }
+
+    /**
+     * @return the number of URLs cached
+     */
+    public synchronized int size() {
+        return pages.size();
+    }
+
+    /**
+     * @return the estimated memory taken up by the cached pages
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, CachedPage>> eldest = pages.entrySet().iterator();
+        while ((pages.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            CachedPage cached = eldest.next().getValue();
+            eldest.remove();
+            release(cached);
+        }
+    }
+
+    private void release(CachedPage cached) {
+        if (cached != null && --cached.keys == 0) {
+            bytes -= cached.bytes;
+        }
+    }
+
+    private static long estimateBytes(Document document) {
+        if (document == null) {
+            return NODE_OVERHEAD_BYTES;
+        }
+
+        long[] estimate = { 0 };
+        NodeTraversor.traverse((Node node, int depth) -> {
+            estimate[0] += NODE_OVERHEAD_BYTES;
+            if (node instanceof TextNode text) {
+                estimate[0] += 2L * text.getWholeText().length();
+            } else if (node instanceof Element element) {
+                for (Attribute attribute : element.attributes()) {
+                    estimate[0] += 2L * (attribute.getKey().length() + attribute.getValue().length());
+                }
+            }
+        }, document);
+        return estimate[0];
+    }
+
+    private static final class CachedPage {
+        final FinderClientResponse page;
+        final long bytes;
+        int keys;
+        ImmutableObjectDoubleMap<DepartmentKeyword> departmentReport;
+
+        CachedPage(FinderClientResponse page, long bytes) {
+            this.page = page;
+            this.bytes = bytes;
+        }
+    }
+}
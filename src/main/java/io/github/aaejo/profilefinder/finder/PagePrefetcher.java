@@ -0,0 +1,253 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import org.jsoup.nodes.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Follows the pages of a paginated faculty list ahead of their extraction.
+ * <p>
+ * Each page's next link is looked for as soon as the page arrives, and the page it leads to is fetched straight away
+ * if there is room, so that fetching the following pages overlaps with extracting the current one. No more than a
+ * set number of pages are ever being fetched or waiting to be extracted at once.
+ * <p>
+ * Without an executor nothing is fetched ahead: each page is fetched on the calling thread when it is asked for, once
+ * the page before it has been extracted.
+ * <p>
+ * Pagination stops at the first page whose URL, or whose content, was already seen, since lists that loop back on
+ * themselves don't always do so under the same URL.
+ *
+ * @author Omri Harary
+ */
+class PagePrefetcher implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PagePrefetcher.class);
+
+    /**
+     * @param response  the fetched page
+     * @param content   the part of it profiles are extracted from
+     */
+    record Page(FinderClientResponse response, Element content) {
+    }
+
+    private static final Page END = new Page(null, null);
+
+    private final Executor executor;
+    private final int maxPagesInFlight;
+    private final int maxPages;
+    private final Function<String, FinderClientResponse> fetcher;
+    private final Function<FinderClientResponse, Element> contentOf;
+    private final Function<Element, String> nextUrlOf;
+    private final MeterRegistry registry;
+
+    private final BlockingQueue<Page> ready = new LinkedBlockingQueue<>();
+    private final Set<String> seenUrls = new HashSet<>();
+    private final Set<String> seenContent = new HashSet<>();
+    /** Pages being fetched or waiting to be taken */
+    private int inFlight;
+    private int pagesFollowed;
+    /** Next page found while there was no room to fetch it yet */
+    private String deferredUrl;
+    private volatile boolean closed;
+
+    /**
+     * @param executor          executor to fetch pages ahead on, or null to fetch each only when it is asked for
+     * @param maxPagesInFlight  most pages to be fetching or holding at once, when fetching ahead
+     * @param maxPages          most pages to follow, not counting the first
+     * @param fetcher           fetches a page
+     * @param contentOf         finds the part of a page that profiles are extracted from
+     * @param nextUrlOf         finds the link to the next page in a page's content, or null if it has none
+     * @param registry          registry for pagination metrics
+     */
+    PagePrefetcher(Executor executor, int maxPagesInFlight, int maxPages,
+            Function<String, FinderClientResponse> fetcher, Function<FinderClientResponse, Element> contentOf,
+            Function<Element, String> nextUrlOf, MeterRegistry registry) {
+        this.executor = executor;
+        this.maxPagesInFlight = executor != null ? Math.max(1, maxPagesInFlight) : 1;
+        this.maxPages = maxPages;
+        this.fetcher = fetcher;
+        this.contentOf = contentOf;
+        this.nextUrlOf = nextUrlOf;
+        this.registry = registry;
+    }
+
+    /**
+     * Start following the pages after the first one.
+     *
+     * @param first     first page of the list
+     * @param content   the part of the first page profiles are extracted from
+     */
+    void start(FinderClientResponse first, Element content) {
+        synchronized (this) {
+            seenUrls.add(UrlCanonicalizer.canonicalize(first.location()));
+            seenContent.add(fingerprint(content));
+        }
+        follow(nextUrlOf.apply(content));
+    }
+
+    /**
+     * Wait for the next page of the list.
+     *
+     * @return the next page, or null if there are no more
+     */
+    Page next() {
+        if (executor == null) {
+            // Only now is the page wanted, so only now is it fetched
+            submitDeferred();
+        }
+
+        Page page;
+        try {
+            page = ready.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (page == END) {
+            return null;
+        }
+
+        synchronized (this) {
+            inFlight--;
+        }
+        if (executor != null) {
+            // The page taken frees room to fetch another ahead
+            submitDeferred();
+        }
+        return page;
+    }
+
+    /**
+     * Stop following pages. Any fetch already under way is left to finish, but nothing more is started.
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    private void follow(String url) {
+        String stopReason = null;
+        boolean fetchNow = false;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (url == null) {
+                stopReason = "end";
+            } else if (!seenUrls.add(UrlCanonicalizer.canonicalize(url))) {
+                stopReason = "loop";
+            } else if (pagesFollowed >= maxPages) {
+                log.warn("Not following more than {} pages of a faculty list", maxPages);
+                stopReason = "limit";
+            } else {
+                pagesFollowed++;
+                fetchNow = executor != null && inFlight < maxPagesInFlight;
+                if (fetchNow) {
+                    inFlight++;
+                } else {
+                    deferredUrl = url;
+                }
+            }
+        }
+
+        if (stopReason != null) {
+            stop(stopReason);
+        } else if (fetchNow) {
+            submit(url);
+        }
+    }
+
+    private void submitDeferred() {
+        String url;
+        synchronized (this) {
+            if (deferredUrl == null || inFlight >= maxPagesInFlight) {
+                return;
+            }
+            url = deferredUrl;
+            deferredUrl = null;
+            inFlight++;
+        }
+        submit(url);
+    }
+
+    private void submit(String url) {
+        if (executor == null) {
+            fetchPage(url);
+            return;
+        }
+        try {
+            executor.execute(() -> fetchPage(url));
+        } catch (RejectedExecutionException e) {
+            // The pagination executor has been shut down
+            log.warn("Could not fetch next page {}", url, e);
+            stop("rejected");
+        }
+    }
+
+    private void fetchPage(String url) {
+        if (closed) {
+            return;
+        }
+
+        // Whatever goes wrong, next() must still be told the pages have ended, or it would wait for them forever
+        try {
+            fetchPageOrStop(url);
+        } catch (RuntimeException e) {
+            log.warn("Failed to follow next page {}", url, e);
+            stop("failed");
+        }
+    }
+
+    private void fetchPageOrStop(String url) {
+        FinderClientResponse response = fetcher.apply(url);
+        if (response == null || !response.isSuccess() || response.document() == null) {
+            stop("failed");
+            return;
+        }
+
+        Element content = contentOf.apply(response);
+        boolean seen;
+        synchronized (this) {
+            // A redirect can land on a page seen under another URL, and a page can repeat under a new URL
+            String location = UrlCanonicalizer.canonicalize(response.location());
+            seen = !location.equals(UrlCanonicalizer.canonicalize(url)) && !seenUrls.add(location)
+                    || !seenContent.add(fingerprint(content));
+        }
+        if (seen) {
+            log.debug("Next page {} was already seen", response.location());
+            stop("loop");
+            return;
+        }
+
+        ready.add(new Page(response, content));
+        follow(nextUrlOf.apply(content));
+    }
+
+    private void stop(String reason) {
+        registry.counter("jds.profile-finder.pagination.stopped", "reason", reason).increment();
+        ready.add(END);
+    }
+
+    private static String fingerprint(Element content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.text().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required to be supported", e);
+        }
+    }
+}
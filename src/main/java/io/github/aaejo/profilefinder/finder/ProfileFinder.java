@@ -1,11 +1,14 @@
 package io.github.aaejo.profilefinder.finder;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 
 import org.apache.commons.lang3.StringUtils;
@@ -13,9 +16,13 @@ import org.eclipse.collections.api.map.primitive.ObjectDoubleMap;
 import org.eclipse.collections.api.tuple.primitive.ObjectDoublePair;
 import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
 import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
 import org.jsoup.select.Elements;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 import io.github.aaejo.finder.client.FinderClient;
@@ -23,9 +30,13 @@ import io.github.aaejo.finder.client.FinderClientResponse;
 import io.github.aaejo.messaging.records.Institution;
 import io.github.aaejo.messaging.records.Profile;
 import io.github.aaejo.profilefinder.finder.configuration.CrawlingProperties;
+import io.github.aaejo.profilefinder.finder.configuration.PaginationProperties;
 import io.github.aaejo.profilefinder.finder.exception.NoProfilesFoundException;
+import io.github.aaejo.profilefinder.messaging.producer.ProfileBatch;
 import io.github.aaejo.profilefinder.messaging.producer.ProfilesProducer;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 
 /**
  * @author Omri Harary
@@ -33,15 +44,29 @@ import io.micrometer.core.instrument.MeterRegistry;
 @Service
 public class ProfileFinder extends BaseFinder {
     private static final Logger log = LoggerFactory.getLogger(ProfileFinder.class);
+    /** One in this many profiles has its original size measured, and the bytes saved by the rest are estimated */
+    private static final int BYTES_SAVED_SAMPLE_RATE = 16;
 
     private final ProfilesProducer profilesProducer;
     private final DepartmentFinder departmentFinder;
+    private final ProfileHtmlMinifier minifier;
+    private final PaginationProperties paginationProperties;
+    private final ExecutorService paginationExecutor;
 
-    public ProfileFinder(ProfilesProducer profilesProducer, DepartmentFinder departmentFinder, FinderClient client,
+    /** How many of the largest containers are considered as sections of the same list */
+    static final int SECTION_CANDIDATES = 8;
+
+    public ProfileFinder(ProfilesProducer profilesProducer, DepartmentFinder departmentFinder,
+            ProfileHtmlMinifier minifier, PaginationProperties paginationProperties, FinderClient client,
             CrawlingProperties properties, MeterRegistry registry) {
         super(client, properties, registry);
         this.profilesProducer = profilesProducer;
         this.departmentFinder = departmentFinder;
+        this.minifier = minifier;
+        this.paginationProperties = paginationProperties;
+        this.paginationExecutor = paginationProperties.pipelined()
+                ? Executors.newCachedThreadPool(new CustomizableThreadFactory("pagination-prefetch-"))
+                : null;
     }
 
     enum DepartmentSpecificity {
@@ -60,9 +85,22 @@ public class ProfileFinder extends BaseFinder {
         VERY_WELL_NAMED, SEPARATORS, RELEVANT_LISTS, DEPARTMENT_SPECIFIC_SUBSECTION
     }
 
-    public void findProfiles(Institution institution, final FinderClientResponse facultyPage) {
+    /**
+     * Extract and publish the profiles on a faculty list, following it across pages.
+     *
+     * @param context       search the profiles are being found for
+     * @param facultyPage   first page of the faculty list
+     * @return what was found
+     * @throws NoProfilesFoundException if no profiles at all were found
+     */
+    public ProfileSearchResult findProfiles(SearchContext context, final FinderClientResponse facultyPage) {
+        Institution institution = context.getInstitution();
         log.info("Extracting profiles from {}", facultyPage.location());
+        long start = System.nanoTime();
         int count = 0;
+        int pageCount = 0;
+        long sampledBytesSaved = 0;
+        int sampledProfiles = 0;
 
         Element content = drillDownToUniqueMain(facultyPage.document()).get(0);
         String location = facultyPage.location();
@@ -71,7 +109,7 @@ public class ProfileFinder extends BaseFinder {
 
         // Check whether this is a department-specific list or a general one
         // If it's a general one, need to take special precautions
-        ObjectDoubleMap<DepartmentKeyword> departmentReport = departmentFinder.foundDepartmentSiteDetailed(facultyPage);
+        ObjectDoubleMap<DepartmentKeyword> departmentReport = departmentFinder.foundDepartmentSiteDetailed(context, facultyPage);
         DepartmentKeyword highestDetected = departmentReport.keyValuesView().maxBy(ObjectDoublePair::getTwo).getOne();
         // DepartmentKeyword lowestDetected = departmentReport.keyValuesView().minBy(ObjectDoublePair::getTwo).getOne();
 
@@ -102,223 +140,272 @@ public class ProfileFinder extends BaseFinder {
             }
         }
 
-        do {
-            List<Element> sectionContents = new ArrayList<>();
-            if (specificity != DepartmentSpecificity.DEPARTMENT_SPECIFIC) {
-                // Look for headers
-                Elements primaryHeadings = content.select(departmentFinder.getPrimaryDepartment().getRelevantHeading());
-                Element sectionHeading = null;
-                for (Element pHeading : primaryHeadings) {
-                    if (pHeading.siblingElements().stream()
-                            .anyMatch(e -> !e.equals(pHeading) && e.tag().equals(pHeading.tag()))) {
-                        sectionHeading = pHeading;
-                        break;
-                    }
-                }
-                if (sectionHeading != null) {
-                    // Walk through all sibling elements following sectionHeading until we run out
-                    // or hit another heading of the same level
-                    for (Element sib : sectionHeading.nextElementSiblings()) {
-                        if (!sib.tag().equals(sectionHeading.tag())) {
-                            sectionContents.add(sib);
-                        } else {
-                            // Another heading of the same type means we've hit another section
+        ProfileBatch batch = profilesProducer.newBatch(institution);
+        PagePrefetcher pages = newPagePrefetcher(context);
+        pages.start(facultyPage, content);
+        try {
+            do {
+                List<Element> sectionContents = new ArrayList<>();
+                if (specificity != DepartmentSpecificity.DEPARTMENT_SPECIFIC) {
+                    // Look for headers
+                    Elements primaryHeadings = content.select(departmentFinder.getPrimaryDepartment().getRelevantHeading());
+                    Element sectionHeading = null;
+                    for (Element pHeading : primaryHeadings) {
+                        if (pHeading.siblingElements().stream()
+                                .anyMatch(e -> !e.equals(pHeading) && e.tag().equals(pHeading.tag()))) {
+                            sectionHeading = pHeading;
                             break;
                         }
                     }
-                    strategyConditions.add(StrategyCondition.DEPARTMENT_SPECIFIC_SUBSECTION);
+                    if (sectionHeading != null) {
+                        // Walk through all sibling elements following sectionHeading until we run out
+                        // or hit another heading of the same level
+                        for (Element sib : sectionHeading.nextElementSiblings()) {
+                            if (!sib.tag().equals(sectionHeading.tag())) {
+                                sectionContents.add(sib);
+                            } else {
+                                // Another heading of the same type means we've hit another section
+                                break;
+                            }
+                        }
+                        strategyConditions.add(StrategyCondition.DEPARTMENT_SPECIFIC_SUBSECTION);
+                    }
                 }
-            }
 
-            Elements images = content.getElementsByTag("img");
-            if (!images.isEmpty()) {
-                strategyConditions.add(StrategyCondition.IMAGES);
-            }
-
-            List<Element> veryWellNamedItems = content
-                    .select(".contact-card, .person, .profile, .staff-card, .staff-listing")
-                    .stream()
-                    .distinct()
-                    .filter(e -> e.tag().isBlock())
-                    .toList();
-
-            if (!veryWellNamedItems.isEmpty()) {
-                strategyConditions.add(StrategyCondition.VERY_WELL_NAMED);
-
-                boolean eachHasExactlyOneImage = true;
-                boolean eachHasExactlyOneEmailLink = true;
-                boolean eachHasExactlyOneUniqueLink = true;
-
-                for (Element item : veryWellNamedItems) {
-                    eachHasExactlyOneImage &= item.getElementsByTag("img").size() == 1;
-                    eachHasExactlyOneEmailLink &= item.select("a[href^=mailto:]").size() == 1;
-                    // Sometimes there are multiple links, but they all go to the same page
-                    eachHasExactlyOneUniqueLink &= item.select("a[href]:not([href^=mailto:]):not([href^=tel])")
-                            .eachAttr("abs:href").stream().distinct().count() == 1;
+                Elements images = content.getElementsByTag("img");
+                if (!images.isEmpty()) {
+                    strategyConditions.add(StrategyCondition.IMAGES);
                 }
 
-                if (eachHasExactlyOneImage || eachHasExactlyOneEmailLink || eachHasExactlyOneUniqueLink) {
-                    strategyConditions.add(StrategyCondition.IDEAL_COUNT);
-                }
-            }
+                List<Element> veryWellNamedItems = content
+                        .select(".contact-card, .person, .profile, .staff-card, .staff-listing")
+                        .stream()
+                        .distinct()
+                        .filter(e -> e.tag().isBlock())
+                        .toList();
+
+                if (!veryWellNamedItems.isEmpty()) {
+                    strategyConditions.add(StrategyCondition.VERY_WELL_NAMED);
+
+                    boolean eachHasExactlyOneImage = true;
+                    boolean eachHasExactlyOneEmailLink = true;
+                    boolean eachHasExactlyOneUniqueLink = true;
+
+                    for (Element item : veryWellNamedItems) {
+                        eachHasExactlyOneImage &= item.getElementsByTag("img").size() == 1;
+                        eachHasExactlyOneEmailLink &= item.select("a[href^=mailto:]").size() == 1;
+                        // Sometimes there are multiple links, but they all go to the same page
+                        eachHasExactlyOneUniqueLink &= item.select("a[href]:not([href^=mailto:]):not([href^=tel])")
+                                .eachAttr("abs:href").stream().distinct().count() == 1;
+                    }
 
-            List<Element> wellNamedItems = content
-                    .select("[id*=contact], [id*=bio], [id*=person], [id*=staff], [id*=faculty], [id*=instructors], [id*=people], "
-                            + "[class*=contact], [class*=bio], [class*=person], [class*=staff], [class*=faculty], [class*=instructors], [class*=people]")
-                    .stream()
-                    .distinct()
-                    .filter(e -> e.tag().isBlock())
-                    .toList();
-
-            if (!wellNamedItems.isEmpty()) {
-                if (wellNamedItems.size() == 1) {
-                    // If there's only 1, then it's probably a parent of what we want
-                    // Maybe let's commonTagStrategy it?
-                    strategyConditions.add(StrategyCondition.SINGLE_WELL_NAMED);
-                } else if (strategyConditions.contains(StrategyCondition.IMAGES)
-                        && wellNamedItems.size() == images.size()) {
-                    strategyConditions.add(StrategyCondition.IDEAL_COUNT);
-                    strategyConditions.add(StrategyCondition.WELL_NAMED);
-                } else if (strategyConditions.contains(StrategyCondition.IMAGES)
-                        && wellNamedItems.size() % images.size() == 0) {
-                    //
-                } else {
-                    // Fair chance we found what we need
+                    if (eachHasExactlyOneImage || eachHasExactlyOneEmailLink || eachHasExactlyOneUniqueLink) {
+                        strategyConditions.add(StrategyCondition.IDEAL_COUNT);
+                    }
                 }
-            }
 
-            Elements unorderedLists = content.getElementsByTag("ul");
-            if (!unorderedLists.isEmpty()) {
-                if (unorderedLists.size() == 1) {
-                    if (!StringUtils.containsAnyIgnoreCase(unorderedLists.first().id(), "page", "pagination")
-                            && !StringUtils.containsAnyIgnoreCase(unorderedLists.first().className(), "page",
-                                    "pagination")) {
-                        strategyConditions.add(StrategyCondition.SINGLE_LIST);
-                    }
-                } else {
-                    List<Element> relevantUnorderedLists = new ArrayList<Element>();
-                    for (int i = 0; i < unorderedLists.size(); i++) {
-                        Element ul = unorderedLists.get(i);
-                        if (StringUtils.containsAny(ul.id(), "staff", "faculty", "instructors", "people")
-                                || StringUtils.containsAny(ul.className(), "staff", "faculty", "instructors",
-                                        "people")) {
-                            relevantUnorderedLists.add(ul);
-                            unorderedLists.remove(ul);
-                        }
+                List<Element> wellNamedItems = content
+                        .select("[id*=contact], [id*=bio], [id*=person], [id*=staff], [id*=faculty], [id*=instructors], [id*=people], "
+                                + "[class*=contact], [class*=bio], [class*=person], [class*=staff], [class*=faculty], [class*=instructors], [class*=people]")
+                        .stream()
+                        .distinct()
+                        .filter(e -> e.tag().isBlock())
+                        .toList();
+
+                if (!wellNamedItems.isEmpty()) {
+                    if (wellNamedItems.size() == 1) {
+                        // If there's only 1, then it's probably a parent of what we want
+                        // Maybe let's commonTagStrategy it?
+                        strategyConditions.add(StrategyCondition.SINGLE_WELL_NAMED);
+                    } else if (strategyConditions.contains(StrategyCondition.IMAGES)
+                            && wellNamedItems.size() == images.size()) {
+                        strategyConditions.add(StrategyCondition.IDEAL_COUNT);
+                        strategyConditions.add(StrategyCondition.WELL_NAMED);
+                    } else if (strategyConditions.contains(StrategyCondition.IMAGES)
+                            && wellNamedItems.size() % images.size() == 0) {
+                        //
+                    } else {
+                        // Fair chance we found what we need
                     }
+                }
 
-                    if (!relevantUnorderedLists.isEmpty()) {
-                        if (relevantUnorderedLists.size() == 1) {
+                Elements unorderedLists = content.getElementsByTag("ul");
+                if (!unorderedLists.isEmpty()) {
+                    if (unorderedLists.size() == 1) {
+                        if (!StringUtils.containsAnyIgnoreCase(unorderedLists.first().id(), "page", "pagination")
+                                && !StringUtils.containsAnyIgnoreCase(unorderedLists.first().className(), "page",
+                                        "pagination")) {
                             strategyConditions.add(StrategyCondition.SINGLE_LIST);
-                        } else {
-                            strategyConditions.add(StrategyCondition.RELEVANT_LISTS);
                         }
-                        unorderedLists = new Elements(relevantUnorderedLists);
+                    } else {
+                        List<Element> relevantUnorderedLists = new ArrayList<Element>();
+                        for (int i = 0; i < unorderedLists.size(); i++) {
+                            Element ul = unorderedLists.get(i);
+                            if (StringUtils.containsAny(ul.id(), "staff", "faculty", "instructors", "people")
+                                    || StringUtils.containsAny(ul.className(), "staff", "faculty", "instructors",
+                                            "people")) {
+                                relevantUnorderedLists.add(ul);
+                                unorderedLists.remove(ul);
+                            }
+                        }
+
+                        if (!relevantUnorderedLists.isEmpty()) {
+                            if (relevantUnorderedLists.size() == 1) {
+                                strategyConditions.add(StrategyCondition.SINGLE_LIST);
+                            } else {
+                                strategyConditions.add(StrategyCondition.RELEVANT_LISTS);
+                            }
+                            unorderedLists = new Elements(relevantUnorderedLists);
+                        }
                     }
                 }
-            }
-
-            Elements tables = content.getElementsByTag("table");
-            if (tables.size() == 1) {
-                // 1 big table? Probably what we're looking for
-                strategyConditions.add(StrategyCondition.SINGLE_TABLE);
-            } else {
-                // ... I dunno?
-            }
 
-            List<Element> separators = content
-                    .select("hr, [class*=spacer], [class*=separator]")
-                    .stream()
-                    .distinct()
-                    .toList();
-
-            List<Element> scope = null;
-            DepartmentSpecificity scopedSpecificity = specificity; // Sometimes our scope will be more specific than the
-                                                                   // page
-            Function<Element, List<Element>> strategyFunction;
-
-            if (strategyConditions.contains(StrategyCondition.DEPARTMENT_SPECIFIC_SUBSECTION)) {
-                scope = sectionContents;
-                scopedSpecificity = DepartmentSpecificity.DEPARTMENT_SPECIFIC;
-                strategyFunction = this::subsectionStrategy;
-            } else if (strategyConditions.contains(StrategyCondition.IDEAL_COUNT)
-                    && strategyConditions.contains(StrategyCondition.VERY_WELL_NAMED)) {
-                scope = veryWellNamedItems;
-                strategyFunction = List::of;
-            } else if (strategyConditions.contains(StrategyCondition.IDEAL_COUNT)
-                    && strategyConditions.contains(StrategyCondition.WELL_NAMED)) {
-                scope = wellNamedItems;
-                strategyFunction = List::of;
-            } else if (strategyConditions.contains(StrategyCondition.SINGLE_WELL_NAMED)) {
-                scope = List.of(wellNamedItems.get(0));
-                strategyFunction = this::commonTagStrategy;
-            } else if (strategyConditions.contains(StrategyCondition.SINGLE_LIST)) {
-                scope = List.of(unorderedLists.first());
-                strategyFunction = this::singleListStrategy;
-            } else if (strategyConditions.contains(StrategyCondition.SINGLE_TABLE)) {
-                scope = List.of(tables.first());
-                strategyFunction = this::singleTableStrategy;
-            } else if (strategyConditions.contains(StrategyCondition.SEPARATORS)) {
-                strategyFunction = null;
-            } else if (strategyConditions.contains(StrategyCondition.VERY_WELL_NAMED)) {
-                // If nothing else worked, and we have some very well named items, we'll use
-                // them even if the count doesn't seem ideal?
-                scope = veryWellNamedItems;
-                strategyFunction = List::of;
-            } else {
-                scope = List.of(content);
-                strategyFunction = this::commonTagStrategy;
-            }
-
-            // Would be nice to have a count of strategy choices being made, but might take some work
-            // Especially with the recursive cases like subsection
+                Elements tables = content.getElementsByTag("table");
+                if (tables.size() == 1) {
+                    // 1 big table? Probably what we're looking for
+                    strategyConditions.add(StrategyCondition.SINGLE_TABLE);
+                } else {
+                    // ... I dunno?
+                }
 
-            List<Element> facultyListElements = applyStrategy(scope, scopedSpecificity, strategyFunction);
-            for (Element element : facultyListElements) {
-                if (element.text().split(" ", 2).length < 2
-                    && element.selectFirst("a[href]") == null) {
-                    log.debug("Skipping element with insufficient text content: {}", element);
-                    continue;
-                } 
-
-                Element link = element.selectFirst("a[href]:not([href^=mailto:]):not([href^=tel])");
-                String url = link != null ? link.absUrl("href") : StringUtils.EMPTY;
-                // Since institution.website no longer used in the rest of the pipeline, using it for htmlContent base url
-                Institution newInstitution = new Institution(institution.name(), institution.country(),
-                        institution.address(), facultyPage.location());
-                Profile profile = new Profile(element.outerHtml(), url, null, newInstitution);
-                profilesProducer.send(profile);
-                registry.counter("jds.profile-finder.profile-finder.found",
-                        "country", institution.country(),
-                        "institution", institution.name())
-                        .increment();
-                count++;
-            }
+                List<Element> separators = content
+                        .select("hr, [class*=spacer], [class*=separator]")
+                        .stream()
+                        .distinct()
+                        .toList();
+
+                List<Element> scope = null;
+                DepartmentSpecificity scopedSpecificity = specificity; // Sometimes our scope will be more specific than the
+                                                                       // page
+                Function<Element, List<Element>> strategyFunction;
+
+                if (strategyConditions.contains(StrategyCondition.DEPARTMENT_SPECIFIC_SUBSECTION)) {
+                    scope = sectionContents;
+                    scopedSpecificity = DepartmentSpecificity.DEPARTMENT_SPECIFIC;
+                    strategyFunction = this::subsectionStrategy;
+                } else if (strategyConditions.contains(StrategyCondition.IDEAL_COUNT)
+                        && strategyConditions.contains(StrategyCondition.VERY_WELL_NAMED)) {
+                    scope = veryWellNamedItems;
+                    strategyFunction = List::of;
+                } else if (strategyConditions.contains(StrategyCondition.IDEAL_COUNT)
+                        && strategyConditions.contains(StrategyCondition.WELL_NAMED)) {
+                    scope = wellNamedItems;
+                    strategyFunction = List::of;
+                } else if (strategyConditions.contains(StrategyCondition.SINGLE_WELL_NAMED)) {
+                    scope = List.of(wellNamedItems.get(0));
+                    strategyFunction = this::commonTagStrategy;
+                } else if (strategyConditions.contains(StrategyCondition.SINGLE_LIST)) {
+                    scope = List.of(unorderedLists.first());
+                    strategyFunction = this::singleListStrategy;
+                } else if (strategyConditions.contains(StrategyCondition.SINGLE_TABLE)) {
+                    scope = List.of(tables.first());
+                    strategyFunction = this::singleTableStrategy;
+                } else if (strategyConditions.contains(StrategyCondition.SEPARATORS)) {
+                    strategyFunction = null;
+                } else if (strategyConditions.contains(StrategyCondition.VERY_WELL_NAMED)) {
+                    // If nothing else worked, and we have some very well named items, we'll use
+                    // them even if the count doesn't seem ideal?
+                    scope = veryWellNamedItems;
+                    strategyFunction = List::of;
+                } else {
+                    scope = List.of(content);
+                    strategyFunction = this::commonTagStrategy;
+                }
 
-            // FIXME: This feels hacky. It's not really, but it feels like it
-            // Sometimes pagination isn't actually handled at the URL level, it's purely
-            // dynamic. Maybe we need a special method in FinderClient for that.
-            Element nextPageControl = content.selectFirst("a[href^=http]:contains(next)");
-            if (nextPageControl != null && nextPageControl.absUrl("href") != null) {
-                FinderClientResponse nextPage = client.get(nextPageControl.absUrl("href"));
-
-                if (nextPage.isSuccess() && !nextPage.location().equals(location)) {
-                    // Successfully got next page and it's actually a different page
-                    content = drillDownToUniqueMain(nextPage.document()).get(0);
-                    location = nextPage.location();
+                // Would be nice to have a count of strategy choices being made, but might take some work
+                // Especially with the recursive cases like subsection
+
+                List<Element> facultyListElements = applyStrategy(scope, scopedSpecificity, strategyFunction);
+                for (Element element : facultyListElements) {
+                    if (element.text().split(" ", 2).length < 2
+                        && element.selectFirst("a[href]") == null) {
+                        log.debug("Skipping element with insufficient text content: {}", element);
+                        continue;
+                    } 
+
+                    Element link = element.selectFirst("a[href]:not([href^=mailto:]):not([href^=tel])");
+                    String url = link != null ? link.absUrl("href") : StringUtils.EMPTY;
+                    // Since institution.website no longer used in the rest of the pipeline, using it for htmlContent base url
+                    Institution newInstitution = new Institution(institution.name(), institution.country(),
+                            institution.address(), facultyPage.location());
+                    String html = minifier.minify(element);
+                    // Serializing the original again is only worth it for the metric on a sample of the profiles
+                    if (minifier.getLevel() != ProfileHtmlMinifier.Level.NONE && count % BYTES_SAVED_SAMPLE_RATE == 0) {
+                        sampledBytesSaved += utf8Length(element.outerHtml()) - utf8Length(html);
+                        sampledProfiles++;
+                    }
+                    Profile profile = new Profile(html, url, null, newInstitution);
+                    batch.add(profile);
+                    count++;
+                }
+                // Publish each page's profiles together before moving on to the next page
+                batch.flush(location);
+                pageCount++;
+
+                PagePrefetcher.Page nextPage = pages.next();
+                if (nextPage != null) {
+                    content = nextPage.content();
+                    location = nextPage.response().location();
                     hasNextPage = true;
                 } else {
-                    // Failed to get next page or it's not actually a new page (ie would lead to looping)
                     hasNextPage = false;
                 }
-            } else {
-                hasNextPage = false;
-            }
-        } while (hasNextPage);
+            } while (hasNextPage);
+        } finally {
+            pages.close();
+        }
+
+        long bytesSaved = sampledProfiles > 0 ? sampledBytesSaved * count / sampledProfiles : 0;
+        ProfileSearchResult result = new ProfileSearchResult(facultyPage.location(), count, pageCount,
+                Math.max(bytesSaved, 0), Duration.ofNanos(System.nanoTime() - start));
+        recordResult(institution, result);
 
         if (count == 0) {
             throw new NoProfilesFoundException(institution, facultyPage.location());
         }
+        return result;
+    }
+
+    /**
+     * Record metrics for one institution's profiles. These are only ever tagged by country, so that the number of
+     * meters stays the same however many institutions are processed.
+     */
+    private void recordResult(Institution institution, ProfileSearchResult result) {
+        registry.counter("jds.profile-finder.profile-finder.found", "country", institution.country())
+                .increment(result.profilesFound());
+        DistributionSummary.builder("jds.profile-finder.profile-finder.profiles-per-institution")
+                .tag("country", institution.country())
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(result.profilesFound());
+        registry.summary("jds.profile-finder.profile-finder.pages-per-institution").record(result.pages());
+        registry.timer("jds.profile-finder.profile-finder.duration").record(result.elapsed());
+        registry.summary("jds.profile-finder.profiles.bytes-saved").record(result.bytesSaved());
+    }
+
+    private PagePrefetcher newPagePrefetcher(SearchContext context) {
+        // Without pipelining, each next page is fetched on the extracting thread once it is asked for
+        return new PagePrefetcher(paginationExecutor, paginationProperties.maxPagesInFlight(),
+                paginationProperties.maxPages(), url -> fetch(context, url), page -> drillDownToUniqueMain(page.document()).get(0), this::nextPageUrl,
+                registry);
+    }
+
+    /**
+     * @return the link to the next page of the list the content is part of, or null if there is none
+     */
+    private String nextPageUrl(Element content) {
+        // FIXME: This feels hacky. It's not really, but it feels like it
+        // Sometimes pagination isn't actually handled at the URL level, it's purely
+        // dynamic. Maybe we need a special method in FinderClient for that.
+        Element nextPageControl = content.selectFirst("a[href^=http]:contains(next)");
+        return nextPageControl != null ? StringUtils.trimToNull(nextPageControl.absUrl("href")) : null;
+    }
+
+    @PreDestroy
+    void shutdownPaginationExecutor() {
+        if (paginationExecutor != null) {
+            paginationExecutor.shutdownNow();
+        }
     }
 
     private List<Element> applyStrategy(List<Element> scope, DepartmentSpecificity specificity, Function<Element, List<Element>> strategy) {
@@ -334,36 +421,142 @@ public class ProfileFinder extends BaseFinder {
         };
     }
 
-    private List<Element> commonTagStrategy(Element content) {
-        Elements contentElements = content.getAllElements();
-        Map<Element, List<Element>> parentToBlockChildren = new HashMap<>(contentElements.size());
-
-        for (Element element : contentElements) {
-            List<Element> blockLevelChildren = element.children().stream().filter(c -> c.tag().isBlock()).toList();
-            parentToBlockChildren.put(element, blockLevelChildren);
+    /**
+     * Find the container with the most block-level children, and take those of its children with the tag most common
+     * among them. Other containers near the top that come from the same template, are of a comparable size, and have
+     * the same common tag, are taken as further sections of the same list, as with lists split up by position or
+     * research area.
+     * <p>
+     * Containers come from the same template if they have the same tag and class. Plain containers without a class
+     * are too common for that to mean anything, so they must instead have entries with the same structure.
+     */
+    List<Element> commonTagStrategy(Element content) {
+        List<BlockContainer> containers = blockContainers(content, SECTION_CANDIDATES);
+        if (containers.isEmpty()) {
+            return List.of();
         }
 
-        Entry<Element, List<Element>> mostChildrenEntry = parentToBlockChildren.entrySet().stream()
-                .max((o1, o2) -> Integer.compare(o1.getValue().size(), o2.getValue().size())).get();
+        BlockContainer largest = containers.get(0);
+        String commonTag = largest.commonTag();
+        List<String> entryShape = largest.entryShape(commonTag);
+        List<BlockContainer> sections = new ArrayList<>(List.of(largest));
+
+        for (BlockContainer container : containers.subList(1, containers.size())) {
+            Element section = container.element();
+            boolean sameTemplate = section.tagName().equals(largest.element().tagName())
+                    && (!section.className().isEmpty()
+                            ? section.className().equals(largest.element().className())
+                            : largest.element().className().isEmpty() && !entryShape.isEmpty()
+                                    && entryShape.equals(container.entryShape(commonTag)));
+            boolean overlapping = sections.stream().map(BlockContainer::element)
+                    .anyMatch(chosen -> chosen.parents().contains(section) || section.parents().contains(chosen));
+            // Much smaller containers from the same template are more likely menus than more of the list
+            boolean comparable = container.blockChildren() * 2 >= largest.blockChildren();
+            if (sameTemplate && comparable && !overlapping && commonTag.equals(container.commonTag())) {
+                sections.add(container);
+            }
+        }
 
-        ObjectIntHashMap<String> tagFrequency = ObjectIntHashMap.newMap();
-        for (Element element : mostChildrenEntry.getValue()) {
-            tagFrequency.addToValue(element.tagName(), 1);
+        // Sections are found largest first, but their profiles should come out in page order
+        sections.sort(Comparator.comparingInt(BlockContainer::order));
+        List<Element> commonTagChildren = new ArrayList<>();
+        for (BlockContainer section : sections) {
+            commonTagChildren.addAll(section.children(commonTag));
         }
+        return commonTagChildren;
 
-        String commonTag = tagFrequency.keyValuesView()
-                .max((tag1, tag2) -> Integer.compare(tag1.getTwo(), tag2.getTwo())).getOne();
+        // TODO: Still fails if each entry isn't its own element (e.g. ubishops)
+    }
 
-        List<Element> commonTagChildren = new ArrayList<Element>(mostChildrenEntry.getValue());
-        commonTagChildren.removeIf(e -> !e.tagName().equals(commonTag));
-        return commonTagChildren;
+    /**
+     * Find the elements in the content with the most block-level children, in a single pass over it that keeps no more
+     * than the k largest seen so far.
+     *
+     * @param content   content to search, itself included
+     * @param k         how many containers to find at most
+     * @return the containers with any block-level children, largest first and in page order between equals
+     */
+    List<BlockContainer> blockContainers(Element content, int k) {
+        // Smallest, and latest in the page between equals, at the head so it is the first to go
+        PriorityQueue<BlockContainer> largest = new PriorityQueue<>(k + 1, Comparator
+                .comparingInt(BlockContainer::blockChildren)
+                .thenComparing(Comparator.comparingInt(BlockContainer::order).reversed()));
+
+        NodeTraversor.traverse(new NodeVisitor() {
+            int order = 0;
+
+            @Override
+            public void head(Node node, int depth) {
+                if (!(node instanceof Element element)) {
+                    return;
+                }
+
+                int blockChildren = 0;
+                for (int i = 0; i < element.childNodeSize(); i++) {
+                    if (element.childNode(i) instanceof Element child && child.isBlock()) {
+                        blockChildren++;
+                    }
+                }
+
+                if (blockChildren > 0) {
+                    largest.add(new BlockContainer(element, blockChildren, order));
+                    if (largest.size() > k) {
+                        largest.poll();
+                    }
+                }
+                order++;
+            }
+        }, content);
+
+        List<BlockContainer> containers = new ArrayList<>(largest);
+        containers.sort(largest.comparator().reversed());
+        return containers;
+    }
+
+    /**
+     * @param element       element with block-level children
+     * @param blockChildren how many block-level children it has
+     * @param order         where it comes in the page, relative to other containers
+     */
+    record BlockContainer(Element element, int blockChildren, int order) {
+
+        /**
+         * @return the tag most common among the block-level children, the earliest of them on a tie
+         */
+        String commonTag() {
+            ObjectIntHashMap<String> tagFrequency = ObjectIntHashMap.newMap();
+            String commonTag = null;
+            for (Element child : element.children()) {
+                if (!child.isBlock()) {
+                    continue;
+                }
+                String tag = child.tagName();
+                tagFrequency.addToValue(tag, 1);
+                if (commonTag == null || tagFrequency.get(tag) > tagFrequency.get(commonTag)) {
+                    commonTag = tag;
+                }
+            }
+            return commonTag;
+        }
+
+        /**
+         * @return the tags of the children of the first child with the given tag, as the shape of each entry
+         */
+        List<String> entryShape(String tag) {
+            return element.children().stream().filter(child -> child.tagName().equals(tag)).findFirst()
+                    .map(entry -> entry.children().stream().map(Element::tagName).toList())
+                    .orElse(List.of());
+        }
 
-        // TODO: As much as I love this solution, it fails if there are separate sections of profile details (e.g. MIT)
-        // In this case it only finds the largest one. Might need to revisit this.
-        // Also fails if each entry isn't its own element (e.g. ubishops)
+        /**
+         * @return the children with the given tag, in page order
+         */
+        List<Element> children(String tag) {
+            return element.children().stream().filter(child -> child.tagName().equals(tag)).toList();
+        }
     }
 
-    private List<Element> singleListStrategy(Element list) {
+    List<Element> singleListStrategy(Element list) {
         if (!StringUtils.equalsAny(list.tagName(), "ul", "ol")) {
             return List.of();
         }
@@ -371,7 +564,7 @@ public class ProfileFinder extends BaseFinder {
         return new ArrayList<>(list.children());
     }
 
-    private List<Element> singleTableStrategy(Element table) {
+    List<Element> singleTableStrategy(Element table) {
         if (!StringUtils.equals(table.tagName(), "table")) {
             return List.of();
         }
@@ -380,7 +573,7 @@ public class ProfileFinder extends BaseFinder {
         return new ArrayList<>(table.getElementsByTag("tr"));
     }
 
-    private List<Element> subsectionStrategy(Element element) {
+    List<Element> subsectionStrategy(Element element) {
         return switch (element.tagName()) {
             case "ul" -> singleListStrategy(element);
             case "table" -> singleTableStrategy(element);
@@ -388,6 +581,10 @@ public class ProfileFinder extends BaseFinder {
         };
     }
 
+    private static long utf8Length(String html) {
+        return html.getBytes(StandardCharsets.UTF_8).length;
+    }
+
     private List<Element> careful(List<Element> elements) {
         return elements.stream()
         .filter(e -> StringUtils.containsAnyIgnoreCase(e.text(), departmentFinder.getImportantDepartmentVariants()))
@@ -399,11 +596,4 @@ public class ProfileFinder extends BaseFinder {
         .filter(e -> StringUtils.containsAnyIgnoreCase(e.text(), departmentFinder.getPrimaryDepartment().getVariants()))
         .toList();
     }
-
-    public int getFoundProfilesCount(Institution institution) {
-        return (int) registry.counter("jds.profile-finder.profile-finder.found",
-                "country", institution.country(),
-                "institution", institution.name())
-                .count();
-    }
 }
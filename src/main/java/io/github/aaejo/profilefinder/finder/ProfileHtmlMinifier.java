@@ -0,0 +1,151 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jsoup.internal.StringUtil;
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+
+/**
+ * Shrinks the HTML of a profile down to what is needed to read the profile from it, before it is published.
+ *
+ * @author Omri Harary
+ */
+public class ProfileHtmlMinifier {
+
+    public enum Level {
+        /** Publish the element's HTML as is */
+        NONE,
+        /**
+         * Drop non-content elements, comments and every attribute but links, image sources and alt text, resolve links
+         * to absolute URLs, and collapse whitespace
+         */
+        ATTRIBUTES,
+        /** As with {@link #ATTRIBUTES}, and also unwrap every element that does not carry meaning of its own */
+        SEMANTIC
+    }
+
+    private static final Set<String> DROPPED_TAGS = Set.of("script", "style", "svg", "noscript", "template", "iframe",
+            "link", "meta");
+    private static final Set<String> KEPT_ATTRIBUTES = Set.of("href", "src", "alt");
+    private static final Set<String> SEMANTIC_TAGS = Set.of("a", "img", "p", "br", "h1", "h2", "h3", "h4", "h5", "h6",
+            "ul", "ol", "li", "dl", "dt", "dd", "table", "thead", "tbody", "tfoot", "tr", "th", "td", "caption",
+            "strong", "em", "b", "i", "address", "article", "section", "header", "footer", "figure", "figcaption",
+            "blockquote", "abbr", "time");
+
+    private final Level level;
+
+    public ProfileHtmlMinifier(Level level) {
+        this.level = level;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * @param element   element holding the profile, which is left untouched
+     * @return the minified HTML of the element
+     */
+    public String minify(Element element) {
+        if (level == Level.NONE) {
+            return element.outerHtml();
+        }
+
+        // Work on a copy in a document of its own, so that URLs still resolve and nothing is pretty printed back in
+        Document shell = Document.createShell(element.baseUri());
+        shell.outputSettings().prettyPrint(false);
+        Element profile = element.clone();
+        shell.body().appendChild(profile);
+
+        NodeTraversor.filter(new StrippingFilter(), profile);
+        if (level == Level.SEMANTIC) {
+            unwrapNonSemantic(profile);
+        }
+
+        return profile.outerHtml();
+    }
+
+    private static void unwrapNonSemantic(Element profile) {
+        List<Element> unwrapped = new ArrayList<>();
+        for (Element element : profile.getAllElements()) {
+            if (element != profile && !SEMANTIC_TAGS.contains(element.normalName())) {
+                unwrapped.add(element);
+            }
+        }
+
+        for (Element element : unwrapped) {
+            if (element.isBlock()) {
+                // Keep the text of neighbouring blocks from running together once the blocks are gone
+                if (!endsWithSpace(element.previousSibling())) {
+                    element.before(new TextNode(" "));
+                }
+                if (!startsWithSpace(element.nextSibling())) {
+                    element.after(new TextNode(" "));
+                }
+            }
+            element.unwrap();
+        }
+    }
+
+    private static boolean endsWithSpace(Node node) {
+        return node instanceof TextNode text && text.getWholeText().endsWith(" ");
+    }
+
+    private static boolean startsWithSpace(Node node) {
+        return node instanceof TextNode text && text.getWholeText().startsWith(" ");
+    }
+
+    private static final class StrippingFilter implements NodeFilter {
+
+        @Override
+        public FilterResult head(Node node, int depth) {
+            if (node instanceof Comment) {
+                return FilterResult.REMOVE;
+            }
+            if (node instanceof TextNode text) {
+                // Whitespace left between removed nodes, or at the start of an element, separates nothing
+                if (text.isBlank() && (text.previousSibling() == null
+                        || endsWithSpace(text.previousSibling()))) {
+                    return FilterResult.REMOVE;
+                }
+                text.text(StringUtil.normaliseWhitespace(text.getWholeText()));
+                return FilterResult.CONTINUE;
+            }
+            if (!(node instanceof Element element)) {
+                return FilterResult.CONTINUE;
+            }
+            if (DROPPED_TAGS.contains(element.normalName())) {
+                return FilterResult.REMOVE;
+            }
+
+            List<String> removed = new ArrayList<>();
+            for (Attribute attribute : element.attributes()) {
+                String key = attribute.getKey();
+                if (!KEPT_ATTRIBUTES.contains(key)) {
+                    removed.add(key);
+                } else if (!key.equals("alt")
+                        // Contact links are kept as they are, since they have nothing to resolve against
+                        && !StringUtils.startsWithAny(attribute.getValue().trim().toLowerCase(), "mailto:", "tel:")) {
+                    String url = element.absUrl(key);
+                    if (url.isEmpty() || StringUtils.startsWithAny(url.toLowerCase(), "javascript:", "data:")) {
+                        removed.add(key);
+                    } else {
+                        attribute.setValue(url);
+                    }
+                }
+            }
+            removed.forEach(element::removeAttr);
+            return FilterResult.CONTINUE;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.time.Duration;
+
+/**
+ * Outcome of extracting the profiles from one institution's faculty list.
+ *
+ * @param facultyListUrl    first page of the faculty list
+ * @param profilesFound     number of profiles found and published
+ * @param pages             number of pages of the list the profiles were extracted from
+ * @param bytesSaved        bytes the profiles were shrunk by before publishing, estimated from a sample of them
+ * @param elapsed           how long extraction took, publishing and fetching following pages included
+ *
+ * @author Omri Harary
+ */
+public record ProfileSearchResult(String facultyListUrl, int profilesFound, int pages, long bytesSaved,
+        Duration elapsed) {
+}
@@ -0,0 +1,131 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.aaejo.messaging.records.Institution;
+
+/**
+ * All of the mutable state for processing a single institution. The finders themselves are shared singletons, so
+ * anything that changes over the course of a search must live in here instead of in the finders. A context is only
+ * ever used by the thread processing its institution, apart from the fetch count and page cache which are also used by any
+ * helper threads fetching on its behalf.
+ *
+ * @author Omri Harary
+ */
+public class SearchContext {
+
+    private final Institution institution;
+    private final PageCache pageCache;
+
+    private SearchState state;
+    private CheckedLinks checkedLinks;
+    private CrawlQueue crawlQueue;
+    private CrawlBudget budget;
+    private DebugData departmentDebugData;
+    private DebugData facultyDebugData;
+    private final AtomicInteger fetchCount = new AtomicInteger();
+
+    public SearchContext(Institution institution, PageCache pageCache) {
+        this.institution = institution;
+        this.pageCache = pageCache;
+        this.state = SearchState.IDLE;
+    }
+
+    /**
+     * Start a new crawl, resetting the crawl queues and creating the debug data to be reported for it.
+     *
+     * @return debug data backed by this crawl's checked links
+     */
+    DebugData startCrawl() {
+        checkedLinks = new CheckedLinks();
+        crawlQueue = new CrawlQueue();
+
+        DebugData debugData = new DebugData();
+        debugData.institution = institution;
+        debugData.checkedLinks = checkedLinks;
+        return debugData;
+    }
+
+    /**
+     * @return the institution
+     */
+    public Institution getInstitution() {
+        return institution;
+    }
+
+    /**
+     * @return the pages fetched so far for this institution
+     */
+    public PageCache getPageCache() {
+        return pageCache;
+    }
+
+    /**
+     * @return the state
+     */
+    public SearchState getState() {
+        return state;
+    }
+
+    void setState(SearchState state) {
+        this.state = state;
+    }
+
+    /**
+     * @return the links checked by the current crawl
+     */
+    CheckedLinks getCheckedLinks() {
+        return checkedLinks;
+    }
+
+    /**
+     * @return the links queued by the current crawl
+     */
+    CrawlQueue getCrawlQueue() {
+        return crawlQueue;
+    }
+
+    /**
+     * @return the budget of the finder stage currently running, or null if none has started
+     */
+    public CrawlBudget getBudget() {
+        return budget;
+    }
+
+    void setBudget(CrawlBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * @return the department finder's debug data, or null if the department finder did not run
+     */
+    public DebugData getDepartmentDebugData() {
+        return departmentDebugData;
+    }
+
+    void setDepartmentDebugData(DebugData departmentDebugData) {
+        this.departmentDebugData = departmentDebugData;
+    }
+
+    /**
+     * @return the faculty finder's debug data, or null if the faculty finder did not run
+     */
+    public DebugData getFacultyDebugData() {
+        return facultyDebugData;
+    }
+
+    void setFacultyDebugData(DebugData facultyDebugData) {
+        this.facultyDebugData = facultyDebugData;
+    }
+
+    /**
+     * @return the number of pages fetched by the finders for this institution
+     */
+    public int getFetchCount() {
+        return fetchCount.get();
+    }
+
+    void incrementFetchCount() {
+        fetchCount.incrementAndGet();
+    }
+}
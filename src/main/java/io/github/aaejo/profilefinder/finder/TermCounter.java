@@ -0,0 +1,135 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+import org.eclipse.collections.impl.map.mutable.primitive.CharIntHashMap;
+
+/**
+ * Counts case-insensitive occurrences of several terms in a piece of text at once.
+ * <p>
+ * Terms are compiled into an Aho-Corasick automaton, so the text is scanned a single time no matter how many terms
+ * there are, and is folded to lower case one character at a time rather than by copying it. Each term's count is the
+ * same as {@link org.apache.commons.lang3.StringUtils#countMatches(CharSequence, CharSequence)} on the lower cased
+ * text, i.e. occurrences of the same term do not overlap, but occurrences of different terms may.
+ *
+ * @author Omri Harary
+ */
+public class TermCounter {
+
+    private final String[] terms;
+    private final List<CharIntHashMap> transitions = new ArrayList<>();
+    private final List<int[]> outputs = new ArrayList<>();
+    private int[] failures;
+
+    /**
+     * @param terms terms to count, which must not be empty
+     */
+    public TermCounter(String... terms) {
+        this.terms = new String[terms.length];
+        newState();
+        for (int t = 0; t < terms.length; t++) {
+            if (terms[t].isEmpty()) {
+                throw new IllegalArgumentException("Cannot count empty term");
+            }
+            this.terms[t] = terms[t].toLowerCase();
+
+            int state = 0;
+            for (int c = 0; c < this.terms[t].length(); c++) {
+                char ch = this.terms[t].charAt(c);
+                int next = transitions.get(state).getIfAbsent(ch, -1);
+                if (next == -1) {
+                    next = newState();
+                    transitions.get(state).put(ch, next);
+                }
+                state = next;
+            }
+            outputs.set(state, append(outputs.get(state), t));
+        }
+        buildFailures();
+    }
+
+    /**
+     * @param text  text to search
+     * @return the number of occurrences of each term, in the order the terms were given
+     */
+    public int[] count(CharSequence text) {
+        return count(text, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param text  text to search
+     * @param cap   most occurrences to count for any one term
+     * @return the number of occurrences of each term up to the cap, in the order the terms were given
+     */
+    public int[] count(CharSequence text, int cap) {
+        int[] counts = new int[terms.length];
+        int[] nextAllowedStart = new int[terms.length];
+        int capped = 0;
+
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = Character.toLowerCase(text.charAt(i));
+            int next;
+            while ((next = transitions.get(state).getIfAbsent(ch, -1)) == -1 && state != 0) {
+                state = failures[state];
+            }
+            state = next == -1 ? 0 : next;
+
+            for (int t : outputs.get(state)) {
+                int start = i - terms[t].length() + 1;
+                if (start < nextAllowedStart[t] || counts[t] >= cap) {
+                    continue;
+                }
+                nextAllowedStart[t] = i + 1;
+                if (++counts[t] == cap && ++capped == terms.length) {
+                    return counts;
+                }
+            }
+        }
+        return counts;
+    }
+
+    private int newState() {
+        transitions.add(new CharIntHashMap(2));
+        outputs.add(new int[0]);
+        return transitions.size() - 1;
+    }
+
+    /**
+     * Breadth-first, point each state at the longest proper suffix of it that is also a state, and have it also output
+     * every term that suffix outputs.
+     */
+    private void buildFailures() {
+        failures = new int[transitions.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        transitions.get(0).forEachValue(queue::add);
+
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            transitions.get(state).forEachKeyValue((ch, next) -> {
+                int failure = failures[state];
+                while (failure != 0 && !transitions.get(failure).containsKey(ch)) {
+                    failure = failures[failure];
+                }
+                int target = transitions.get(failure).getIfAbsent(ch, 0);
+                failures[next] = target == next ? 0 : target;
+
+                int[] inherited = outputs.get(failures[next]);
+                for (int t : inherited) {
+                    outputs.set(next, append(outputs.get(next), t));
+                }
+                queue.add(next);
+            });
+        }
+    }
+
+    private static int[] append(int[] array, int value) {
+        int[] appended = Arrays.copyOf(array, array.length + 1);
+        appended[array.length] = value;
+        return appended;
+    }
+}
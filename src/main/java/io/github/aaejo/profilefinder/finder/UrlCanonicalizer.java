@@ -0,0 +1,91 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Reduces URLs to a canonical form, so that different ways of writing the same page compare as equal.
+ * <p>
+ * The canonical form ignores the difference between http and https, a leading "www." on the host, default ports,
+ * trailing slashes, fragments, the order of query parameters, and common tracking query parameters. It is only meant
+ * for comparing URLs, not for fetching them.
+ *
+ * @author Omri Harary
+ */
+public final class UrlCanonicalizer {
+
+    private static final String TRACKING_PARAMETER_PREFIX = "utm_";
+    private static final Set<String> TRACKING_PARAMETERS = Set.of(
+            "fbclid", "gclid", "dclid", "msclkid", "yclid", "igshid", "mc_cid", "mc_eid", "_ga", "_gl", "_hsenc",
+            "_hsmi");
+
+    private UrlCanonicalizer() {
+    }
+
+    /**
+     * @param url   URL to canonicalize
+     * @return the canonical form of the URL, or the trimmed URL itself if it cannot be parsed
+     */
+    public static String canonicalize(String url) {
+        if (url == null) {
+            return null;
+        }
+
+        String trimmed = url.trim();
+        URI uri;
+        try {
+            uri = new URI(trimmed);
+        } catch (URISyntaxException e) {
+            return StringUtils.substringBefore(trimmed, "#");
+        }
+
+        if (uri.isOpaque() || uri.getHost() == null) {
+            // Things like mailto: links, or URLs that were never absolute to begin with
+            return StringUtils.substringBefore(trimmed, "#");
+        }
+
+        StringBuilder canonical = new StringBuilder(trimmed.length());
+
+        String scheme = StringUtils.lowerCase(uri.getScheme(), Locale.ROOT);
+        if (scheme != null && !scheme.equals("http") && !scheme.equals("https")) {
+            canonical.append(scheme).append("://");
+        }
+
+        canonical.append(StringUtils.removeStart(uri.getHost().toLowerCase(Locale.ROOT), "www."));
+
+        int port = uri.getPort();
+        if (port != -1 && port != 80 && port != 443) {
+            canonical.append(':').append(port);
+        }
+
+        String path = uri.getRawPath();
+        if (path != null) {
+            canonical.append(StringUtils.stripEnd(path, "/"));
+        }
+
+        String query = uri.getRawQuery();
+        if (StringUtils.isNotEmpty(query)) {
+            String canonicalQuery = Arrays.stream(query.split("&"))
+                    .filter(StringUtils::isNotEmpty)
+                    .filter(parameter -> !isTrackingParameter(StringUtils.substringBefore(parameter, "=")))
+                    .sorted()
+                    .collect(Collectors.joining("&"));
+            if (!canonicalQuery.isEmpty()) {
+                canonical.append('?').append(canonicalQuery);
+            }
+        }
+
+        return canonical.toString();
+    }
+
+    private static boolean isTrackingParameter(String name) {
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        return lowerName.startsWith(TRACKING_PARAMETER_PREFIX) || TRACKING_PARAMETERS.contains(lowerName);
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.aaejo.profilefinder.finder.checkpoint;
+
+import java.util.Optional;
+
+import io.github.aaejo.messaging.records.Institution;
+
+/**
+ * Keeps the latest {@link StageCheckpoint} of each institution being processed.
+ *
+ * @author Omri Harary
+ */
+public interface CheckpointStore {
+
+    /** Store that keeps nothing, so that every attempt starts from scratch */
+    CheckpointStore NONE = new CheckpointStore() {
+        @Override
+        public Optional<StageCheckpoint> load(Institution institution) {
+            return Optional.empty();
+        }
+
+        @Override
+        public void save(Institution institution, StageCheckpoint checkpoint) {
+        }
+
+        @Override
+        public void clear(Institution institution) {
+        }
+    };
+
+    /**
+     * @return the institution's latest checkpoint, if it has an unexpired one
+     */
+    Optional<StageCheckpoint> load(Institution institution);
+
+    /**
+     * Replace the institution's checkpoint.
+     */
+    void save(Institution institution, StageCheckpoint checkpoint);
+
+    /**
+     * Forget the institution's checkpoint, once it has been fully processed or can no longer be resumed from.
+     */
+    void clear(Institution institution);
+}
@@ -0,0 +1,148 @@
+package io.github.aaejo.profilefinder.finder.checkpoint;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.aaejo.messaging.records.Institution;
+
+/**
+ * Checkpoint store on the local disk, one JSON file per institution.
+ * <p>
+ * Checkpoints are written to a temporary file and then moved into place, so a crash mid-write never leaves a partial
+ * checkpoint behind. Checkpoints older than the TTL are ignored and deleted, so that an institution that comes round
+ * again much later is searched afresh. Expired checkpoints of institutions that never come round again, e.g. ones that
+ * were dead-lettered, are swept up at most once per TTL as other checkpoints are saved.
+ *
+ * @author Omri Harary
+ */
+public class FileCheckpointStore implements CheckpointStore {
+    private static final Logger log = LoggerFactory.getLogger(FileCheckpointStore.class);
+
+    private final Path directory;
+    private final Duration ttl;
+    private final Clock clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile long lastSweep = Long.MIN_VALUE;
+
+    public FileCheckpointStore(Path directory, Duration ttl, Clock clock) {
+        this.directory = directory;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    @Override
+    public Optional<StageCheckpoint> load(Institution institution) {
+        Path path = checkpointPath(institution);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+
+        StageCheckpoint checkpoint;
+        try {
+            checkpoint = objectMapper.readValue(path.toFile(), StageCheckpoint.class);
+        } catch (IOException e) {
+            log.warn("Deleting unreadable checkpoint {} for {}", path, institution.name(), e);
+            delete(path);
+            return Optional.empty();
+        }
+
+        if (clock.millis() - checkpoint.savedAt() > ttl.toMillis()) {
+            log.debug("Deleting expired checkpoint for {}", institution.name());
+            delete(path);
+            return Optional.empty();
+        }
+        return Optional.of(checkpoint);
+    }
+
+    @Override
+    public void save(Institution institution, StageCheckpoint checkpoint) {
+        long now = clock.millis();
+        if (lastSweep == Long.MIN_VALUE || now - lastSweep >= ttl.toMillis()) {
+            lastSweep = now;
+            sweepExpired();
+        }
+
+        Path path = checkpointPath(institution);
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "checkpoint-", ".tmp");
+            objectMapper.writeValue(temp.toFile(), checkpoint);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Losing a checkpoint only costs a retry some repeated work, so it should not fail the institution
+            log.warn("Failed to save checkpoint for {}", institution.name(), e);
+        }
+    }
+
+    @Override
+    public void clear(Institution institution) {
+        try {
+            Files.deleteIfExists(checkpointPath(institution));
+        } catch (IOException e) {
+            log.warn("Failed to clear checkpoint for {}", institution.name(), e);
+        }
+    }
+
+    /**
+     * Delete every checkpoint, and every temporary file left by an interrupted save, last written longer than the TTL
+     * ago. A checkpoint is rewritten whenever it is saved, so its last write is when it was saved.
+     */
+    public void sweepExpired() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        long expiredBefore = clock.millis() - ttl.toMillis();
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                String name = path.getFileName().toString();
+                boolean ours = (name.startsWith("institution-") && name.endsWith(".json"))
+                        || (name.startsWith("checkpoint-") && name.endsWith(".tmp"));
+                if (ours && Files.getLastModifiedTime(path).toMillis() < expiredBefore && delete(path)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to sweep expired checkpoints from {}", directory, e);
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} expired checkpoints", deleted);
+        }
+    }
+
+    private static boolean delete(Path path) {
+        try {
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete checkpoint {}", path, e);
+            return false;
+        }
+    }
+
+    private Path checkpointPath(Institution institution) {
+        // Institutions have no ID, but the same one always comes with the same name and website
+        String key = institution.name() + "\n" + institution.website();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve("institution-" + HexFormat.of().formatHex(digest) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required to be supported", e);
+        }
+    }
+}
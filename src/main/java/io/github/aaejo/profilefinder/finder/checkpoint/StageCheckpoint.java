@@ -0,0 +1,35 @@
+package io.github.aaejo.profilefinder.finder.checkpoint;
+
+/**
+ * How far processing of an institution got, so that a retry can pick up from the first stage that did not finish.
+ *
+ * @param departmentUrl         department site found for the institution, or null if that stage has not finished
+ * @param departmentConfidence  confidence the department site was found with
+ * @param facultyListUrl        faculty list found for the institution, or null if that stage has not finished
+ * @param facultyListConfidence confidence the faculty list was found with
+ * @param savedAt               when the checkpoint was saved, in epoch milliseconds
+ *
+ * @author Omri Harary
+ */
+public record StageCheckpoint(String departmentUrl, double departmentConfidence, String facultyListUrl,
+        double facultyListConfidence, long savedAt) {
+
+    public static StageCheckpoint department(String departmentUrl, double departmentConfidence, long savedAt) {
+        return new StageCheckpoint(departmentUrl, departmentConfidence, null, Double.NaN, savedAt);
+    }
+
+    public StageCheckpoint withFacultyList(String facultyListUrl, double facultyListConfidence, long savedAt) {
+        return new StageCheckpoint(departmentUrl, departmentConfidence, facultyListUrl, facultyListConfidence, savedAt);
+    }
+
+    public boolean hasFacultyList() {
+        return facultyListUrl != null;
+    }
+
+    /**
+     * @return the URL of the page to resume from, being the last one found
+     */
+    public String resumeUrl() {
+        return hasFacultyList() ? facultyListUrl : departmentUrl;
+    }
+}
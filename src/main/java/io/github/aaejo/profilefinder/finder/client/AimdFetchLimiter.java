@@ -0,0 +1,265 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Learns how many concurrent fetches each host can take, by additive-increase/multiplicative-decrease.
+ * <p>
+ * Every fetch that succeeds without a latency spike raises the host's limit by {@code 1 / limit}, i.e. by about one
+ * for each limit's worth of fetches. A 429 or 503, a timeout or a reset connection, or a latency more than
+ * {@code latencyTolerance} times the host's usual latency cuts the limit by the backoff ratio. So fast sites are
+ * crawled with as much parallelism as allowed, while fragile servers are quickly backed off from. Fetches that fail for
+ * reasons that say nothing about the host's load, such as a bad URL, a DNS or a TLS failure, leave the limit as it is.
+ * <p>
+ * Hosts that have had no fetches for a while are forgotten, along with their limit gauges, so that a long crawl over
+ * many institutions does not keep state or meters for every host it has ever fetched from.
+ *
+ * @author Omri Harary
+ */
+public class AimdFetchLimiter implements FetchLimiter {
+
+    /** Weight of each new latency in a host's usual latency */
+    private static final double LATENCY_SMOOTHING = 0.2;
+    /** How long a host must be idle before its limit is dropped */
+    private static final long IDLE_EVICTION_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final double initialLimit;
+    private final double minLimit;
+    private final double maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final MeterRegistry registry;
+
+    private final ConcurrentHashMap<String, HostLimit> hosts = new ConcurrentHashMap<>();
+    private final AtomicLong lastEviction = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param initialLimit      concurrent fetches a host starts out allowed
+     * @param minLimit          fewest concurrent fetches a host is ever allowed
+     * @param maxLimit          most concurrent fetches a host is ever allowed
+     * @param backoffRatio      factor a host's limit is multiplied by when it is overloaded
+     * @param latencyTolerance  how many times its usual latency a host may take before it counts as overloaded
+     * @param registry          registry to record the current limit of each host to
+     */
+    public AimdFetchLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+            double latencyTolerance, MeterRegistry registry) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.initialLimit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.registry = registry;
+    }
+
+    @Override
+    public Permit acquire(String url) throws InterruptedException {
+        HostLimit host = use(url);
+        try {
+            host.acquire();
+        } catch (InterruptedException e) {
+            host.users.decrementAndGet();
+            throw e;
+        }
+        return host;
+    }
+
+    /**
+     * Async fetches waiting on a host are queued, and handed their permits by the releases that make room for them.
+     */
+    @Override
+    public CompletableFuture<Permit> acquireAsync(String url) {
+        return use(url).acquireAsync();
+    }
+
+    /**
+     * @return the URL's host, counted as having one more fetch holding or waiting for a permit
+     */
+    private HostLimit use(String url) {
+        long now = System.nanoTime();
+        long last = lastEviction.get();
+        if (now - last >= IDLE_EVICTION_NANOS && lastEviction.compareAndSet(last, now)) {
+            evictIdleHosts(now);
+        }
+
+        // Counted as a user while still in the map's lock, so that it cannot be evicted while waiting for a permit
+        return hosts.compute(HostNames.of(url), (key, existing) -> {
+            HostLimit hostLimit = existing != null ? existing : new HostLimit(key);
+            hostLimit.users.incrementAndGet();
+            return hostLimit;
+        });
+    }
+
+    /**
+     * @param host  host to get the limit of
+     * @return the host's current limit on concurrent fetches
+     */
+    public int getLimit(String host) {
+        HostLimit hostLimit = hosts.get(HostNames.normalize(host));
+        return hostLimit != null ? hostLimit.currentLimit() : (int) initialLimit;
+    }
+
+    /**
+     * Drop the limits of hosts with no fetches waiting or in flight that have been idle since before the eviction
+     * threshold, removing their gauges.
+     *
+     * @param now   current {@link System#nanoTime()}
+     */
+    void evictIdleHosts(long now) {
+        for (String key : hosts.keySet()) {
+            hosts.computeIfPresent(key, (k, host) -> {
+                if (host.users.get() == 0 && now - host.lastActive >= IDLE_EVICTION_NANOS) {
+                    registry.remove(host.gauge);
+                    return null;
+                }
+                return host;
+            });
+        }
+    }
+
+    private static boolean isOverloaded(FinderClientResponse response) {
+        if (response == null) {
+            return false;
+        }
+        if (response.status() == 429 || response.status() == 503) {
+            return true;
+        }
+        return response.exception().map(AimdFetchLimiter::isOverloadFailure).orElse(false);
+    }
+
+    /**
+     * @return whether the failure is a timeout or a reset connection, anywhere in its causes
+     */
+    private static boolean isOverloadFailure(Throwable failure) {
+        for (Throwable e = failure; e != null; e = e.getCause() != e ? e.getCause() : null) {
+            if (e instanceof SocketTimeoutException || e instanceof HttpTimeoutException
+                    || e instanceof TimeoutException) {
+                return true;
+            }
+            if (e instanceof SocketException && e.getMessage() != null
+                    && e.getMessage().toLowerCase().contains("connection reset")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class HostLimit implements Permit {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        private final Gauge gauge;
+        private final ArrayDeque<CompletableFuture<Permit>> asyncWaiters = new ArrayDeque<>();
+        /** Fetches holding or waiting for a permit */
+        private final AtomicInteger users = new AtomicInteger();
+        private volatile long lastActive = System.nanoTime();
+        private double limit = initialLimit;
+        private double usualLatencyNanos = Double.NaN;
+        private int inFlight;
+
+        HostLimit(String host) {
+            this.gauge = Gauge.builder("jds.profile-finder.fetch-limiter.limit", this, HostLimit::currentLimit)
+                    .tag("host", host)
+                    .register(registry);
+        }
+
+        void acquire() throws InterruptedException {
+            lock.lock();
+            try {
+                while (inFlight >= (int) limit) {
+                    available.await();
+                }
+                inFlight++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        CompletableFuture<Permit> acquireAsync() {
+            lock.lock();
+            try {
+                if (asyncWaiters.isEmpty() && inFlight < (int) limit) {
+                    inFlight++;
+                    return CompletableFuture.completedFuture(this);
+                }
+                CompletableFuture<Permit> waiter = new CompletableFuture<>();
+                asyncWaiters.add(waiter);
+                return waiter;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void release(FinderClientResponse response, long latencyNanos) {
+            List<CompletableFuture<Permit>> granted = new ArrayList<>();
+            lock.lock();
+            try {
+                inFlight--;
+
+                boolean succeeded = response != null && response.exception().isEmpty();
+                boolean latencySpike = succeeded && !Double.isNaN(usualLatencyNanos)
+                        && latencyNanos > latencyTolerance * usualLatencyNanos;
+                if (isOverloaded(response) || latencySpike) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                } else if (succeeded) {
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+
+                if (succeeded) {
+                    usualLatencyNanos = Double.isNaN(usualLatencyNanos)
+                            ? latencyNanos
+                            : usualLatencyNanos + LATENCY_SMOOTHING * (latencyNanos - usualLatencyNanos);
+                }
+
+                while (!asyncWaiters.isEmpty() && inFlight < (int) limit) {
+                    CompletableFuture<Permit> waiter = asyncWaiters.remove();
+                    if (waiter.isDone()) {
+                        // Cancelled while waiting
+                        users.decrementAndGet();
+                    } else {
+                        inFlight++;
+                        granted.add(waiter);
+                    }
+                }
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            lastActive = System.nanoTime();
+            users.decrementAndGet();
+
+            // Completed outside the lock, as completing runs the waiting fetches' next stages
+            for (CompletableFuture<Permit> waiter : granted) {
+                if (!waiter.complete(this)) {
+                    // Cancelled just as it was granted, give the permit back
+                    release(null, 0);
+                }
+            }
+        }
+
+        int currentLimit() {
+            lock.lock();
+            try {
+                return (int) limit;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import java.util.concurrent.CompletableFuture;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+
+/**
+ * A finder client that can fetch pages without holding a thread for each fetch in flight.
+ *
+ * @author Omri Harary
+ */
+public interface AsyncFetcher {
+
+    /**
+     * Fetch a page without blocking, if robots.txt allows it.
+     *
+     * @param url   page to fetch
+     * @return a future of the response, which completes with a failed response rather than exceptionally
+     */
+    CompletableFuture<FinderClientResponse> getAsync(String url);
+}
@@ -0,0 +1,219 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.jsoup.Connection;
+import org.jsoup.nodes.Document;
+
+import io.github.aaejo.finder.client.FinderClient;
+import io.github.aaejo.finder.client.FinderClientProperties;
+import io.github.aaejo.finder.client.FinderClientResponse;
+
+/**
+ * Finder client that fetches pages with the JDK's non-blocking {@link HttpClient}, so that many fetches can be in
+ * flight without holding a thread each.
+ * <p>
+ * The client negotiates HTTP/2 where the server supports it, multiplexing requests to a host over one connection, and
+ * otherwise keeps HTTP/1.1 connections alive for reuse per host. Responses compressed with gzip or deflate are
+ * decoded. HTTP error statuses are returned with their page rather than failing, as with the Jsoup session.
+ * <p>
+ * Responses are checked by the {@link HtmlIngest} as soon as their headers arrive, and the bodies of rejected ones are
+ * never downloaded. Accepted bodies are parsed as they arrive, on a fixed pool of worker threads that also checks
+ * robots.txt. The HTTP client keeps its own threads for the connections themselves, so a pool full of parses waiting on
+ * their bodies can't hold up the deliveries they are waiting for.
+ * <p>
+ * Requests respect robots.txt, checked through {@link RobotsRules} before each fetch, unless made with
+ * {@code respectRobots} false. Sitemaps are still served by the Jsoup based client this extends.
+ *
+ * @author Omri Harary
+ */
+public class AsyncFinderClient extends FinderClient implements AsyncFetcher {
+
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final Duration requestTimeout;
+    private final String userAgent;
+    private final HtmlIngest ingest;
+    private final RobotsRules robots;
+
+    /**
+     * @param session           Jsoup session for the requests still made through it
+     * @param properties        client properties
+     * @param connectTimeout    longest to wait for a connection
+     * @param requestTimeout    longest to wait for a response
+     * @param http2             whether to try HTTP/2 before HTTP/1.1
+     * @param userAgent         user agent to send, or null for the default
+     * @param workerThreads     threads to parse responses and check robots.txt on
+     * @param ingest            ingest stage for response bodies
+     * @param robots            robots.txt rules to check requests against
+     */
+    public AsyncFinderClient(Connection session, FinderClientProperties properties, Duration connectTimeout,
+            Duration requestTimeout, boolean http2, String userAgent, int workerThreads, HtmlIngest ingest,
+            RobotsRules robots) {
+        super(session, properties);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, workerThreads), runnable -> {
+            Thread thread = new Thread(runnable, "async-finder-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .build();
+        this.requestTimeout = requestTimeout;
+        this.userAgent = userAgent;
+        this.ingest = ingest;
+        this.robots = robots;
+    }
+
+    @Override
+    public CompletableFuture<FinderClientResponse> getAsync(String url) {
+        // The host's robots.txt may need fetching first, which blocks, so it is checked off the caller's thread
+        return CompletableFuture.supplyAsync(() -> robots.isAllowed(url), executor)
+                .thenCompose(allowed -> allowed
+                        ? fetchAsync(url)
+                        : CompletableFuture.completedFuture(
+                                new FinderClientResponse(null, -1, Optional.of(RobotsRules.disallowed(url)))));
+    }
+
+    @Override
+    public FinderClientResponse get(String url) {
+        return get(url, true);
+    }
+
+    @Override
+    public FinderClientResponse get(String url, boolean respectRobots) {
+        return (respectRobots ? getAsync(url) : fetchAsync(url)).join();
+    }
+
+    /**
+     * Fetch a page without blocking, regardless of robots.txt.
+     */
+    private CompletableFuture<FinderClientResponse> fetchAsync(String url) {
+        HttpRequest request;
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(requestTimeout)
+                    .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+                    .header("Accept-Encoding", "gzip, deflate")
+                    .GET();
+            if (userAgent != null) {
+                builder.header("User-Agent", userAgent);
+            }
+            request = builder.build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new FinderClientResponse(null, -1, Optional.of(e)));
+        }
+
+        AtomicReference<String> rejection = new AtomicReference<>();
+        HttpResponse.BodyHandler<InputStream> bodyHandler = info -> {
+            String reason = ingest.reject(info.headers().firstValue("Content-Type").orElse(null),
+                    info.headers().firstValueAsLong("Content-Length").orElse(-1));
+            if (reason != null) {
+                rejection.set(reason);
+                return new DiscardingBodySubscriber();
+            }
+            return HttpResponse.BodySubscribers.ofInputStream();
+        };
+
+        // Parsing blocks on the body as it arrives, so it is kept off the client's own threads
+        return httpClient.sendAsync(request, bodyHandler)
+                .thenApplyAsync(response -> toFinderClientResponse(response, rejection.get()), executor)
+                .exceptionally(e -> new FinderClientResponse(null, -1, Optional.of(unwrap(e))));
+    }
+
+    private FinderClientResponse toFinderClientResponse(HttpResponse<InputStream> response, String rejection) {
+        String location = response.uri().toString();
+        String contentType = response.headers().firstValue("Content-Type").orElse(null);
+        if (rejection != null) {
+            return new FinderClientResponse(null, response.statusCode(),
+                    Optional.of(HtmlIngest.rejected(rejection, contentType, location)));
+        }
+
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("");
+        try (InputStream body = decode(response.body(), encoding)) {
+            Document document = ingest.parse(body, HtmlIngest.charsetOf(contentType), location);
+            return new FinderClientResponse(document, response.statusCode(), Optional.empty());
+        } catch (IOException e) {
+            return new FinderClientResponse(null, response.statusCode(), Optional.of(e));
+        }
+    }
+
+    private static InputStream decode(InputStream body, String contentEncoding) throws IOException {
+        return switch (contentEncoding.trim().toLowerCase()) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(body);
+            case "deflate" -> inflate(body);
+            default -> body;
+        };
+    }
+
+    /**
+     * Deflate is meant to be zlib wrapped, but some servers send it raw, so check for the zlib header first.
+     */
+    private static InputStream inflate(InputStream body) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(body, 2);
+        byte[] header = in.readNBytes(2);
+        in.unread(header);
+        boolean zlibWrapped = header.length == 2 && (header[0] & 0x0F) == 8
+                && ((header[0] & 0xFF) << 8 | (header[1] & 0xFF)) % 31 == 0;
+        return new InflaterInputStream(in, new Inflater(!zlibWrapped));
+    }
+
+    private static Exception unwrap(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof Exception exception) {
+            return exception;
+        }
+        return new UncheckedIOException(new IOException(cause));
+    }
+
+    /**
+     * Cancels the body as soon as it starts, so that a rejected response is not downloaded.
+     */
+    private static final class DiscardingBodySubscriber implements HttpResponse.BodySubscriber<InputStream> {
+
+        @Override
+        public CompletionStage<InputStream> getBody() {
+            return CompletableFuture.completedFuture(InputStream.nullInputStream());
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.cancel();
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
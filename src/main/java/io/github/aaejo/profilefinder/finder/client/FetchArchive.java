@@ -0,0 +1,104 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * On-disk archive of fetched pages and sitemaps, one JSON file per requested URL.
+ * <p>
+ * Entries are written to a temporary file and then moved into place, so concurrent recorders never leave a partially
+ * written entry behind for a replay to read.
+ *
+ * @author Omri Harary
+ */
+public class FetchArchive {
+
+    /**
+     * @param url       URL that was requested
+     * @param location  URL the page was finally served from, after any redirects
+     * @param status    HTTP status of the response, or -1 if there was none
+     * @param html      page content, or null if there was none
+     * @param error     message of the exception the fetch failed with, or null if it did not fail
+     */
+    public record ArchivedPage(String url, String location, int status, String html, String error) {
+    }
+
+    /**
+     * @param url   URL the sitemap was requested for
+     * @param urls  URLs found in the sitemap
+     */
+    public record ArchivedSiteMap(String url, Set<String> urls) {
+    }
+
+    private final Path directory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public FetchArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    public void putPage(ArchivedPage page) {
+        write(entryPath("page", page.url()), page);
+    }
+
+    public Optional<ArchivedPage> getPage(String url) {
+        return read(entryPath("page", url), ArchivedPage.class);
+    }
+
+    public void putSiteMap(ArchivedSiteMap siteMap) {
+        write(entryPath("sitemap", siteMap.url()), siteMap);
+    }
+
+    public Optional<ArchivedSiteMap> getSiteMap(String url) {
+        return read(entryPath("sitemap", url), ArchivedSiteMap.class);
+    }
+
+    /**
+     * @return the directory the archive is kept in
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private Path entryPath(String kind, String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(kind + "-" + HexFormat.of().formatHex(digest) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required to be supported", e);
+        }
+    }
+
+    private void write(Path path, Object entry) {
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "entry-", ".tmp");
+            objectMapper.writeValue(temp.toFile(), entry);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive " + path, e);
+        }
+    }
+
+    private <T> Optional<T> read(Path path, Class<T> type) {
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(path.toFile(), type));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archived " + path, e);
+        }
+    }
+}
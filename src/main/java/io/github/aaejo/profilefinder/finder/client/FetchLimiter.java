@@ -0,0 +1,54 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import java.util.concurrent.CompletableFuture;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+
+/**
+ * Limits how many fetches may be in flight at once, learning from how each fetch went.
+ *
+ * @author Omri Harary
+ */
+public interface FetchLimiter {
+
+    /** Limiter that never limits */
+    FetchLimiter UNLIMITED = url -> (response, latencyNanos) -> {};
+
+    /**
+     * Wait until a fetch of the URL may start.
+     *
+     * @param url   URL about to be fetched
+     * @return the permit for the fetch, which must be released once the fetch is done
+     * @throws InterruptedException if interrupted while waiting, in which case no permit is held
+     */
+    Permit acquire(String url) throws InterruptedException;
+
+    /**
+     * Get a permit for a fetch of the URL once one may start, without blocking for it.
+     * <p>
+     * By default this waits for the permit on the calling thread, so limiters that may make fetches wait should
+     * override it.
+     *
+     * @param url   URL about to be fetched
+     * @return a future of the permit for the fetch, which may be cancelled to give up waiting for it
+     */
+    default CompletableFuture<Permit> acquireAsync(String url) {
+        try {
+            return CompletableFuture.completedFuture(acquire(url));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    interface Permit {
+
+        /**
+         * Release the permit, reporting how the fetch went.
+         *
+         * @param response      the fetch's response, which may be null
+         * @param latencyNanos  how long the fetch took
+         */
+        void release(FinderClientResponse response, long latencyNanos);
+    }
+}
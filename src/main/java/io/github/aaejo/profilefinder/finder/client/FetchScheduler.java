@@ -0,0 +1,432 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Paces fetches per host, so that crawling in parallel doesn't hammer any one site.
+ * <p>
+ * Each host has a token bucket limiting how often fetches to it may start, and a limit on how many may be in flight
+ * at once. A host's crawl-delay, if one is set, replaces its token bucket with one that allows a single fetch per
+ * delay. There may also be an overall limit on fetches in flight across all hosts.
+ * <p>
+ * Waiting fetches are queued per host, in arrival order. Whenever fetches may start, hosts take turns round-robin, so
+ * a host with a long queue, or one that is slow to respond, does not hold up fetches to other hosts.
+ * <p>
+ * Fetches may also wait for their turn asynchronously, in the same queues. Their turns are handed out on a single
+ * scheduler thread, which also rechecks their hosts' tokens for them, so that no thread is held per waiting fetch.
+ *
+ * @author Omri Harary
+ */
+public class FetchScheduler {
+
+    /** Longest a waiting fetch sleeps before checking its host's tokens again */
+    private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    /** How long a host must be idle before its state is dropped */
+    private static final long IDLE_EVICTION_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final int maxConcurrentPerHost;
+    private final int maxConcurrent;
+    private final Map<String, Duration> crawlDelays = new HashMap<>();
+    private final MeterRegistry registry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, HostState> hosts = new HashMap<>();
+    // Hosts with waiting fetches, in the order they get their next turn
+    private final LinkedHashSet<HostState> turns = new LinkedHashSet<>();
+    private int inFlight;
+    private long lastEviction = System.nanoTime();
+    private ScheduledExecutorService timer;
+
+    /**
+     * @param permitsPerSecond      rate fetches to a host may start at, or 0 for no limit
+     * @param burst                 most fetches to a host that may start at once after it has been idle
+     * @param maxConcurrentPerHost  most fetches to a host that may be in flight at once, or 0 for no limit
+     * @param maxConcurrent         most fetches that may be in flight at once across all hosts, or 0 for no limit
+     * @param crawlDelays           minimum delay between fetches to specific hosts
+     * @param registry              registry to record wait times and queue depths to
+     */
+    public FetchScheduler(double permitsPerSecond, int burst, int maxConcurrentPerHost, int maxConcurrent,
+            Map<String, Duration> crawlDelays, MeterRegistry registry) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.maxConcurrentPerHost = maxConcurrentPerHost;
+        this.maxConcurrent = maxConcurrent;
+        if (crawlDelays != null) {
+            crawlDelays.forEach((host, delay) -> this.crawlDelays.put(HostNames.normalize(host), delay));
+        }
+        this.registry = registry;
+    }
+
+    /**
+     * Set a host's crawl-delay, e.g. from its robots.txt, replacing its token bucket.
+     *
+     * @param host  host the delay applies to
+     * @param delay minimum delay between fetches to the host, or null to go back to the default token bucket
+     */
+    public void setCrawlDelay(String host, Duration delay) {
+        String key = HostNames.normalize(host);
+        lock.lock();
+        try {
+            if (delay == null) {
+                crawlDelays.remove(key);
+            } else {
+                crawlDelays.put(key, delay);
+            }
+            HostState state = hosts.get(key);
+            if (state != null) {
+                state.configureBucket();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait for a turn to fetch from the URL's host.
+     *
+     * @param url   URL about to be fetched
+     * @return the permit for the fetch, which must be closed once the fetch is done
+     * @throws InterruptedException if interrupted while waiting, in which case no permit is held
+     */
+    public Permit acquire(String url) throws InterruptedException {
+        long start = System.nanoTime();
+        HostState host;
+        Waiter waiter = new Waiter(lock.newCondition(), null);
+
+        lock.lock();
+        try {
+            evictIdleHosts(start);
+            host = hosts.computeIfAbsent(HostNames.of(url), HostState::new);
+            host.waiters.add(waiter);
+            turns.add(host);
+            dispatch();
+
+            try {
+                while (!waiter.granted) {
+                    // Wake up for the host's next token, or otherwise when a release grants this waiter its turn
+                    long untilToken = host.nanosUntilToken(System.nanoTime());
+                    waiter.condition.awaitNanos(untilToken > 0 ? Math.min(MAX_WAIT_NANOS, untilToken) : MAX_WAIT_NANOS);
+                    if (!waiter.granted) {
+                        dispatch();
+                    }
+                }
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    // Granted just as we were interrupted, give the turn back
+                    releaseLocked(host);
+                } else {
+                    host.waiters.remove(waiter);
+                    if (host.waiters.isEmpty()) {
+                        turns.remove(host);
+                    }
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        host.waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Permit(host);
+    }
+
+    /**
+     * Get a turn to fetch from the URL's host, without blocking for it.
+     *
+     * @param url   URL about to be fetched
+     * @return a future of the permit for the fetch, which must be closed once the fetch is done, and which may be
+     *         cancelled to give up the fetch's place in the queue
+     */
+    public CompletableFuture<Permit> acquireAsync(String url) {
+        long start = System.nanoTime();
+        CompletableFuture<Permit> future = new CompletableFuture<>();
+        Waiter waiter = new Waiter(null, future);
+        HostState host;
+
+        lock.lock();
+        try {
+            evictIdleHosts(start);
+            host = hosts.computeIfAbsent(HostNames.of(url), HostState::new);
+            host.waiters.add(waiter);
+            turns.add(host);
+            dispatch();
+            if (!waiter.granted) {
+                recheckLater(host, waiter);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        future.whenComplete((permit, e) -> {
+            if (future.isCancelled()) {
+                withdraw(host, waiter);
+            } else {
+                host.waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @return the number of fetches in flight across all hosts
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Start as many waiting fetches as limits allow, taking hosts round-robin.
+     */
+    private void dispatch() {
+        long now = System.nanoTime();
+        boolean granted;
+        do {
+            granted = false;
+            Iterator<HostState> it = turns.iterator();
+            while (it.hasNext() && (maxConcurrent <= 0 || inFlight < maxConcurrent)) {
+                HostState host = it.next();
+                if ((maxConcurrentPerHost > 0 && host.inFlight >= maxConcurrentPerHost) || !host.tryTakeToken(now)) {
+                    continue;
+                }
+
+                Waiter waiter = host.waiters.remove();
+                waiter.granted = true;
+                if (waiter.future != null) {
+                    grantLater(host, waiter);
+                } else {
+                    waiter.condition.signal();
+                }
+                host.inFlight++;
+                inFlight++;
+
+                // Move the host to the back of the line, or out of it if nothing else is waiting
+                it.remove();
+                if (!host.waiters.isEmpty()) {
+                    turns.add(host);
+                }
+                granted = true;
+                break; // Iterator is spent once the turns change, so start over from the new front
+            }
+        } while (granted);
+    }
+
+    /**
+     * Hand an async waiter its turn on the scheduler thread, as completing it runs the fetch's next stages.
+     */
+    private void grantLater(HostState host, Waiter waiter) {
+        timer().execute(() -> {
+            Permit permit = new Permit(host);
+            if (!waiter.future.complete(permit)) {
+                // Cancelled just as it was granted, give the turn back
+                permit.close();
+            }
+        });
+    }
+
+    /**
+     * Check again for an async waiter's turn once its host's next token is due, as no thread waits on it to do so.
+     */
+    private void recheckLater(HostState host, Waiter waiter) {
+        long untilToken = host.nanosUntilToken(System.nanoTime());
+        long delay = untilToken > 0 ? Math.min(MAX_WAIT_NANOS, untilToken) : MAX_WAIT_NANOS;
+        timer().schedule(() -> {
+            lock.lock();
+            try {
+                if (!waiter.granted && !waiter.future.isDone()) {
+                    dispatch();
+                    if (!waiter.granted) {
+                        recheckLater(host, waiter);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }, delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Take a cancelled async waiter out of its host's queue, if it has not been granted its turn yet.
+     */
+    private void withdraw(HostState host, Waiter waiter) {
+        lock.lock();
+        try {
+            if (!waiter.granted) {
+                host.waiters.remove(waiter);
+                if (host.waiters.isEmpty()) {
+                    turns.remove(host);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ScheduledExecutorService timer() {
+        lock.lock();
+        try {
+            if (timer == null) {
+                timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "fetch-scheduler");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return timer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(HostState host) {
+        lock.lock();
+        try {
+            releaseLocked(host);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseLocked(HostState host) {
+        host.inFlight--;
+        inFlight--;
+        host.lastActive = System.nanoTime();
+        dispatch();
+    }
+
+    private void evictIdleHosts(long now) {
+        if (now - lastEviction < IDLE_EVICTION_NANOS) {
+            return;
+        }
+        lastEviction = now;
+
+        Iterator<HostState> it = hosts.values().iterator();
+        while (it.hasNext()) {
+            HostState host = it.next();
+            if (host.inFlight == 0 && host.waiters.isEmpty() && now - host.lastActive >= IDLE_EVICTION_NANOS) {
+                registry.remove(host.waitTimer);
+                registry.remove(host.queueDepthGauge);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * A turn to fetch from a host, which must be closed once the fetch is done.
+     */
+    public final class Permit implements AutoCloseable {
+        private final HostState host;
+        private boolean closed;
+
+        private Permit(HostState host) {
+            this.host = host;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(host);
+            }
+        }
+    }
+
+    /**
+     * A fetch waiting for its turn, either blocked on the condition or, if async, on the future.
+     */
+    private static final class Waiter {
+        final Condition condition;
+        final CompletableFuture<Permit> future;
+        boolean granted;
+
+        Waiter(Condition condition, CompletableFuture<Permit> future) {
+            this.condition = condition;
+            this.future = future;
+        }
+    }
+
+    private final class HostState {
+        final String host;
+        final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        final Timer waitTimer;
+        final Gauge queueDepthGauge;
+        int inFlight;
+        long lastActive = System.nanoTime();
+
+        // Token bucket
+        double capacity;
+        double nanosPerToken;
+        double tokens;
+        long lastRefill = System.nanoTime();
+
+        HostState(String host) {
+            this.host = host;
+            configureBucket();
+            this.tokens = capacity;
+            this.waitTimer = registry.timer("jds.profile-finder.fetch-scheduler.wait", "host", host);
+            this.queueDepthGauge = Gauge.builder("jds.profile-finder.fetch-scheduler.queue-depth", this,
+                            state -> state.waiters.size())
+                    .tag("host", host)
+                    .register(registry);
+        }
+
+        void configureBucket() {
+            Duration crawlDelay = crawlDelays.get(host);
+            if (crawlDelay != null && !crawlDelay.isZero()) {
+                capacity = 1;
+                nanosPerToken = crawlDelay.toNanos();
+            } else if (permitsPerSecond > 0) {
+                capacity = burst;
+                nanosPerToken = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+            } else {
+                capacity = Double.POSITIVE_INFINITY;
+                nanosPerToken = 0;
+            }
+            tokens = Math.min(tokens, capacity);
+        }
+
+        boolean tryTakeToken(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens--;
+                return true;
+            }
+            return false;
+        }
+
+        long nanosUntilToken(long now) {
+            refill(now);
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * nanosPerToken);
+        }
+
+        private void refill(long now) {
+            if (nanosPerToken == 0) {
+                tokens = capacity;
+            } else {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) / nanosPerToken);
+            }
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import java.net.URI;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * @author Omri Harary
+ */
+public final class HostNames {
+
+    private HostNames() {
+    }
+
+    /**
+     * @param url   URL to get the host of
+     * @return the URL's host, lower cased and without any leading "www.", or an empty string if it has none
+     */
+    public static String of(String url) {
+        try {
+            return normalize(URI.create(url).getHost());
+        } catch (IllegalArgumentException e) {
+            return StringUtils.EMPTY;
+        }
+    }
+
+    /**
+     * @param host  host name to normalize
+     * @return the host name, lower cased and without any leading "www."
+     */
+    public static String normalize(String host) {
+        return StringUtils.removeStart(StringUtils.lowerCase(StringUtils.defaultString(host)), "www.");
+    }
+}
@@ -0,0 +1,234 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jsoup.Jsoup;
+import org.jsoup.UnsupportedMimeTypeException;
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Turns fetched response bodies into documents while bounding how much of them is read and kept.
+ * <p>
+ * Responses are rejected by their content type, and by their declared length, before their bodies are read. Bodies
+ * are parsed as they are read rather than buffered first, and are cut off at the maximum size. Elements the finders
+ * never look at, like scripts, stylesheets and inline SVG, are then dropped along with inline data URIs, so that only
+ * what is needed is retained while the page is cached and searched.
+ *
+ * @author Omri Harary
+ */
+public class HtmlIngest {
+
+    // Same estimates as the page cache uses, so the retained figures are comparable with its size
+    private static final int NODE_OVERHEAD_BYTES = 64;
+
+    private final long maxBodySize;
+    private final Set<String> droppedTags;
+    private final boolean dropDataUris;
+    private final MeterRegistry registry;
+    private final DistributionSummary downloaded;
+    private final DistributionSummary retained;
+
+    /**
+     * @param maxBodySize   most bytes of a body to read, or 0 for no limit
+     * @param droppedTags   elements to drop from parsed documents, by normalised tag name
+     * @param dropDataUris  whether to drop attributes holding inline data URIs
+     * @param registry      registry for ingest metrics
+     */
+    public HtmlIngest(long maxBodySize, Set<String> droppedTags, boolean dropDataUris, MeterRegistry registry) {
+        this.maxBodySize = maxBodySize;
+        this.droppedTags = Set.copyOf(droppedTags);
+        this.dropDataUris = dropDataUris;
+        this.registry = registry;
+        this.downloaded = DistributionSummary.builder("jds.profile-finder.ingest.bytes")
+                .baseUnit("bytes")
+                .tag("kind", "downloaded")
+                .register(registry);
+        this.retained = DistributionSummary.builder("jds.profile-finder.ingest.bytes")
+                .baseUnit("bytes")
+                .tag("kind", "retained")
+                .register(registry);
+    }
+
+    /**
+     * Check whether a response should be parsed at all, based only on its headers.
+     *
+     * @param contentType   value of the Content-Type header, or null if there was none
+     * @param contentLength value of the Content-Length header, or -1 if there was none
+     * @return the reason to reject the response, or null if its body should be read
+     */
+    public String reject(String contentType, long contentLength) {
+        String reason = null;
+        if (StringUtils.isNotBlank(contentType) && !isParseable(contentType)) {
+            reason = "content-type";
+        } else if (maxBodySize > 0 && contentLength > maxBodySize) {
+            reason = "too-large";
+        }
+
+        if (reason != null) {
+            registry.counter("jds.profile-finder.ingest.rejected", "reason", reason).increment();
+        }
+        return reason;
+    }
+
+    /**
+     * Parse a body as it is read, up to the maximum size, and drop the parts of it that are not needed.
+     *
+     * @param body      response body, which is not closed
+     * @param charset   charset named by the response, or null to detect it
+     * @param baseUri   URL the response was for, after redirects
+     * @return the parsed document
+     * @throws IOException if the body could not be read
+     */
+    public Document parse(InputStream body, String charset, String baseUri) throws IOException {
+        BoundedInputStream bounded = new BoundedInputStream(body, maxBodySize);
+        Document document = Jsoup.parse(bounded, charset, baseUri);
+        if (bounded.truncated) {
+            registry.counter("jds.profile-finder.ingest.truncated").increment();
+        }
+
+        downloaded.record(bounded.count);
+        retained.record(prune(document));
+        return document;
+    }
+
+    /**
+     * @param reason        reason the response was rejected
+     * @param contentType   content type of the response
+     * @param location      URL of the response
+     * @return the exception to fail the fetch of a rejected response with
+     */
+    public static IOException rejected(String reason, String contentType, String location) {
+        if (reason.equals("content-type")) {
+            return new UnsupportedMimeTypeException("Unhandled content type", contentType, location);
+        }
+        return new IOException("Response body of " + location + " is larger than the maximum body size");
+    }
+
+    /**
+     * @return whether a content type is one Jsoup can parse
+     */
+    public static boolean isParseable(String contentType) {
+        String mimeType = StringUtils.substringBefore(contentType, ";").trim().toLowerCase();
+        return mimeType.startsWith("text/") || mimeType.equals("application/xhtml+xml")
+                || mimeType.equals("application/xml") || mimeType.endsWith("+xml");
+    }
+
+    /**
+     * @return the charset named by a content type, or null if it does not name one
+     */
+    public static String charsetOf(String contentType) {
+        for (String parameter : StringUtils.split(StringUtils.defaultString(contentType), ';')) {
+            String trimmed = parameter.trim();
+            if (StringUtils.startsWithIgnoreCase(trimmed, "charset=")) {
+                return StringUtils.strip(trimmed.substring("charset=".length()), "\"' ");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drop the unneeded elements and attributes from a document in a single pass.
+     *
+     * @return estimated memory taken up by what is left of the document
+     */
+    private long prune(Document document) {
+        long[] estimate = { 0 };
+        NodeTraversor.filter((Node node, int depth) -> {
+            if (node instanceof Element element) {
+                if (droppedTags.contains(element.normalName())) {
+                    return NodeFilter.FilterResult.REMOVE;
+                }
+                if (dropDataUris) {
+                    for (Attribute attribute : element.attributes().asList()) {
+                        if (StringUtils.startsWithIgnoreCase(attribute.getValue(), "data:")) {
+                            element.removeAttr(attribute.getKey());
+                        }
+                    }
+                }
+                for (Attribute attribute : element.attributes()) {
+                    estimate[0] += 2L * (attribute.getKey().length() + attribute.getValue().length());
+                }
+            } else if (node instanceof TextNode text) {
+                estimate[0] += 2L * text.getWholeText().length();
+            }
+            estimate[0] += NODE_OVERHEAD_BYTES;
+            return NodeFilter.FilterResult.CONTINUE;
+        }, document);
+        return estimate[0];
+    }
+
+    /**
+     * Counts the bytes read through it, and ends the stream once the limit has been read.
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+        private boolean truncated;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (atLimit()) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (atLimit()) {
+                return -1;
+            }
+            if (limit > 0) {
+                len = (int) Math.min(len, limit - count);
+            }
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // Leave the underlying stream to its owner
+        }
+
+        private boolean atLimit() throws IOException {
+            if (limit <= 0 || count < limit) {
+                return false;
+            }
+            // Only a cut off if there was more to read
+            if (!truncated && super.read() >= 0) {
+                truncated = true;
+            }
+            return true;
+        }
+    }
+}
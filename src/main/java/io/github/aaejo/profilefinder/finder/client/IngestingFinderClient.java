@@ -0,0 +1,79 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.jsoup.Connection;
+import org.jsoup.nodes.Document;
+
+import io.github.aaejo.finder.client.FinderClient;
+import io.github.aaejo.finder.client.FinderClientProperties;
+import io.github.aaejo.finder.client.FinderClientResponse;
+
+/**
+ * Finder client that fetches pages through a Jsoup session, but reads them through the {@link HtmlIngest} instead of
+ * having Jsoup download and parse each body in full.
+ * <p>
+ * Requests respect robots.txt, checked through {@link RobotsRules} before each fetch, unless made with
+ * {@code respectRobots} false. Sitemaps are still served by the client this extends.
+ *
+ * @author Omri Harary
+ */
+public class IngestingFinderClient extends FinderClient {
+
+    private final Connection session;
+    private final HtmlIngest ingest;
+    private final RobotsRules robots;
+
+    public IngestingFinderClient(Connection session, FinderClientProperties properties, HtmlIngest ingest,
+            RobotsRules robots) {
+        super(session, properties);
+        this.session = session;
+        this.ingest = ingest;
+        this.robots = robots;
+    }
+
+    @Override
+    public FinderClientResponse get(String url) {
+        return get(url, true);
+    }
+
+    @Override
+    public FinderClientResponse get(String url, boolean respectRobots) {
+        if (respectRobots && !robots.isAllowed(url)) {
+            return new FinderClientResponse(null, -1, Optional.of(RobotsRules.disallowed(url)));
+        }
+        return fetch(url);
+    }
+
+    private FinderClientResponse fetch(String url) {
+        Connection.Response response;
+        try {
+            response = session.newRequest()
+                    .url(url)
+                    .ignoreContentType(true) // Checked by the ingest, so that the status is still known
+                    .maxBodySize(0) // Bounded by the ingest instead
+                    .execute();
+        } catch (IOException | IllegalArgumentException e) {
+            return new FinderClientResponse(null, -1, Optional.of(e));
+        }
+
+        // Headers have been read, but the body has not
+        String location = response.url().toExternalForm();
+        String rejection = ingest.reject(response.contentType(),
+                NumberUtils.toLong(response.header("Content-Length"), -1));
+        try (InputStream body = response.bodyStream()) {
+            if (rejection != null) {
+                return new FinderClientResponse(null, response.statusCode(),
+                        Optional.of(HtmlIngest.rejected(rejection, response.contentType(), location)));
+            }
+
+            Document document = ingest.parse(body, response.charset(), location);
+            return new FinderClientResponse(document, response.statusCode(), Optional.empty());
+        } catch (IOException | IllegalArgumentException e) {
+            return new FinderClientResponse(null, response.statusCode(), Optional.of(e));
+        }
+    }
+}
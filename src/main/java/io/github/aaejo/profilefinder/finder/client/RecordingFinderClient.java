@@ -0,0 +1,75 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.TreeSet;
+
+import org.jsoup.Connection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.aaejo.finder.client.FinderClient;
+import io.github.aaejo.finder.client.FinderClientProperties;
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.github.aaejo.profilefinder.finder.client.FetchArchive.ArchivedPage;
+import io.github.aaejo.profilefinder.finder.client.FetchArchive.ArchivedSiteMap;
+
+/**
+ * Finder client that passes every request through to another client, and records each response to a
+ * {@link FetchArchive} so that it can later be served by a {@link ReplayFinderClient}.
+ *
+ * @author Omri Harary
+ */
+public class RecordingFinderClient extends FinderClient {
+    private static final Logger log = LoggerFactory.getLogger(RecordingFinderClient.class);
+
+    private final FinderClient delegate;
+    private final FetchArchive archive;
+
+    public RecordingFinderClient(Connection session, FinderClientProperties properties, FinderClient delegate,
+            FetchArchive archive) {
+        super(session, properties);
+        this.delegate = delegate;
+        this.archive = archive;
+    }
+
+    @Override
+    public FinderClientResponse get(String url) {
+        return record(url, delegate.get(url));
+    }
+
+    @Override
+    public FinderClientResponse get(String url, boolean respectRobots) {
+        return record(url, delegate.get(url, respectRobots));
+    }
+
+    @Override
+    public HashSet<String> getSiteMapURLs(String url) {
+        HashSet<String> urls = delegate.getSiteMapURLs(url);
+        try {
+            archive.putSiteMap(new ArchivedSiteMap(url, urls != null ? new TreeSet<>(urls) : new TreeSet<>()));
+        } catch (UncheckedIOException e) {
+            log.warn("Failed to record sitemap of {}", url, e);
+        }
+        return urls;
+    }
+
+    private FinderClientResponse record(String url, FinderClientResponse response) {
+        if (response == null) {
+            return null;
+        }
+
+        ArchivedPage page = new ArchivedPage(
+                url,
+                response.location(),
+                response.status(),
+                response.document() != null ? response.document().outerHtml() : null,
+                response.exception().map(e -> e.getClass().getName() + ": " + e.getMessage()).orElse(null));
+        try {
+            archive.putPage(page);
+        } catch (UncheckedIOException e) {
+            log.warn("Failed to record response from {}", url, e);
+        }
+        return response;
+    }
+}
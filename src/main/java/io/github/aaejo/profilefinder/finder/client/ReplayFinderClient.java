@@ -0,0 +1,108 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.aaejo.finder.client.FinderClient;
+import io.github.aaejo.finder.client.FinderClientProperties;
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.github.aaejo.profilefinder.finder.client.FetchArchive.ArchivedPage;
+import io.github.aaejo.profilefinder.finder.client.FetchArchive.ArchivedSiteMap;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Finder client that never touches the network, instead serving the responses recorded in a {@link FetchArchive} by a
+ * {@link RecordingFinderClient}, after a synthetic latency.
+ * <p>
+ * URLs that were never recorded fail the same way a connection error would, with no status and an exception.
+ *
+ * @author Omri Harary
+ */
+public class ReplayFinderClient extends FinderClient {
+    private static final Logger log = LoggerFactory.getLogger(ReplayFinderClient.class);
+
+    private final FetchArchive archive;
+    private final Duration latency;
+    private final Duration latencyJitter;
+    private final MeterRegistry registry;
+
+    /**
+     * @param properties    client properties
+     * @param archive       archive to serve responses from
+     * @param latency       how long every request takes at least
+     * @param latencyJitter most extra time, chosen uniformly at random, that a request may take
+     * @param registry      registry to record archive hits and misses to
+     */
+    public ReplayFinderClient(FinderClientProperties properties, FetchArchive archive, Duration latency,
+            Duration latencyJitter, MeterRegistry registry) {
+        super(Jsoup.newSession(), properties);
+        this.archive = archive;
+        this.latency = latency != null ? latency : Duration.ZERO;
+        this.latencyJitter = latencyJitter != null ? latencyJitter : Duration.ZERO;
+        this.registry = registry;
+    }
+
+    @Override
+    public FinderClientResponse get(String url) {
+        simulateLatency();
+
+        Optional<ArchivedPage> archived = archive.getPage(url);
+        recordLookup(archived.isPresent());
+        if (archived.isEmpty()) {
+            log.warn("No archived response for {}", url);
+            return new FinderClientResponse(null, -1,
+                    Optional.of(new IOException("No archived response for " + url)));
+        }
+
+        ArchivedPage page = archived.get();
+        Document document = page.html() != null
+                ? Jsoup.parse(page.html(), page.location() != null ? page.location() : url)
+                : null;
+        Optional<Exception> exception = page.error() != null
+                ? Optional.of(new IOException(page.error()))
+                : Optional.empty();
+        return new FinderClientResponse(document, page.status(), exception);
+    }
+
+    @Override
+    public FinderClientResponse get(String url, boolean respectRobots) {
+        return get(url); // Robots were already respected, or not, when recording
+    }
+
+    @Override
+    public HashSet<String> getSiteMapURLs(String url) {
+        simulateLatency();
+
+        Optional<ArchivedSiteMap> archived = archive.getSiteMap(url);
+        recordLookup(archived.isPresent());
+        return archived.map(siteMap -> new HashSet<>(siteMap.urls())).orElseGet(HashSet::new);
+    }
+
+    private void recordLookup(boolean hit) {
+        registry.counter("jds.profile-finder.replay-client.lookup", "result", hit ? "hit" : "miss").increment();
+    }
+
+    private void simulateLatency() {
+        long millis = latency.toMillis();
+        if (!latencyJitter.isZero()) {
+            millis += ThreadLocalRandom.current().nextLong(latencyJitter.toMillis() + 1);
+        }
+        if (millis <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
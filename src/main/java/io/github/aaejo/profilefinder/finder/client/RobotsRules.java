@@ -0,0 +1,253 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides whether robots.txt allows fetching a URL, for the clients that make their own requests rather than going
+ * through the Jsoup based client's fetching, and so would otherwise skip its robots.txt check.
+ * <p>
+ * Rules are read as described in RFC 9309. The group for the user agent's product token is used if there is one,
+ * otherwise the {@code *} group, and the longest matching rule decides, with allow winning ties. A missing robots.txt
+ * (any 4xx) allows everything, while one that cannot be fetched (a 5xx, or a failed request) disallows everything.
+ * Each host's rules are kept for a time to live, for a bounded number of hosts.
+ *
+ * @author Omri Harary
+ */
+public class RobotsRules {
+    private static final Logger log = LoggerFactory.getLogger(RobotsRules.class);
+
+    /** Most of a robots.txt that is read, per RFC 9309 */
+    private static final int MAX_ROBOTS_BYTES = 500 * 1024;
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final String userAgent;
+    private final String productToken;
+    private final long ttlNanos;
+    private final Map<String, HostRules> cache;
+
+    /**
+     * @param requestTimeout    longest to wait for a robots.txt
+     * @param userAgent         user agent to fetch robots.txt with and pick the rules for, or null for the default
+     * @param ttl               how long a host's rules are kept before robots.txt is fetched again
+     * @param maxHosts          most hosts to keep rules for at once
+     */
+    public RobotsRules(Duration requestTimeout, String userAgent, Duration ttl, int maxHosts) {
+        this.httpClient = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(requestTimeout)
+                .build();
+        this.requestTimeout = requestTimeout;
+        this.userAgent = userAgent;
+        this.productToken = StringUtils.substringBefore(StringUtils.trimToEmpty(userAgent), "/").split("\\s", 2)[0];
+        this.ttlNanos = ttl.toNanos();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, HostRules> eldest) {
+                return size() > maxHosts;
+            }
+        };
+    }
+
+    /**
+     * @param url   URL about to be fetched
+     * @return whether the URL's robots.txt allows fetching it
+     */
+    public boolean isAllowed(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            return true; // Left for the fetch itself to fail on
+        }
+        if (uri.getScheme() == null || uri.getRawAuthority() == null) {
+            return true;
+        }
+
+        String path = StringUtils.defaultIfEmpty(uri.getRawPath(), "/");
+        if (path.equals("/robots.txt")) {
+            return true;
+        }
+        if (uri.getRawQuery() != null) {
+            path += "?" + uri.getRawQuery();
+        }
+        return rulesFor(uri).isAllowed(path);
+    }
+
+    /**
+     * @param url   URL that was not fetched
+     * @return the exception to fail the fetch of a URL disallowed by robots.txt with
+     */
+    public static IOException disallowed(String url) {
+        return new IOException("Fetching " + url + " is disallowed by robots.txt");
+    }
+
+    private HostRules rulesFor(URI uri) {
+        String origin = uri.getScheme().toLowerCase() + "://" + uri.getRawAuthority().toLowerCase();
+        long now = System.nanoTime();
+        synchronized (cache) {
+            HostRules rules = cache.get(origin);
+            if (rules != null && now - rules.fetchedAt < ttlNanos) {
+                return rules;
+            }
+        }
+
+        // Fetched outside the lock, so one slow host does not hold up the others
+        HostRules rules = fetch(origin, now);
+        synchronized (cache) {
+            cache.put(origin, rules);
+        }
+        return rules;
+    }
+
+    private HostRules fetch(String origin, long now) {
+        String robots = origin + "/robots.txt";
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(robots))
+                    .timeout(requestTimeout)
+                    .GET();
+            if (userAgent != null) {
+                builder.header("User-Agent", userAgent);
+            }
+            HttpResponse<InputStream> response = httpClient.send(builder.build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                int status = response.statusCode();
+                if (status >= 200 && status < 300) {
+                    return parse(new String(body.readNBytes(MAX_ROBOTS_BYTES), StandardCharsets.UTF_8), now);
+                }
+                if (status >= 400 && status < 500) {
+                    return new HostRules(List.of(), now);
+                }
+                log.debug("robots.txt at {} returned {}, so treating everything as disallowed", robots, status);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("Could not fetch {}, so treating everything as disallowed", robots, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new HostRules(List.of(new Rule("/", false)), now);
+    }
+
+    /**
+     * @return the rules of the group for the product token, or of the {@code *} group if there is none for it
+     */
+    private HostRules parse(String robotsTxt, long now) {
+        List<Rule> agentRules = new ArrayList<>();
+        List<Rule> wildcardRules = new ArrayList<>();
+        boolean agentMatched = false;
+
+        boolean inAgents = false;
+        boolean forAgent = false;
+        boolean forWildcard = false;
+        try (BufferedReader reader = new BufferedReader(new StringReader(robotsTxt))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = StringUtils.substringBefore(line, "#").trim();
+                int colon = line.indexOf(':');
+                if (colon < 0) {
+                    continue;
+                }
+                String key = line.substring(0, colon).trim().toLowerCase();
+                String value = line.substring(colon + 1).trim();
+
+                if (key.equals("user-agent")) {
+                    if (!inAgents) {
+                        // A user-agent line after rules starts a new group
+                        inAgents = true;
+                        forAgent = false;
+                        forWildcard = false;
+                    }
+                    if (value.equals("*")) {
+                        forWildcard = true;
+                    } else if (!productToken.isEmpty() && value.equalsIgnoreCase(productToken)) {
+                        forAgent = true;
+                        agentMatched = true;
+                    }
+                } else if (key.equals("allow") || key.equals("disallow")) {
+                    inAgents = false;
+                    if (value.isEmpty()) {
+                        continue; // An empty disallow allows everything, which is already the default
+                    }
+                    Rule rule = new Rule(value, key.equals("allow"));
+                    if (forAgent) {
+                        agentRules.add(rule);
+                    }
+                    if (forWildcard) {
+                        wildcardRules.add(rule);
+                    }
+                } else {
+                    inAgents = false;
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Reading from a string
+        }
+
+        return new HostRules(agentMatched ? agentRules : wildcardRules, now);
+    }
+
+    private static final class HostRules {
+        final List<Rule> rules;
+        final long fetchedAt;
+
+        HostRules(List<Rule> rules, long fetchedAt) {
+            this.rules = rules;
+            this.fetchedAt = fetchedAt;
+        }
+
+        boolean isAllowed(String path) {
+            Rule match = null;
+            for (Rule rule : rules) {
+                if (rule.matches(path) && (match == null || rule.pattern.length() > match.pattern.length()
+                        || (rule.pattern.length() == match.pattern.length() && rule.allow))) {
+                    match = rule;
+                }
+            }
+            return match == null || match.allow;
+        }
+    }
+
+    private static final class Rule {
+        final String pattern;
+        final boolean allow;
+        final Pattern regex;
+
+        Rule(String pattern, boolean allow) {
+            this.pattern = pattern;
+            this.allow = allow;
+
+            // * matches any run of characters, and a trailing $ anchors the end of the path
+            boolean anchored = pattern.endsWith("$");
+            String body = anchored ? pattern.substring(0, pattern.length() - 1) : pattern;
+            String regex = Arrays.stream(StringUtils.splitPreserveAllTokens(body, '*'))
+                    .map(Pattern::quote)
+                    .collect(Collectors.joining(".*"));
+            this.regex = Pattern.compile(anchored ? regex : regex + ".*", Pattern.DOTALL);
+        }
+
+        boolean matches(String path) {
+            return regex.matcher(path).matches();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.jsoup.Connection;
+
+import io.github.aaejo.finder.client.FinderClient;
+import io.github.aaejo.finder.client.FinderClientProperties;
+import io.github.aaejo.finder.client.FinderClientResponse;
+
+/**
+ * Scheduled finder client for a client that can fetch asynchronously, whose async fetches wait for their
+ * {@link FetchScheduler} turn without blocking.
+ *
+ * @author Omri Harary
+ */
+public class ScheduledAsyncFinderClient extends ScheduledFinderClient implements AsyncFetcher {
+
+    private final AsyncFetcher delegate;
+    private final FetchScheduler scheduler;
+
+    public <C extends FinderClient & AsyncFetcher> ScheduledAsyncFinderClient(Connection session,
+            FinderClientProperties properties, C delegate, FetchScheduler scheduler) {
+        super(session, properties, delegate, scheduler);
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public CompletableFuture<FinderClientResponse> getAsync(String url) {
+        CompletableFuture<FetchScheduler.Permit> turn = scheduler.acquireAsync(url);
+        CompletableFuture<FinderClientResponse> response = turn.thenCompose(permit -> {
+            try {
+                return delegate.getAsync(url).whenComplete((page, e) -> permit.close());
+            } catch (RuntimeException e) {
+                permit.close();
+                throw e;
+            }
+        });
+
+        // Cancelling the fetch before its turn comes gives up its place in the host's queue
+        response.whenComplete((page, e) -> {
+            if (response.isCancelled()) {
+                turn.cancel(false);
+            }
+        });
+        return response;
+    }
+}
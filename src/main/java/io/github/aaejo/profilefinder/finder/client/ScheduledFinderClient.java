@@ -0,0 +1,58 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import java.util.HashSet;
+import java.util.Optional;
+
+import org.jsoup.Connection;
+
+import io.github.aaejo.finder.client.FinderClient;
+import io.github.aaejo.finder.client.FinderClientProperties;
+import io.github.aaejo.finder.client.FinderClientResponse;
+
+/**
+ * Finder client that waits for a {@link FetchScheduler} turn before passing each request through to another client.
+ *
+ * @author Omri Harary
+ */
+public class ScheduledFinderClient extends FinderClient {
+
+    private final FinderClient delegate;
+    private final FetchScheduler scheduler;
+
+    public ScheduledFinderClient(Connection session, FinderClientProperties properties, FinderClient delegate,
+            FetchScheduler scheduler) {
+        super(session, properties);
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public FinderClientResponse get(String url) {
+        try (FetchScheduler.Permit permit = scheduler.acquire(url)) {
+            return delegate.get(url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new FinderClientResponse(null, -1, Optional.of(e));
+        }
+    }
+
+    @Override
+    public FinderClientResponse get(String url, boolean respectRobots) {
+        try (FetchScheduler.Permit permit = scheduler.acquire(url)) {
+            return delegate.get(url, respectRobots);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new FinderClientResponse(null, -1, Optional.of(e));
+        }
+    }
+
+    @Override
+    public HashSet<String> getSiteMapURLs(String url) {
+        try (FetchScheduler.Permit permit = scheduler.acquire(url)) {
+            return delegate.getSiteMapURLs(url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new HashSet<>();
+        }
+    }
+}
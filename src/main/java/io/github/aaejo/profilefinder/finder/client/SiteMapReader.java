@@ -0,0 +1,256 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Reads a site's sitemaps as a stream of URLs, without ever holding all of them at once.
+ * <p>
+ * Sitemaps are found from the site's robots.txt, falling back on {@code /sitemap.xml}. Each sitemap is parsed
+ * incrementally as it downloads, gzip compressed ones included, and sitemap indexes are followed down to a maximum
+ * depth. Every page URL is handed to a consumer as soon as it is read, and the consumer can stop the read at any point.
+ *
+ * @author Omri Harary
+ */
+public class SiteMapReader {
+    private static final Logger log = LoggerFactory.getLogger(SiteMapReader.class);
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final int maxDepth;
+    private final int maxCandidates;
+    private final FetchScheduler scheduler;
+    private final MeterRegistry registry;
+    private final XMLInputFactory xmlInputFactory;
+
+    /**
+     * @param requestTimeout    longest to wait for each sitemap to start arriving
+     * @param maxDepth          how many levels of sitemap indexes to follow
+     * @param maxCandidates     how many candidate URLs readers should stop after, or 0 for no limit
+     * @param scheduler         scheduler to pace sitemap fetches with, or null to not pace them
+     * @param registry          registry for sitemap metrics
+     */
+    public SiteMapReader(Duration requestTimeout, int maxDepth, int maxCandidates, FetchScheduler scheduler,
+            MeterRegistry registry) {
+        this.httpClient = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(requestTimeout)
+                .build();
+        this.requestTimeout = requestTimeout;
+        this.maxDepth = maxDepth;
+        this.maxCandidates = maxCandidates;
+        this.scheduler = scheduler;
+        this.registry = registry;
+
+        this.xmlInputFactory = XMLInputFactory.newFactory();
+        // Sitemaps come from anywhere, so never resolve DTDs or external entities
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    }
+
+    /**
+     * Read the URLs in the sitemaps of the site a page is on.
+     *
+     * @param pageUrl   any page on the site
+     * @param consumer  receives each URL as it is read, returning false to stop reading
+     * @return how many URLs were read
+     */
+    public long read(String pageUrl, Predicate<String> consumer) {
+        URI site;
+        try {
+            site = URI.create(pageUrl).resolve("/");
+        } catch (IllegalArgumentException e) {
+            log.warn("Cannot read sitemaps for invalid URL {}", pageUrl);
+            return 0;
+        }
+
+        ReadState state = new ReadState(consumer);
+        List<String> siteMaps = new ArrayList<>(findSiteMaps(site));
+        for (String siteMap : siteMaps) {
+            if (!readSiteMap(siteMap, 0, state)) {
+                break;
+            }
+        }
+
+        log.debug("Read {} sitemap URLs for {}", state.urlsRead, site);
+        registry.summary("jds.profile-finder.sitemap.urls-read").record(state.urlsRead);
+        return state.urlsRead;
+    }
+
+    /**
+     * @return how many candidate URLs readers should stop after, or 0 for no limit
+     */
+    public int getMaxCandidates() {
+        return maxCandidates;
+    }
+
+    /**
+     * @return the sitemaps named in the site's robots.txt, or the conventional location if it names none
+     */
+    private Set<String> findSiteMaps(URI site) {
+        Set<String> siteMaps = new LinkedHashSet<>();
+        String robots = site.resolve("/robots.txt").toString();
+        try (InputStream body = open(robots)) {
+            if (body != null) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (StringUtils.startsWithIgnoreCase(line.trim(), "sitemap:")) {
+                        String siteMap = StringUtils.substringAfter(line, ":").trim();
+                        if (!siteMap.isEmpty()) {
+                            siteMaps.add(site.resolve(siteMap).toString());
+                        }
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("Could not read sitemaps from {}", robots, e);
+        }
+
+        if (siteMaps.isEmpty()) {
+            siteMaps.add(site.resolve("/sitemap.xml").toString());
+        }
+        return siteMaps;
+    }
+
+    /**
+     * @return false if the consumer asked to stop reading
+     */
+    private boolean readSiteMap(String url, int depth, ReadState state) {
+        if (!state.visited.add(url)) {
+            return true;
+        }
+
+        List<String> children = new ArrayList<>();
+        try (InputStream body = open(url)) {
+            if (body == null) {
+                return true;
+            }
+
+            XMLStreamReader xml = xmlInputFactory.createXMLStreamReader(body);
+            try {
+                boolean inIndex = false;
+                while (xml.hasNext()) {
+                    if (xml.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+
+                    String name = xml.getLocalName();
+                    if (name.equals("sitemap")) {
+                        inIndex = true;
+                    } else if (name.equals("url")) {
+                        inIndex = false;
+                    } else if (name.equals("loc")) {
+                        String loc = xml.getElementText().trim();
+                        if (loc.isEmpty()) {
+                            continue;
+                        }
+                        if (inIndex) {
+                            // Index entries are read once this sitemap is done with, to not hold two open at once
+                            children.add(loc);
+                        } else {
+                            state.urlsRead++;
+                            if (!state.consumer.test(loc)) {
+                                registry.counter("jds.profile-finder.sitemap.fetches", "result", "stopped").increment();
+                                return false;
+                            }
+                        }
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+            registry.counter("jds.profile-finder.sitemap.fetches", "result", "success").increment();
+        } catch (IOException | XMLStreamException e) {
+            log.debug("Could not read sitemap {}", url, e);
+            registry.counter("jds.profile-finder.sitemap.fetches", "result", "failure").increment();
+        }
+
+        if (depth >= maxDepth) {
+            if (!children.isEmpty()) {
+                log.debug("Not following {} sitemaps in {} beyond max depth", children.size(), url);
+            }
+            return true;
+        }
+        for (String child : children) {
+            if (!readSiteMap(child, depth + 1, state)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Open a sitemap or robots.txt for reading, decompressing it if needed.
+     *
+     * @return the body, or null if there is no such file
+     */
+    private InputStream open(String url) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+
+        HttpResponse<InputStream> response;
+        try (FetchScheduler.Permit permit = scheduler != null ? scheduler.acquire(url) : null) {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching " + url, e);
+        }
+
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            response.body().close();
+            return null;
+        }
+
+        // Compressed sitemaps are served both with and without a gzip content encoding, so go by the content itself
+        BufferedInputStream body = new BufferedInputStream(response.body());
+        body.mark(2);
+        int first = body.read();
+        int second = body.read();
+        body.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new GZIPInputStream(body);
+        }
+        return body;
+    }
+
+    private static final class ReadState {
+        final Predicate<String> consumer;
+        final Set<String> visited = new HashSet<>();
+        long urlsRead;
+
+        ReadState(Predicate<String> consumer) {
+            this.consumer = consumer;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.aaejo.profilefinder.finder.configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param store     where institution checkpoints are kept
+ * @param directory directory to keep checkpoints in, for the file store
+ * @param ttl       how long a checkpoint can be resumed from
+ *
+ * @author Omri Harary
+ */
+@ConfigurationProperties("aaejo.jds.profile-finder.checkpoint")
+public record CheckpointProperties(@DefaultValue("file") Store store, @DefaultValue("checkpoints") Path directory,
+        @DefaultValue("1d") Duration ttl) {
+
+    public enum Store {
+        /** Nowhere, so every attempt at an institution starts from scratch */
+        NONE,
+        /** One file per institution in a local directory */
+        FILE
+    }
+}
@@ -1,10 +1,21 @@
 package io.github.aaejo.profilefinder.finder.configuration;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 /**
+ * @param offHostCrawlingAllowed    whether links to other hosts may be crawled
+ * @param offHostCrawlingWeight     weight multiplier for links to other hosts
+ * @param disallowedHosts           hosts that will never be crawled
+ * @param maxPages                  most pages a finder stage may fetch, or 0 for no limit
+ * @param maxDepth                  most links a finder stage may follow away from its starting page, or 0 for no limit
+ * @param deadline                  longest a finder stage may spend crawling, or unset for no limit
+ *
  * @author Omri Harary
  */
 @ConfigurationProperties("aaejo.jds.finder.crawling")
-public record CrawlingProperties(boolean offHostCrawlingAllowed, double offHostCrawlingWeight, String[] disallowedHosts) {
+public record CrawlingProperties(boolean offHostCrawlingAllowed, double offHostCrawlingWeight, String[] disallowedHosts,
+        @DefaultValue("0") int maxPages, @DefaultValue("0") int maxDepth, Duration deadline) {
 }
@@ -0,0 +1,26 @@
+package io.github.aaejo.profilefinder.finder.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param policy            when the crawling stages of the finders should stop before running out of links
+ * @param threshold         confidence at which {@link Policy#FIRST_OVER_THRESHOLD} stops
+ * @param patience          number of pages without improvement after which {@link Policy#NO_IMPROVEMENT} stops
+ * @param minimumConfidence confidence the best page must have before {@link Policy#NO_IMPROVEMENT} may stop
+ *
+ * @author Omri Harary
+ */
+@ConfigurationProperties("aaejo.jds.finder.early-termination")
+public record EarlyTerminationProperties(@DefaultValue("none") Policy policy, @DefaultValue("1.4") double threshold,
+        @DefaultValue("10") int patience, @DefaultValue("1.0") double minimumConfidence) {
+
+    public enum Policy {
+        /** Crawl until out of links (or budget) */
+        NONE,
+        /** Stop at the first page with at least the threshold confidence */
+        FIRST_OVER_THRESHOLD,
+        /** Stop once a good enough page has been found and the following pages have not improved on it */
+        NO_IMPROVEMENT
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.aaejo.profilefinder.finder.configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the fetch archive used by the {@code record} and {@code replay} profiles.
+ *
+ * @param directory         directory responses are recorded to and replayed from
+ * @param latency           how long every replayed request takes at least
+ * @param latencyJitter     most extra time, chosen uniformly at random, that a replayed request may take
+ *
+ * @author Omri Harary
+ */
+@ConfigurationProperties("aaejo.jds.finder.fetch-archive")
+public record FetchArchiveProperties(@DefaultValue("fetch-archive") Path directory,
+        @DefaultValue("0ms") Duration latency, @DefaultValue("0ms") Duration latencyJitter) {
+}
@@ -0,0 +1,32 @@
+package io.github.aaejo.profilefinder.finder.configuration;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param type              which HTTP client pages are fetched with
+ * @param connectTimeout    longest to wait for a connection, for the async backend
+ * @param requestTimeout    longest to wait for a response, for the async backend
+ * @param http2             whether the async backend tries HTTP/2 before HTTP/1.1
+ * @param userAgent         user agent the async backend sends, or unset for the default
+ * @param workerThreads     threads the async backend parses responses and checks robots.txt on
+ * @param robotsTtl         how long a host's robots.txt rules are kept, for the backends that check them themselves
+ * @param robotsMaxHosts    most hosts to keep robots.txt rules for at once
+ *
+ * @author Omri Harary
+ */
+@ConfigurationProperties("aaejo.jds.finder.fetch-backend")
+public record FetchBackendProperties(@DefaultValue("jsoup") Type type, @DefaultValue("10s") Duration connectTimeout,
+        @DefaultValue("30s") Duration requestTimeout, @DefaultValue("true") boolean http2, String userAgent,
+        @DefaultValue("8") int workerThreads, @DefaultValue("1d") Duration robotsTtl,
+        @DefaultValue("1024") int robotsMaxHosts) {
+
+    public enum Type {
+        /** Blocking fetches through a Jsoup session */
+        JSOUP,
+        /** Non-blocking fetches through the JDK HTTP client */
+        ASYNC
+    }
+}
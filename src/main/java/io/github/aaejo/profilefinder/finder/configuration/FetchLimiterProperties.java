@@ -0,0 +1,20 @@
+package io.github.aaejo.profilefinder.finder.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param adaptive          whether to learn each host's concurrency limit, rather than leaving fetches unlimited
+ * @param initialLimit      concurrent fetches a host starts out allowed
+ * @param minLimit          fewest concurrent fetches a host is ever allowed
+ * @param maxLimit          most concurrent fetches a host is ever allowed
+ * @param backoffRatio      factor a host's limit is multiplied by when it is overloaded
+ * @param latencyTolerance  how many times its usual latency a host may take before it counts as overloaded
+ *
+ * @author Omri Harary
+ */
+@ConfigurationProperties("aaejo.jds.finder.fetch-limiter")
+public record FetchLimiterProperties(@DefaultValue("false") boolean adaptive, @DefaultValue("2") int initialLimit,
+        @DefaultValue("1") int minLimit, @DefaultValue("8") int maxLimit, @DefaultValue("0.5") double backoffRatio,
+        @DefaultValue("3.0") double latencyTolerance) {
+}
@@ -0,0 +1,24 @@
+package io.github.aaejo.profilefinder.finder.configuration;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled               whether fetches are paced per host at all
+ * @param permitsPerSecond      rate fetches to a host may start at, or 0 for no limit
+ * @param burst                 most fetches to a host that may start at once after it has been idle
+ * @param maxConcurrentPerHost  most fetches to a host that may be in flight at once, or 0 for no limit
+ * @param maxConcurrent         most fetches that may be in flight at once across all hosts, or 0 for no limit
+ * @param crawlDelays           minimum delay between fetches to specific hosts, overriding the rate for them
+ *
+ * @author Omri Harary
+ */
+@ConfigurationProperties("aaejo.jds.finder.fetch-scheduler")
+public record FetchSchedulerProperties(@DefaultValue("true") boolean enabled,
+        @DefaultValue("2.0") double permitsPerSecond, @DefaultValue("4") int burst,
+        @DefaultValue("4") int maxConcurrentPerHost, @DefaultValue("0") int maxConcurrent,
+        Map<String, Duration> crawlDelays) {
+}
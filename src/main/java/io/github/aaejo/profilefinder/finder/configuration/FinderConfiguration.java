@@ -1,21 +1,52 @@
 package io.github.aaejo.profilefinder.finder.configuration;
 
+import java.time.Clock;
+import java.util.Set;
+
 import org.jsoup.Connection;
 import org.jsoup.Jsoup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 import io.github.aaejo.finder.client.FinderClient;
 import io.github.aaejo.finder.client.FinderClientProperties;
+import io.github.aaejo.profilefinder.finder.HostOutcomeCache;
+import io.github.aaejo.profilefinder.finder.ProfileHtmlMinifier;
+import io.github.aaejo.profilefinder.finder.checkpoint.CheckpointStore;
+import io.github.aaejo.profilefinder.finder.checkpoint.FileCheckpointStore;
+import io.github.aaejo.profilefinder.finder.client.AimdFetchLimiter;
+import io.github.aaejo.profilefinder.finder.client.AsyncFinderClient;
+import io.github.aaejo.profilefinder.finder.client.FetchArchive;
+import io.github.aaejo.profilefinder.finder.client.FetchLimiter;
+import io.github.aaejo.profilefinder.finder.client.FetchScheduler;
+import io.github.aaejo.profilefinder.finder.client.HtmlIngest;
+import io.github.aaejo.profilefinder.finder.client.IngestingFinderClient;
+import io.github.aaejo.profilefinder.finder.client.RecordingFinderClient;
+import io.github.aaejo.profilefinder.finder.client.ReplayFinderClient;
+import io.github.aaejo.profilefinder.finder.client.RobotsRules;
+import io.github.aaejo.profilefinder.finder.client.ScheduledAsyncFinderClient;
+import io.github.aaejo.profilefinder.finder.client.ScheduledFinderClient;
+import io.github.aaejo.profilefinder.finder.client.SiteMapReader;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * @author Omri Harary
  */
 @Configuration
-@EnableConfigurationProperties({ CrawlingProperties.class, DepartmentFinderProperties.class })
+@EnableConfigurationProperties({ CrawlingProperties.class, DepartmentFinderProperties.class, TemplateProbingProperties.class,
+        EarlyTerminationProperties.class, PageCacheProperties.class, FetchArchiveProperties.class,
+        FetchSchedulerProperties.class, FetchLimiterProperties.class, FetchBackendProperties.class,
+        HtmlIngestProperties.class, SiteMapProperties.class, HostOutcomeCacheProperties.class,
+        CheckpointProperties.class, ProfilePayloadProperties.class, PaginationProperties.class })
 public class FinderConfiguration {
+    private static final Logger log = LoggerFactory.getLogger(FinderConfiguration.class);
 
     @Bean
     @ConfigurationProperties("aaejo.jds.client")
@@ -24,13 +55,144 @@ public class FinderConfiguration {
     }
 
     @Bean
-    public FinderClient client(FinderClientProperties clientProperties) {
+    @Profile("!record & !replay")
+    public FinderClient client(FinderClientProperties clientProperties, FetchBackendProperties backendProperties,
+            HtmlIngestProperties ingestProperties, HtmlIngest ingest, ObjectProvider<FetchScheduler> scheduler) {
+        return scheduled(backend(newSession(), clientProperties, backendProperties, ingestProperties, ingest),
+                clientProperties, scheduler);
+    }
+
+    /**
+     * Fetches as normal, but also records every response to the fetch archive.
+     */
+    @Bean
+    @Profile("record & !replay")
+    public FinderClient recordingClient(FinderClientProperties clientProperties,
+            FetchBackendProperties backendProperties, HtmlIngestProperties ingestProperties, HtmlIngest ingest,
+            FetchArchiveProperties archiveProperties, ObjectProvider<FetchScheduler> scheduler) {
+        Connection session = newSession();
+        log.info("Recording fetched responses to {}", archiveProperties.directory().toAbsolutePath());
+        FinderClient recordingClient = new RecordingFinderClient(session, clientProperties,
+                backend(session, clientProperties, backendProperties, ingestProperties, ingest), new FetchArchive(archiveProperties.directory()));
+        return scheduled(recordingClient, clientProperties, scheduler);
+    }
+
+    /**
+     * Serves responses from the fetch archive instead of fetching them, for reproducible offline runs.
+     */
+    @Bean
+    @Profile("replay")
+    public FinderClient replayClient(FinderClientProperties clientProperties, FetchArchiveProperties archiveProperties,
+            ObjectProvider<FetchScheduler> scheduler, MeterRegistry registry) {
+        log.info("Replaying fetched responses from {}", archiveProperties.directory().toAbsolutePath());
+        FinderClient replayClient = new ReplayFinderClient(clientProperties,
+                new FetchArchive(archiveProperties.directory()), archiveProperties.latency(),
+                archiveProperties.latencyJitter(), registry);
+        return scheduled(replayClient, clientProperties, scheduler);
+    }
+
+    @Bean
+    public HtmlIngest htmlIngest(HtmlIngestProperties properties, MeterRegistry registry) {
+        if (!properties.enabled()) {
+            return new HtmlIngest(0, Set.of(), false, registry);
+        }
+        return new HtmlIngest(properties.maxBodySize().toBytes(), properties.droppedTags(), properties.dropDataUris(),
+                registry);
+    }
+
+    @Bean
+    public ProfileHtmlMinifier profileHtmlMinifier(ProfilePayloadProperties properties) {
+        return new ProfileHtmlMinifier(properties.level());
+    }
+
+    /**
+     * Streams sitemaps straight from their sites. Recording and replaying go through the client's sitemap fetching
+     * instead, so that sitemaps are archived along with pages.
+     */
+    @Bean
+    @Profile("!record & !replay")
+    @ConditionalOnProperty(name = "aaejo.jds.finder.sitemap.streaming", havingValue = "true", matchIfMissing = true)
+    public SiteMapReader siteMapReader(SiteMapProperties properties, ObjectProvider<FetchScheduler> scheduler,
+            MeterRegistry registry) {
+        return new SiteMapReader(properties.requestTimeout(), properties.maxDepth(), properties.maxCandidates(),
+                scheduler.getIfAvailable(), registry);
+    }
+
+    /**
+     * Lets retried and reprocessed institutions skip what earlier searches already ruled out. Not used when replaying,
+     * so that replays only depend on the fetch archive.
+     */
+    @Bean
+    @Profile("!replay")
+    @ConditionalOnProperty(name = "aaejo.jds.finder.host-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public HostOutcomeCache hostOutcomeCache(HostOutcomeCacheProperties properties, MeterRegistry registry) {
+        log.info("Caching host outcomes in {}", properties.directory().toAbsolutePath());
+        return new HostOutcomeCache(properties, registry);
+    }
+
+    @Bean
+    public CheckpointStore checkpointStore(CheckpointProperties properties) {
+        return switch (properties.store()) {
+            case FILE -> new FileCheckpointStore(properties.directory(), properties.ttl(), Clock.systemUTC());
+            case NONE -> CheckpointStore.NONE;
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "aaejo.jds.finder.fetch-scheduler.enabled", havingValue = "true", matchIfMissing = true)
+    public FetchScheduler fetchScheduler(FetchSchedulerProperties properties, MeterRegistry registry) {
+        return new FetchScheduler(properties.permitsPerSecond(), properties.burst(),
+                properties.maxConcurrentPerHost(), properties.maxConcurrent(), properties.crawlDelays(), registry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "aaejo.jds.finder.fetch-limiter.adaptive", havingValue = "true")
+    public FetchLimiter fetchLimiter(FetchLimiterProperties properties, MeterRegistry registry) {
+        return new AimdFetchLimiter(properties.initialLimit(), properties.minLimit(), properties.maxLimit(),
+                properties.backoffRatio(), properties.latencyTolerance(), registry);
+    }
+
+    /**
+     * The client that actually makes the HTTP requests, per the configured backend.
+     */
+    private static FinderClient backend(Connection session, FinderClientProperties clientProperties,
+            FetchBackendProperties backendProperties, HtmlIngestProperties ingestProperties, HtmlIngest ingest) {
+        return switch (backendProperties.type()) {
+            case ASYNC -> new AsyncFinderClient(session, clientProperties, backendProperties.connectTimeout(),
+                    backendProperties.requestTimeout(), backendProperties.http2(), backendProperties.userAgent(),
+                    backendProperties.workerThreads(), ingest, robotsRules(backendProperties));
+            case JSOUP -> ingestProperties.enabled()
+                    ? new IngestingFinderClient(session, clientProperties, ingest, robotsRules(backendProperties))
+                    : new FinderClient(session, clientProperties);
+        };
+    }
+
+    private static RobotsRules robotsRules(FetchBackendProperties backendProperties) {
+        return new RobotsRules(backendProperties.requestTimeout(), backendProperties.userAgent(),
+                backendProperties.robotsTtl(), backendProperties.robotsMaxHosts());
+    }
+
+    /**
+     * Put the client behind the fetch scheduler, if there is one. An async client's async fetches wait for their turns
+     * without blocking.
+     */
+    private static FinderClient scheduled(FinderClient client, FinderClientProperties clientProperties,
+            ObjectProvider<FetchScheduler> scheduler) {
+        FetchScheduler fetchScheduler = scheduler.getIfAvailable();
+        if (fetchScheduler == null) {
+            return client;
+        }
+        if (client instanceof AsyncFinderClient asyncClient) {
+            return new ScheduledAsyncFinderClient(newSession(), clientProperties, asyncClient, fetchScheduler);
+        }
+        return new ScheduledFinderClient(newSession(), clientProperties, client, fetchScheduler);
+    }
+
+    private static Connection newSession() {
         // Any client settings that should apply to all Jsoup connections
         // can be applied here
-        Connection session = Jsoup
+        return Jsoup
                 .newSession()
                 .ignoreHttpErrors(true); // We want to be able to inspect HTTP errors ourselves
-
-        return new FinderClient(session, clientProperties);
     }
 }
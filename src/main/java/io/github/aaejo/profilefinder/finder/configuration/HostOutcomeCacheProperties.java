@@ -0,0 +1,21 @@
+package io.github.aaejo.profilefinder.finder.configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled       whether outcomes of earlier searches of a host are cached at all
+ * @param directory     directory to keep the cache in
+ * @param templateTtl   how long a templated URL that was not the department site is skipped for
+ * @param siteMapTtl    how long sitemap candidates are reused for instead of reading the sitemaps again
+ *
+ * @author Omri Harary
+ */
+@ConfigurationProperties("aaejo.jds.finder.host-cache")
+public record HostOutcomeCacheProperties(@DefaultValue("true") boolean enabled,
+        @DefaultValue("host-cache") Path directory, @DefaultValue("7d") Duration templateTtl,
+        @DefaultValue("1d") Duration siteMapTtl) {
+}
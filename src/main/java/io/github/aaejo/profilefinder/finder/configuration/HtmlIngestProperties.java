@@ -0,0 +1,21 @@
+package io.github.aaejo.profilefinder.finder.configuration;
+
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * @param enabled       whether fetched bodies are bounded and pruned at all. Off by default, as with the Jsoup backend
+ *                      this also moves robots.txt checks from the finder client library to {@code RobotsRules}
+ * @param maxBodySize   most of a body to read, beyond which it is cut off, or 0 for no limit
+ * @param droppedTags   elements to drop from fetched pages, since nothing looks at them
+ * @param dropDataUris  whether to drop attributes holding inline data URIs from fetched pages
+ *
+ * @author Omri Harary
+ */
+@ConfigurationProperties("aaejo.jds.finder.ingest")
+public record HtmlIngestProperties(@DefaultValue("false") boolean enabled, @DefaultValue("5MB") DataSize maxBodySize,
+        @DefaultValue({ "script", "style", "svg" }) Set<String> droppedTags, @DefaultValue("true") boolean dropDataUris) {
+}
@@ -0,0 +1,15 @@
+package io.github.aaejo.profilefinder.finder.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * @param maxEntries    most URLs to keep fetched pages for, per institution
+ * @param maxSize       most (estimated) memory to use for fetched pages, per institution
+ *
+ * @author Omri Harary
+ */
+@ConfigurationProperties("aaejo.jds.finder.page-cache")
+public record PageCacheProperties(@DefaultValue("256") int maxEntries, @DefaultValue("64MB") DataSize maxSize) {
+}
@@ -0,0 +1,17 @@
+package io.github.aaejo.profilefinder.finder.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param pipelined         whether following pages of a faculty list are fetched while the current one is extracted,
+ *                          rather than each only once the page before it has been extracted
+ * @param maxPagesInFlight  most pages to be fetching or holding ahead of the page being extracted, when pipelined
+ * @param maxPages          most pages of a single faculty list to follow
+ *
+ * @author Omri Harary
+ */
+@ConfigurationProperties("aaejo.jds.profile-finder.pagination")
+public record PaginationProperties(@DefaultValue("false") boolean pipelined,
+        @DefaultValue("2") int maxPagesInFlight, @DefaultValue("100") int maxPages) {
+}
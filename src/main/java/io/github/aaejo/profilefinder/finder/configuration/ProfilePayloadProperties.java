@@ -0,0 +1,15 @@
+package io.github.aaejo.profilefinder.finder.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import io.github.aaejo.profilefinder.finder.ProfileHtmlMinifier;
+
+/**
+ * @param level how much of each profile's HTML to strip before publishing it
+ *
+ * @author Omri Harary
+ */
+@ConfigurationProperties("aaejo.jds.profile-finder.profiles.payload")
+public record ProfilePayloadProperties(@DefaultValue("semantic") ProfileHtmlMinifier.Level level) {
+}
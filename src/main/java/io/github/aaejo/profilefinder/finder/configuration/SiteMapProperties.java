@@ -0,0 +1,19 @@
+package io.github.aaejo.profilefinder.finder.configuration;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param streaming         whether sitemaps are streamed rather than fetched in full through the finder client
+ * @param maxCandidates     how many candidate URLs to queue from sitemaps before reading no further, or 0 for no limit
+ * @param maxDepth          how many levels of sitemap indexes to follow when streaming
+ * @param requestTimeout    longest to wait for each sitemap to start arriving when streaming
+ *
+ * @author Omri Harary
+ */
+@ConfigurationProperties("aaejo.jds.finder.sitemap")
+public record SiteMapProperties(@DefaultValue("true") boolean streaming, @DefaultValue("500") int maxCandidates,
+        @DefaultValue("3") int maxDepth, @DefaultValue("30s") Duration requestTimeout) {
+}
@@ -0,0 +1,15 @@
+package io.github.aaejo.profilefinder.finder.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param parallel              whether all templated URLs should be fetched at once rather than one after another
+ * @param maxConcurrentPerHost  maximum number of templated URLs on the same host to fetch at the same time
+ *
+ * @author Omri Harary
+ */
+@ConfigurationProperties("aaejo.jds.department-finder.template-probing")
+public record TemplateProbingProperties(@DefaultValue("false") boolean parallel,
+        @DefaultValue("3") int maxConcurrentPerHost) {
+}
@@ -0,0 +1,11 @@
+package io.github.aaejo.profilefinder.finder.exception;
+
+import io.github.aaejo.messaging.records.Institution;
+
+public class ProfilePublishFailedException extends RuntimeException {
+    private static final String MESSAGE_TEMPLATE = "Failed to publish %d of %d profiles from %s for %s";
+
+    public ProfilePublishFailedException(Institution institution, String url, int failed, int total, Throwable cause) {
+        super(String.format(MESSAGE_TEMPLATE, failed, total, url, institution.name()), cause);
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.aaejo.profilefinder.finder.exception;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.github.aaejo.messaging.records.Institution;
+
+public class StagePageFetchFailedException extends RuntimeException {
+    private static final String MESSAGE_TEMPLATE = "Could not reload page %s found for %s by the previous stage.";
+    private static final String BAD_RESPONSE_MESSAGE_TEMPLATE = MESSAGE_TEMPLATE + " Response status was [%d]";
+
+    public StagePageFetchFailedException(Institution institution, String url, FinderClientResponse response) {
+        super(response != null && response.status() != -1
+                ? String.format(BAD_RESPONSE_MESSAGE_TEMPLATE, url, institution.name(), response.status())
+                : String.format(MESSAGE_TEMPLATE, url, institution.name()));
+
+        if (response != null && response.exception().isPresent()) {
+            this.initCause(response.exception().get());
+        }
+    }
+}
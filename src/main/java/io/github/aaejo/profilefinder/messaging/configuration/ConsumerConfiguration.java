@@ -1,32 +1,86 @@
 package io.github.aaejo.profilefinder.messaging.configuration;
 
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.CommonErrorHandler;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.BackOff;
 import org.springframework.util.backoff.FixedBackOff;
 
 import io.github.aaejo.profilefinder.finder.exception.InstitutionLocaleInvalidException;
 import io.github.aaejo.profilefinder.finder.exception.NoProfilesFoundException;
+import io.github.aaejo.profilefinder.messaging.consumer.InstitutionWorkerPool;
+import io.github.aaejo.profilefinder.messaging.consumer.InstitutionsListener;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * @author Omri Harary
  */
 @Configuration
+@EnableConfigurationProperties(WorkerPoolProperties.class)
 public class ConsumerConfiguration {
 
+    // Do not retry when the institution language cannot be handled
+    private static final List<Class<? extends Exception>> NOT_RETRYABLE = List.of(
+            InstitutionLocaleInvalidException.class, NoProfilesFoundException.class);
+
+    // Kafka's default, as polls are not held up by processing when the worker pool is on
+    private static final int WORKER_POOL_MAX_POLL_INTERVAL_MS = 300_000;
+
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterRecoverer(KafkaTemplate<Object, Object> template) {
+        return new DeadLetterPublishingRecoverer(template);
+    }
+
     @Bean
-    public CommonErrorHandler errorHandler(KafkaTemplate<Object, Object> template) {
+    public CommonErrorHandler errorHandler(DeadLetterPublishingRecoverer deadLetterRecoverer) {
         // Institutions that fail to process will be retried once after waiting for 2
         // seconds. If they fail again, they will be sent to a dead-letter topic.
-        DefaultErrorHandler handler = new DefaultErrorHandler(new DeadLetterPublishingRecoverer(template),
-                new FixedBackOff(2000L, 1L));
-        // Do not retry when the institution language cannot be handled
-        handler.addNotRetryableExceptions(InstitutionLocaleInvalidException.class);
-        handler.addNotRetryableExceptions(NoProfilesFoundException.class);
+        DefaultErrorHandler handler = new DefaultErrorHandler(deadLetterRecoverer, retryBackOff());
+        NOT_RETRYABLE.forEach(handler::addNotRetryableExceptions);
 
         return handler;
     }
+
+    /**
+     * Processes institutions off the listener thread, retrying and dead-lettering them like {@link #errorHandler}.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "aaejo.jds.profile-finder.listener.worker-pool.enabled", havingValue = "true")
+    public InstitutionWorkerPool institutionWorkerPool(WorkerPoolProperties properties,
+            KafkaListenerEndpointRegistry endpointRegistry, DeadLetterPublishingRecoverer deadLetterRecoverer,
+            MeterRegistry registry) {
+        return new InstitutionWorkerPool(InstitutionsListener.LISTENER_ID, properties.size(), endpointRegistry,
+                deadLetterRecoverer, retryBackOff(), NOT_RETRYABLE, registry);
+    }
+
+    /**
+     * Keeps each poll to no more records than the worker pool can run at once, so that few records queue behind a
+     * full pool before the container is paused.
+     * <p>
+     * The listener thread keeps polling while the pool works, so the poll interval goes back to Kafka's default in
+     * place of the long one that processing on the listener thread needs.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "aaejo.jds.profile-finder.listener.worker-pool.enabled", havingValue = "true")
+    public DefaultKafkaConsumerFactoryCustomizer workerPoolPollSize(WorkerPoolProperties properties) {
+        return consumerFactory -> consumerFactory.updateConfigs(Map.of(
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG, properties.size(),
+                ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, WORKER_POOL_MAX_POLL_INTERVAL_MS));
+    }
+
+    private static BackOff retryBackOff() {
+        return new FixedBackOff(2000L, 1L);
+    }
 }
@@ -0,0 +1,12 @@
+package io.github.aaejo.profilefinder.messaging.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author Omri Harary
+ */
+@Configuration
+@EnableConfigurationProperties(ProfilePublishingProperties.class)
+public class ProducerConfiguration {
+}
@@ -0,0 +1,21 @@
+package io.github.aaejo.profilefinder.messaging.configuration;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * @param compression   compression codec for published profiles, any the Kafka producer supports
+ * @param linger        how long the producer waits for more profiles before sending a batch
+ * @param batchSize     largest batch of profiles the producer sends to a partition at once
+ * @param sendTimeout   longest to wait for a page's profiles to be acknowledged
+ *
+ * @author Omri Harary
+ */
+@ConfigurationProperties("aaejo.jds.profile-finder.profiles.publishing")
+public record ProfilePublishingProperties(@DefaultValue("lz4") String compression,
+        @DefaultValue("20ms") Duration linger, @DefaultValue("256KB") DataSize batchSize,
+        @DefaultValue("30s") Duration sendTimeout) {
+}
@@ -29,6 +29,40 @@ public class TopicConfiguration {
                 .build();
     }
 
+    /**
+     * Department sites found by the first stage, when running in staged pipeline mode
+     */
+    @Bean
+    public NewTopic departmentsTopic() {
+        return TopicBuilder
+                .name("departments")
+                .build();
+    }
+
+    @Bean
+    public NewTopic departmentsDLT() {
+        return TopicBuilder
+                .name("departments.DLT")
+                .build();
+    }
+
+    /**
+     * Faculty lists found by the first two stages, when running in staged pipeline mode
+     */
+    @Bean
+    public NewTopic facultyListsTopic() {
+        return TopicBuilder
+                .name("faculty-lists")
+                .build();
+    }
+
+    @Bean
+    public NewTopic facultyListsDLT() {
+        return TopicBuilder
+                .name("faculty-lists.DLT")
+                .build();
+    }
+
     @Bean
     public NewTopic profilesTopic() {
         return TopicBuilder
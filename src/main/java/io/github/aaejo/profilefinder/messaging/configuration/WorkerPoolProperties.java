@@ -0,0 +1,15 @@
+package io.github.aaejo.profilefinder.messaging.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled   whether institutions are processed on a worker pool instead of the listener thread, in which case
+ *                  the consumer's {@code max.poll.interval.ms} override is replaced by Kafka's default
+ * @param size      how many institutions are processed at once
+ *
+ * @author Omri Harary
+ */
+@ConfigurationProperties("aaejo.jds.profile-finder.listener.worker-pool")
+public record WorkerPoolProperties(@DefaultValue("false") boolean enabled, @DefaultValue("4") int size) {
+}
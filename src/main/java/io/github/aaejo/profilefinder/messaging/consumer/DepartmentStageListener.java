@@ -0,0 +1,90 @@
+package io.github.aaejo.profilefinder.messaging.consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.github.aaejo.messaging.records.Institution;
+import io.github.aaejo.profilefinder.finder.DepartmentFinder;
+import io.github.aaejo.profilefinder.finder.FacultyFinder;
+import io.github.aaejo.profilefinder.finder.PageCache;
+import io.github.aaejo.profilefinder.finder.SearchContext;
+import io.github.aaejo.profilefinder.finder.configuration.PageCacheProperties;
+import io.github.aaejo.profilefinder.messaging.producer.StageResultsProducer;
+import io.github.aaejo.profilefinder.messaging.records.DepartmentFound;
+import io.github.aaejo.profilefinder.messaging.records.FacultyListFound;
+
+/**
+ * First stage of the staged pipeline mode: finds the department site of each institution and hands it on to
+ * {@link FacultyStageListener}. Institutions whose given page is already a faculty list skip straight to
+ * {@link ProfileStageListener}.
+ *
+ * @author Omri Harary
+ */
+@Component
+@ConditionalOnProperty(name = "aaejo.jds.profile-finder.pipeline.mode", havingValue = "staged")
+@KafkaListener(id = "profile-finder-department", topics = "institutions",
+        concurrency = "${aaejo.jds.profile-finder.pipeline.department-concurrency:1}")
+public class DepartmentStageListener {
+    private static final Logger log = LoggerFactory.getLogger(DepartmentStageListener.class);
+
+    @Autowired
+    KafkaTemplate<String, SimpleDebugData> debugTemplate;
+
+    private final DepartmentFinder departmentFinder;
+    private final FacultyFinder facultyFinder;
+    private final InstitutionPageLoader pageLoader;
+    private final PageCacheProperties pageCacheProperties;
+    private final StageResultsProducer producer;
+
+    public DepartmentStageListener(DepartmentFinder departmentFinder, FacultyFinder facultyFinder,
+            InstitutionPageLoader pageLoader, PageCacheProperties pageCacheProperties, StageResultsProducer producer) {
+        this.departmentFinder = departmentFinder;
+        this.facultyFinder = facultyFinder;
+        this.pageLoader = pageLoader;
+        this.pageCacheProperties = pageCacheProperties;
+        this.producer = producer;
+    }
+
+    @KafkaHandler
+    public void handle(Institution institution, Acknowledgment ack) {
+        log.info("Finding department for {} ({})", institution.name(), institution.country());
+        log.debug(institution.toString());
+
+        FinderClientResponse initialPage = pageLoader.loadInitialPage(institution);
+        FinderClientResponse page = initialPage;
+        ack.acknowledge();
+
+        SearchContext context = new SearchContext(institution, new PageCache(pageCacheProperties));
+        context.getPageCache().put(institution.website(), page);
+
+        // The initial page is handed on as the institution's own website, so that the next stage reloads it the same
+        // way it was first loaded, even if that redirected
+        double foundFacultyList = facultyFinder.foundFacultyList(page);
+        if (foundFacultyList >= 1.4) { // Some institutions may already have the faculty page identified
+            producer.send(new FacultyListFound(institution, institution.website(), foundFacultyList));
+            return;
+        }
+
+        double foundDepartmentSite = departmentFinder.foundDepartmentSite(context, page);
+        if (foundDepartmentSite < 1.4) { // Some institutions may already have the department page identified
+            page = departmentFinder.findDepartmentSite(context, page, foundDepartmentSite);
+            foundDepartmentSite = departmentFinder.foundDepartmentSite(context, page);
+        }
+
+        if (context.getDepartmentDebugData() == null) // Means the finder didn't run
+            debugTemplate.send("department.debug", institution.name(), new SimpleDebugData(institution, page.location(), foundDepartmentSite));
+
+        producer.send(new DepartmentFound(institution,
+                page == initialPage ? institution.website() : page.location(), foundDepartmentSite));
+        log.info("Department site for {} found at {} after {} fetches", institution.name(), page.location(),
+                context.getFetchCount());
+    }
+}
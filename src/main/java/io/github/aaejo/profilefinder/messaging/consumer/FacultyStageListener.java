@@ -0,0 +1,75 @@
+package io.github.aaejo.profilefinder.messaging.consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.github.aaejo.messaging.records.Institution;
+import io.github.aaejo.profilefinder.finder.FacultyFinder;
+import io.github.aaejo.profilefinder.finder.PageCache;
+import io.github.aaejo.profilefinder.finder.SearchContext;
+import io.github.aaejo.profilefinder.finder.configuration.PageCacheProperties;
+import io.github.aaejo.profilefinder.messaging.producer.StageResultsProducer;
+import io.github.aaejo.profilefinder.messaging.records.DepartmentFound;
+import io.github.aaejo.profilefinder.messaging.records.FacultyListFound;
+
+/**
+ * Second stage of the staged pipeline mode: finds the faculty list from each department site found by
+ * {@link DepartmentStageListener} and hands it on to {@link ProfileStageListener}.
+ *
+ * @author Omri Harary
+ */
+@Component
+@ConditionalOnProperty(name = "aaejo.jds.profile-finder.pipeline.mode", havingValue = "staged")
+@KafkaListener(id = "profile-finder-faculty", topics = StageResultsProducer.DEPARTMENTS_TOPIC,
+        concurrency = "${aaejo.jds.profile-finder.pipeline.faculty-concurrency:1}")
+public class FacultyStageListener {
+    private static final Logger log = LoggerFactory.getLogger(FacultyStageListener.class);
+
+    @Autowired
+    KafkaTemplate<String, SimpleDebugData> debugTemplate;
+
+    private final FacultyFinder facultyFinder;
+    private final InstitutionPageLoader pageLoader;
+    private final PageCacheProperties pageCacheProperties;
+    private final StageResultsProducer producer;
+
+    public FacultyStageListener(FacultyFinder facultyFinder, InstitutionPageLoader pageLoader,
+            PageCacheProperties pageCacheProperties, StageResultsProducer producer) {
+        this.facultyFinder = facultyFinder;
+        this.pageLoader = pageLoader;
+        this.pageCacheProperties = pageCacheProperties;
+        this.producer = producer;
+    }
+
+    @KafkaHandler
+    public void handle(DepartmentFound department, Acknowledgment ack) {
+        Institution institution = department.institution();
+        log.info("Finding faculty list for {} from {}", institution.name(), department.url());
+
+        FinderClientResponse page = pageLoader.loadStagePage(institution, department.url());
+        ack.acknowledge();
+
+        SearchContext context = new SearchContext(institution, new PageCache(pageCacheProperties));
+        context.getPageCache().put(department.url(), page);
+
+        double foundFacultyList = facultyFinder.foundFacultyList(page);
+        if (foundFacultyList < 1.4) {
+            page = facultyFinder.findFacultyList(context, page, foundFacultyList);
+        }
+
+        if (context.getFacultyDebugData() == null) // Means the finder didn't run
+            debugTemplate.send("faculty.debug", institution.name(), new SimpleDebugData(institution, page.location(), foundFacultyList));
+
+        producer.send(new FacultyListFound(institution, page.location(), facultyFinder.foundFacultyList(page)));
+        log.info("Faculty list for {} found at {} after {} fetches", institution.name(), page.location(),
+                context.getFetchCount());
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.aaejo.profilefinder.messaging.consumer;
+
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import io.github.aaejo.finder.client.FinderClient;
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.github.aaejo.messaging.records.Institution;
+import io.github.aaejo.profilefinder.finder.UrlCanonicalizer;
+import io.github.aaejo.profilefinder.finder.exception.InitialFetchFailedException;
+import io.github.aaejo.profilefinder.finder.exception.InstitutionLocaleInvalidException;
+import io.github.aaejo.profilefinder.finder.exception.StagePageFetchFailedException;
+
+/**
+ * Loads the page each listener starts its work on, shared between the single and staged listeners.
+ *
+ * @author Omri Harary
+ */
+@Component
+public class InstitutionPageLoader {
+    private static final Logger log = LoggerFactory.getLogger(InstitutionPageLoader.class);
+
+    private final FinderClient client;
+
+    public InstitutionPageLoader(FinderClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Load the institution's own page, checking that it can be processed at all.
+     */
+    public FinderClientResponse loadInitialPage(Institution institution) {
+        // Allow ignoring robots.txt rules on this one, because it's the initial page load.
+        // This will either be the institution home page, or one that has been manually identified for use.
+        FinderClientResponse page = client.get(institution.website(), false);
+
+        if (page == null) {
+            log.error("Failed to load site for {}", institution.name());
+            throw new InitialFetchFailedException(institution);
+        } else if (!page.isSuccess()) {
+            log.error("Failed to load site for {}", institution.name());
+            throw new InitialFetchFailedException(institution, page);
+        }
+
+        Locale siteLocale = Locale.forLanguageTag(page.document().getElementsByTag("html").first().attr("lang"));
+        if (StringUtils.isNotBlank(siteLocale.getLanguage()) // Despite being required, sometimes a locale isn't set
+                                                             // however we are only targeting primarily English-speaking
+                                                             // countries and as such will assume an unset language
+                                                             // is English.
+                && !siteLocale.getLanguage().equals(Locale.ENGLISH.getLanguage())) {
+            // If the language is set and it's not English, we throw and skip this institution
+            log.error("Unable to process non-English websites. {} site's language is {}", institution.name(),
+                    siteLocale.getDisplayLanguage());
+            throw new InstitutionLocaleInvalidException(institution, siteLocale);
+        }
+
+        return page;
+    }
+
+    /**
+     * Load a page found for the institution by an earlier attempt or an earlier stage. The initial page checks were
+     * already passed by whatever found it.
+     *
+     * @return the page, or null if it could not be loaded
+     */
+    public FinderClientResponse loadFoundPage(Institution institution, String url) {
+        FinderClientResponse page = reload(institution, url);
+        if (page == null || !page.isSuccess() || page.document() == null) {
+            log.warn("Failed to load page {} found for {}", url, institution.name());
+            return null;
+        }
+        return page;
+    }
+
+    /**
+     * Load the page an earlier stage handed on, failing the record if it cannot be loaded so that it is retried.
+     */
+    public FinderClientResponse loadStagePage(Institution institution, String url) {
+        FinderClientResponse page = reload(institution, url);
+        if (page == null || !page.isSuccess() || page.document() == null) {
+            log.error("Failed to load page {} found for {}", url, institution.name());
+            throw new StagePageFetchFailedException(institution, url, page);
+        }
+        return page;
+    }
+
+    /**
+     * Fetch a page again. The institution's own page was first loaded regardless of robots.txt, so it is reloaded the
+     * same way, rather than failing at a later stage or attempt when robots.txt disallows it.
+     */
+    private FinderClientResponse reload(Institution institution, String url) {
+        boolean initialPage = UrlCanonicalizer.canonicalize(url)
+                .equals(UrlCanonicalizer.canonicalize(institution.website()));
+        return client.get(url, !initialPage);
+    }
+}
@@ -0,0 +1,190 @@
+package io.github.aaejo.profilefinder.messaging.consumer;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs listener work on a pool of worker threads, so that the listener thread can go straight back to polling and a
+ * long crawl never holds up the consumer past {@code max.poll.interval.ms}.
+ * <p>
+ * Once as many records are in flight as there are workers, the whole listener container is paused, so that the
+ * consumer keeps polling, and committing, without being handed any more records. It is resumed as soon as a worker
+ * frees up. Records already returned by the poll that filled the pool are still handed over and queue for a worker,
+ * so {@code max.poll.records} should be no more than the pool size to keep that queue short.
+ * <p>
+ * A record is only acknowledged once its work is done, and the records of each partition are acknowledged in offset
+ * order, so a commit never moves past a record whose work is still running. Acknowledgements made here are committed
+ * by the consumer thread on its next poll.
+ * <p>
+ * Failed work is retried, and then recovered, the same way the container's error handler would have done it had the
+ * work run on the listener thread.
+ *
+ * @author Omri Harary
+ */
+public class InstitutionWorkerPool {
+    private static final Logger log = LoggerFactory.getLogger(InstitutionWorkerPool.class);
+
+    private final String listenerId;
+    private final int size;
+    private final ExecutorService executor;
+    private final KafkaListenerEndpointRegistry endpointRegistry;
+    private final ConsumerRecordRecoverer recoverer;
+    private final BackOff backOff;
+    private final Collection<Class<? extends Exception>> notRetryable;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /** Records of each partition not yet acknowledged, in offset order */
+    private final Map<TopicPartition, ArrayDeque<PendingRecord>> pending = new HashMap<>();
+    private boolean paused;
+
+    /**
+     * @param listenerId        id of the listener container to pause while the pool is full
+     * @param size              how many records' work can run at once
+     * @param endpointRegistry  registry to find the listener container in
+     * @param recoverer         recoverer for records whose work failed for good
+     * @param backOff           how often, and how long apart, failed work is retried
+     * @param notRetryable      exceptions that are recovered from without retrying
+     * @param registry          registry for worker pool metrics
+     */
+    public InstitutionWorkerPool(String listenerId, int size, KafkaListenerEndpointRegistry endpointRegistry,
+            ConsumerRecordRecoverer recoverer, BackOff backOff, List<Class<? extends Exception>> notRetryable,
+            MeterRegistry registry) {
+        this.listenerId = listenerId;
+        this.size = size;
+        this.endpointRegistry = endpointRegistry;
+        this.recoverer = recoverer;
+        this.backOff = backOff;
+        this.notRetryable = notRetryable;
+
+        AtomicInteger threads = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "institution-worker-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = Executors.newFixedThreadPool(size, threadFactory);
+
+        registry.gauge("jds.profile-finder.worker-pool.in-flight", inFlight);
+    }
+
+    /**
+     * Hand a record's work to the pool, pausing the listener container if that fills the pool.
+     *
+     * @param record        record the work is for
+     * @param ack           acknowledgement for the record, acknowledged once the work, and that of every earlier
+     *                      record from the same partition, is done
+     * @param work          processing of the record
+     */
+    public void submit(ConsumerRecord<?, ?> record, Acknowledgment ack, Runnable work) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        MessageListenerContainer container = endpointRegistry.getListenerContainer(listenerId);
+        PendingRecord pendingRecord = new PendingRecord(ack);
+
+        boolean pause;
+        synchronized (this) {
+            pending.computeIfAbsent(partition, key -> new ArrayDeque<>()).add(pendingRecord);
+            pause = inFlight.incrementAndGet() >= size && !paused;
+            paused |= pause;
+        }
+        if (pause) {
+            log.debug("All {} workers busy, pausing {}", size, listenerId);
+            container.pause();
+        }
+
+        executor.execute(() -> {
+            try {
+                runWithRetries(record, work);
+            } finally {
+                finished(container, partition, pendingRecord);
+            }
+        });
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void runWithRetries(ConsumerRecord<?, ?> record, Runnable work) {
+        BackOffExecution backOffExecution = backOff.start();
+        while (true) {
+            try {
+                work.run();
+                return;
+            } catch (RuntimeException e) {
+                long wait = isRetryable(e) ? backOffExecution.nextBackOff() : BackOffExecution.STOP;
+                if (wait == BackOffExecution.STOP) {
+                    log.error("Processing failed for {}-{}@{}, recovering", record.topic(), record.partition(),
+                            record.offset(), e);
+                    recoverer.accept(record, e);
+                    return;
+                }
+
+                log.warn("Processing failed for {}-{}@{}, retrying in {}ms", record.topic(), record.partition(),
+                        record.offset(), wait, e);
+                try {
+                    Thread.sleep(wait);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    recoverer.accept(record, e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean isRetryable(Exception e) {
+        return notRetryable.stream().noneMatch(type -> type.isInstance(e));
+    }
+
+    private void finished(MessageListenerContainer container, TopicPartition partition, PendingRecord finished) {
+        boolean resume;
+        synchronized (this) {
+            finished.done = true;
+            ArrayDeque<PendingRecord> records = pending.get(partition);
+            // Acknowledging only queues the commit for the consumer thread, so it is cheap to do under the lock,
+            // which keeps each partition's acknowledgements in order
+            while (!records.isEmpty() && records.peek().done) {
+                records.poll().ack.acknowledge();
+            }
+            if (records.isEmpty()) {
+                pending.remove(partition);
+            }
+
+            resume = inFlight.decrementAndGet() < size && paused;
+            paused &= !resume;
+        }
+        if (resume) {
+            log.debug("Worker free, resuming {}", listenerId);
+            container.resume();
+        }
+    }
+
+    private static final class PendingRecord {
+        final Acknowledgment ack;
+        boolean done;
+
+        PendingRecord(Acknowledgment ack) {
+            this.ack = ack;
+        }
+    }
+}
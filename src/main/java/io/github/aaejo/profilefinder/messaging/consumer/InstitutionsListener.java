@@ -1,33 +1,43 @@
 package io.github.aaejo.profilefinder.messaging.consumer;
 
-import java.util.Locale;
-
-import org.apache.commons.lang3.StringUtils;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaHandler;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
-import io.github.aaejo.finder.client.FinderClient;
 import io.github.aaejo.finder.client.FinderClientResponse;
 import io.github.aaejo.messaging.records.Institution;
 import io.github.aaejo.profilefinder.finder.DepartmentFinder;
 import io.github.aaejo.profilefinder.finder.FacultyFinder;
+import io.github.aaejo.profilefinder.finder.PageCache;
 import io.github.aaejo.profilefinder.finder.ProfileFinder;
-import io.github.aaejo.profilefinder.finder.exception.InitialFetchFailedException;
-import io.github.aaejo.profilefinder.finder.exception.InstitutionLocaleInvalidException;
+import io.github.aaejo.profilefinder.finder.ProfileSearchResult;
+import io.github.aaejo.profilefinder.finder.SearchContext;
+import io.github.aaejo.profilefinder.finder.checkpoint.CheckpointStore;
+import io.github.aaejo.profilefinder.finder.checkpoint.StageCheckpoint;
+import io.github.aaejo.profilefinder.finder.configuration.PageCacheProperties;
+import io.github.aaejo.profilefinder.finder.exception.NoProfilesFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
+ * Processes each institution from start to finish on one consumer thread. This is the default pipeline mode; see
+ * {@link DepartmentStageListener} for the staged one.
+ *
  * @author Omri Harary
  */
 @Component
-@KafkaListener(id = "profile-finder", topics = "institutions")
+@ConditionalOnProperty(name = "aaejo.jds.profile-finder.pipeline.mode", havingValue = "single", matchIfMissing = true)
+@KafkaListener(id = InstitutionsListener.LISTENER_ID, topics = "institutions",
+        concurrency = "${aaejo.jds.profile-finder.listener.concurrency:1}")
 public class InstitutionsListener {
     private static final Logger log = LoggerFactory.getLogger(InstitutionsListener.class);
+    public static final String LISTENER_ID = "profile-finder";
 
     @Autowired
     KafkaTemplate<String, SimpleDebugData> debugTemplate;
@@ -35,79 +45,130 @@ public class InstitutionsListener {
     private final DepartmentFinder departmentFinder;
     private final FacultyFinder facultyFinder;
     private final ProfileFinder profileFinder;
-    private final FinderClient client;
+    private final InstitutionPageLoader pageLoader;
+    private final PageCacheProperties pageCacheProperties;
+    private final CheckpointStore checkpointStore;
+    private final MeterRegistry registry;
+    private InstitutionWorkerPool workerPool;
 
     public InstitutionsListener(DepartmentFinder departmentFinder, FacultyFinder facultyFinder,
-            ProfileFinder profileFinder, FinderClient client) {
+            ProfileFinder profileFinder, InstitutionPageLoader pageLoader, PageCacheProperties pageCacheProperties,
+            CheckpointStore checkpointStore, MeterRegistry registry) {
         this.departmentFinder = departmentFinder;
         this.facultyFinder = facultyFinder;
         this.profileFinder = profileFinder;
-        this.client = client;
+        this.pageLoader = pageLoader;
+        this.pageCacheProperties = pageCacheProperties;
+        this.checkpointStore = checkpointStore;
+        this.registry = registry;
+    }
+
+    @Autowired(required = false)
+    public void setWorkerPool(InstitutionWorkerPool workerPool) {
+        this.workerPool = workerPool;
     }
 
     @KafkaHandler
-    public void handle(Institution institution, Acknowledgment ack) {
+    public void handle(Institution institution, ConsumerRecord<String, Institution> record, Acknowledgment ack) {
+        if (workerPool != null) {
+            // The record is acknowledged once processing is done instead, so there is nothing to acknowledge early
+            workerPool.submit(record, ack, () -> process(institution, () -> {}));
+        } else {
+            process(institution, ack);
+        }
+    }
+
+    private void process(Institution institution, Acknowledgment ack) {
         log.info("Processing {} ({})", institution.name(), institution.country());
         log.debug(institution.toString());
 
-        // Allow ignoring robots.txt rules on this one, because it's the initial page load.
-        // This will either be the institution home page, or one that has been manually identified for use.
-        FinderClientResponse page = client.get(institution.website(), false);
-
+        // A retried institution picks up from the last stage it finished, if the page found by that stage still loads
+        StageCheckpoint checkpoint = checkpointStore.load(institution).orElse(null);
+        FinderClientResponse page = checkpoint != null ? loadCheckpointedPage(institution, checkpoint) : null;
         if (page == null) {
-            log.error("Failed to load site for {}", institution.name());
-            throw new InitialFetchFailedException(institution);
-        } else if (!page.isSuccess()) {
-            log.error("Failed to load site for {}", institution.name());
-            throw new InitialFetchFailedException(institution, page);
-        }
-
-        Locale siteLocale = Locale.forLanguageTag(page.document().getElementsByTag("html").first().attr("lang"));
-        if (StringUtils.isNotBlank(siteLocale.getLanguage()) // Despite being required, sometimes a locale isn't set
-                                                             // however we are only targeting primarily English-speaking
-                                                             // countries and as such will assume an unset language
-                                                             // is English.
-                && !siteLocale.getLanguage().equals(Locale.ENGLISH.getLanguage())) {
-            // If the language is set and it's not English, we throw and skip this institution
-            log.error("Unable to process non-English websites. {} site's language is {}", institution.name(),
-                    siteLocale.getDisplayLanguage());
-            throw new InstitutionLocaleInvalidException(institution, siteLocale);
+            checkpoint = null;
+            page = pageLoader.loadInitialPage(institution);
         }
 
         ack.acknowledge();
 
-        double foundFacultyList = facultyFinder.foundFacultyList(page);
-        if (foundFacultyList < 1.4) { // Some institutions may already have the faculty page identified
-            double foundDepartmentSite = departmentFinder.foundDepartmentSite(page);
-            if (foundDepartmentSite < 1.4) { // Some institutions may already have the department page identified
-                // Find department site
-                page = departmentFinder.findDepartmentSite(institution, page, foundDepartmentSite);
-                // Re-calculate faculty list confidence because page changed
-                foundFacultyList = facultyFinder.foundFacultyList(page);
+        // All per-institution state lives in the context, so that the finders can be shared between consumer threads
+        SearchContext context = new SearchContext(institution, new PageCache(pageCacheProperties));
+        context.getPageCache().put(checkpoint != null ? checkpoint.resumeUrl() : institution.website(), page);
+
+        double foundFacultyList;
+        if (checkpoint != null && checkpoint.hasFacultyList()) {
+            log.info("Resuming {} from faculty list {}", institution.name(), page.location());
+            registry.counter("jds.profile-finder.checkpoint.resumed", "stage", "profiles").increment();
+            foundFacultyList = checkpoint.facultyListConfidence();
+        } else {
+            foundFacultyList = facultyFinder.foundFacultyList(page);
+            if (foundFacultyList < 1.4) { // Some institutions may already have the faculty page identified
+                if (checkpoint != null) {
+                    log.info("Resuming {} from department site {}", institution.name(), page.location());
+                    registry.counter("jds.profile-finder.checkpoint.resumed", "stage", "faculty").increment();
+                } else {
+                    double foundDepartmentSite = departmentFinder.foundDepartmentSite(context, page);
+                    if (foundDepartmentSite < 1.4) { // Some institutions may already have the department page identified
+                        // Find department site
+                        page = departmentFinder.findDepartmentSite(context, page, foundDepartmentSite);
+                        // Re-calculate faculty list confidence because page changed
+                        foundFacultyList = facultyFinder.foundFacultyList(page);
+                    }
+
+                    if (context.getDepartmentDebugData() == null) // Means the finder didn't run
+                        debugTemplate.send("department.debug", institution.name(), new SimpleDebugData(institution, page.location(), foundDepartmentSite));
+
+                    checkpoint = StageCheckpoint.department(page.location(),
+                            departmentFinder.foundDepartmentSite(context, page), System.currentTimeMillis());
+                    checkpointStore.save(institution, checkpoint);
+                }
+
+                // Find faculty list
+                page = facultyFinder.findFacultyList(context, page, foundFacultyList);
             }
 
-            if (departmentFinder.debugData == null) // Means the finder didn't run
-                debugTemplate.send("department.debug", institution.name(), new SimpleDebugData(institution, page.location(), foundDepartmentSite));
-            else
-                departmentFinder.debugData = null;
-
-            // Find faculty list
-            page = facultyFinder.findFacultyList(institution, page, foundFacultyList);
-        }
+            // Maybe try to find more accurate department mailing address in here somewhere?
 
-        // Maybe try to find more accurate department mailing address in here somewhere?
+            if (context.getFacultyDebugData() == null) // Means the finder didn't run
+                debugTemplate.send("faculty.debug", institution.name(), new SimpleDebugData(institution, page.location(), foundFacultyList));
 
-        if (facultyFinder.debugData == null) // Means the finder didn't run
-            debugTemplate.send("faculty.debug", institution.name(), new SimpleDebugData(institution, page.location(), foundFacultyList));
-        else
-            facultyFinder.debugData = null;
+            double facultyListConfidence = facultyFinder.foundFacultyList(page);
+            checkpoint = checkpoint != null
+                    ? checkpoint.withFacultyList(page.location(), facultyListConfidence, System.currentTimeMillis())
+                    : new StageCheckpoint(null, Double.NaN, page.location(), facultyListConfidence,
+                            System.currentTimeMillis());
+            checkpointStore.save(institution, checkpoint);
+        }
 
         // Find profiles from faculty list
-        profileFinder.findProfiles(institution, page);
+        ProfileSearchResult result;
+        try {
+            result = profileFinder.findProfiles(context, page);
+        } catch (NoProfilesFoundException e) {
+            // Not retried, so no later attempt will resume from the checkpoint
+            checkpointStore.clear(institution);
+            throw e;
+        }
+        checkpointStore.clear(institution);
         // TODO: Move this and the log after into ProfileFinder instead
-        debugTemplate.send("profiles.debug", institution.name(), new SimpleDebugData(institution, page.location(), profileFinder.getFoundProfilesCount(institution)));
-        log.info("{} (likely) profiles found for {}", profileFinder.getFoundProfilesCount(institution),
-                institution.name());
+        debugTemplate.send("profiles.debug", institution.name(), new SimpleDebugData(institution, page.location(), result.profilesFound()));
+        log.info("{} (likely) profiles found for {} on {} pages in {} after {} fetches", result.profilesFound(),
+                institution.name(), result.pages(), result.elapsed(), context.getFetchCount());
     }
 
+    /**
+     * Load the page an earlier attempt at the institution got to. The initial page checks were passed by that attempt.
+     *
+     * @return the page, or null if it could not be loaded, in which case the checkpoint is dropped
+     */
+    private FinderClientResponse loadCheckpointedPage(Institution institution, StageCheckpoint checkpoint) {
+        FinderClientResponse page = pageLoader.loadFoundPage(institution, checkpoint.resumeUrl());
+        if (page == null) {
+            log.warn("Starting {} over", institution.name());
+            checkpointStore.clear(institution);
+            return null;
+        }
+        return page;
+    }
 }
@@ -0,0 +1,65 @@
+package io.github.aaejo.profilefinder.messaging.consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.github.aaejo.messaging.records.Institution;
+import io.github.aaejo.profilefinder.finder.PageCache;
+import io.github.aaejo.profilefinder.finder.ProfileFinder;
+import io.github.aaejo.profilefinder.finder.ProfileSearchResult;
+import io.github.aaejo.profilefinder.finder.SearchContext;
+import io.github.aaejo.profilefinder.finder.configuration.PageCacheProperties;
+import io.github.aaejo.profilefinder.messaging.producer.StageResultsProducer;
+import io.github.aaejo.profilefinder.messaging.records.FacultyListFound;
+
+/**
+ * Last stage of the staged pipeline mode: extracts the profiles from each faculty list found by the earlier stages.
+ *
+ * @author Omri Harary
+ */
+@Component
+@ConditionalOnProperty(name = "aaejo.jds.profile-finder.pipeline.mode", havingValue = "staged")
+@KafkaListener(id = "profile-finder-profiles", topics = StageResultsProducer.FACULTY_LISTS_TOPIC,
+        concurrency = "${aaejo.jds.profile-finder.pipeline.profiles-concurrency:1}")
+public class ProfileStageListener {
+    private static final Logger log = LoggerFactory.getLogger(ProfileStageListener.class);
+
+    @Autowired
+    KafkaTemplate<String, SimpleDebugData> debugTemplate;
+
+    private final ProfileFinder profileFinder;
+    private final InstitutionPageLoader pageLoader;
+    private final PageCacheProperties pageCacheProperties;
+
+    public ProfileStageListener(ProfileFinder profileFinder, InstitutionPageLoader pageLoader,
+            PageCacheProperties pageCacheProperties) {
+        this.profileFinder = profileFinder;
+        this.pageLoader = pageLoader;
+        this.pageCacheProperties = pageCacheProperties;
+    }
+
+    @KafkaHandler
+    public void handle(FacultyListFound facultyList, Acknowledgment ack) {
+        Institution institution = facultyList.institution();
+        log.info("Finding profiles for {} from {}", institution.name(), facultyList.url());
+
+        FinderClientResponse page = pageLoader.loadStagePage(institution, facultyList.url());
+        ack.acknowledge();
+
+        SearchContext context = new SearchContext(institution, new PageCache(pageCacheProperties));
+        context.getPageCache().put(facultyList.url(), page);
+
+        ProfileSearchResult result = profileFinder.findProfiles(context, page);
+        debugTemplate.send("profiles.debug", institution.name(), new SimpleDebugData(institution, page.location(), result.profilesFound()));
+        log.info("{} (likely) profiles found for {} on {} pages in {} after {} fetches", result.profilesFound(),
+                institution.name(), result.pages(), result.elapsed(), context.getFetchCount());
+    }
+}
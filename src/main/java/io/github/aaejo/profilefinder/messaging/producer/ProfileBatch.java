@@ -0,0 +1,144 @@
+package io.github.aaejo.profilefinder.messaging.producer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import io.github.aaejo.messaging.records.Institution;
+import io.github.aaejo.messaging.records.Profile;
+import io.github.aaejo.profilefinder.finder.exception.ProfilePublishFailedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Profiles found on one page of an institution's faculty list, published together.
+ * <p>
+ * Profiles are buffered as they are found, then all sent at once when the page is done with, so that the producer can
+ * batch and compress them together. The page then waits for all of them to be acknowledged, and fails the institution
+ * if any were not.
+ * <p>
+ * Delivery is at least once. When a page fails, the institution is retried, or resumed from its faculty list, and the
+ * pages before it are published again. So every profile is keyed by its institution and profile URL, or by a digest of
+ * its content if it has no URL, so that consumers, or compaction of the topic, can drop the duplicates.
+ *
+ * @author Omri Harary
+ */
+public class ProfileBatch {
+    private static final Logger log = LoggerFactory.getLogger(ProfileBatch.class);
+
+    private final KafkaTemplate<String, Profile> template;
+    private final String topic;
+    private final Institution institution;
+    private final Duration sendTimeout;
+    private final MeterRegistry registry;
+    private final List<Profile> buffered = new ArrayList<>();
+
+    ProfileBatch(KafkaTemplate<String, Profile> template, String topic, Institution institution, Duration sendTimeout,
+            MeterRegistry registry) {
+        this.template = template;
+        this.topic = topic;
+        this.institution = institution;
+        this.sendTimeout = sendTimeout;
+        this.registry = registry;
+    }
+
+    public void add(Profile profile) {
+        buffered.add(profile);
+    }
+
+    /**
+     * Send the buffered profiles and wait for all of them to be acknowledged.
+     *
+     * @param url   page the profiles were found on, for reporting failures
+     * @return how many profiles were sent
+     * @throws ProfilePublishFailedException if any of the profiles were not acknowledged
+     */
+    public int flush(String url) {
+        if (buffered.isEmpty()) {
+            return 0;
+        }
+
+        int total = buffered.size();
+        long start = System.nanoTime();
+        List<CompletableFuture<SendResult<String, Profile>>> sends = new ArrayList<>(total);
+        for (Profile profile : buffered) {
+            try {
+                sends.add(template.send(topic, key(profile), profile));
+            } catch (RuntimeException e) {
+                sends.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        buffered.clear();
+
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Counted up along with any other failures below
+        } catch (TimeoutException e) {
+            log.warn("Timed out after {} waiting on profiles from {}", sendTimeout, url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Timer.builder("jds.profile-finder.profiles.send-latency")
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        int failed = 0;
+        long bytes = 0;
+        Throwable firstFailure = null;
+        for (CompletableFuture<SendResult<String, Profile>> send : sends) {
+            if (send.isDone() && !send.isCompletedExceptionally()) {
+                RecordMetadata metadata = send.join().getRecordMetadata();
+                bytes += Math.max(metadata.serializedValueSize(), 0);
+            } else {
+                failed++;
+                if (firstFailure == null && send.isCompletedExceptionally()) {
+                    firstFailure = send.handle((result, ex) -> ex).join();
+                }
+            }
+        }
+
+        registry.summary("jds.profile-finder.profiles.batch-size").record(total);
+        // Sizes are as serialized, before compression, so this is the payload size rather than what went on the wire
+        registry.summary("jds.profile-finder.profiles.serialized-bytes").record(bytes);
+        if (failed > 0) {
+            registry.counter("jds.profile-finder.profiles.send-failures").increment(failed);
+            throw new ProfilePublishFailedException(institution, url, failed, total, firstFailure);
+        }
+
+        log.debug("Sent {} profiles from {} ({} bytes serialized)", total, url, bytes);
+        return total;
+    }
+
+    /**
+     * @return the key a profile is published with, the same each time the profile is found
+     */
+    String key(Profile profile) {
+        if (StringUtils.isNotBlank(profile.url())) {
+            return institution.name() + "\n" + profile.url();
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(profile.htmlContent().getBytes(StandardCharsets.UTF_8));
+            return institution.name() + "\n" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required to be supported", e);
+        }
+    }
+}
@@ -1,38 +1,61 @@
 package io.github.aaejo.profilefinder.messaging.producer;
 
-import java.util.concurrent.CompletableFuture;
+import java.time.Duration;
+import java.util.Map;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.stereotype.Component;
 
+import io.github.aaejo.messaging.records.Institution;
 import io.github.aaejo.messaging.records.Profile;
+import io.github.aaejo.profilefinder.messaging.configuration.ProfilePublishingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 
 /**
+ * Publishes profiles a page at a time, through a producer tuned for bulk sends.
+ *
  * @author Omri Harary
  */
 @Component
 public class ProfilesProducer {
-    private static final Logger log = LoggerFactory.getLogger(ProfilesProducer.class);
     private static final String TOPIC = "profiles";
 
     private final KafkaTemplate<String, Profile> template;
+    private final Duration sendTimeout;
+    private final MeterRegistry registry;
 
-    public ProfilesProducer(KafkaTemplate<String, Profile> template) {
+    @Autowired
+    public ProfilesProducer(ProducerFactory<String, Profile> producerFactory, ProfilePublishingProperties properties,
+            MeterRegistry registry) {
+        // Overrides apply to a copy of the shared producer factory, so other topics keep their settings. The copy
+        // belongs to the template rather than the context, so is closed along with the template on shutdown
+        this(new KafkaTemplate<>(producerFactory, Map.of(
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, properties.compression(),
+                ProducerConfig.LINGER_MS_CONFIG, (int) properties.linger().toMillis(),
+                ProducerConfig.BATCH_SIZE_CONFIG, (int) properties.batchSize().toBytes())),
+                properties.sendTimeout(), registry);
+    }
+
+    ProfilesProducer(KafkaTemplate<String, Profile> template, Duration sendTimeout, MeterRegistry registry) {
         this.template = template;
+        this.sendTimeout = sendTimeout;
+        this.registry = registry;
+    }
+
+    @PreDestroy
+    void closeProducer() {
+        template.destroy();
     }
 
-    public void send(final Profile profile) {
-        CompletableFuture<SendResult<String, Profile>> sendResultFuture = this.template.send(TOPIC, profile);
-        sendResultFuture.whenComplete((result, ex) -> {
-            if (ex == null) {
-                log.debug("Sent: " + profile.toString());
-            }
-            else {
-                log.error("Failed to send: " + profile.toString(), ex);
-            }
-        });
+    /**
+     * @param institution   institution the profiles are from
+     * @return a new, empty batch of profiles
+     */
+    public ProfileBatch newBatch(Institution institution) {
+        return new ProfileBatch(template, TOPIC, institution, sendTimeout, registry);
     }
 }
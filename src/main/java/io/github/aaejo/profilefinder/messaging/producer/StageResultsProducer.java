@@ -0,0 +1,40 @@
+package io.github.aaejo.profilefinder.messaging.producer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import io.github.aaejo.profilefinder.messaging.records.DepartmentFound;
+import io.github.aaejo.profilefinder.messaging.records.FacultyListFound;
+
+/**
+ * Hands the result of one pipeline stage on to the next, when running in staged mode.
+ * <p>
+ * Sends wait for the broker to acknowledge them, so that an institution whose result could not be handed on fails,
+ * and is retried, rather than silently going missing between stages.
+ *
+ * @author Omri Harary
+ */
+@Component
+public class StageResultsProducer {
+    private static final Logger log = LoggerFactory.getLogger(StageResultsProducer.class);
+    public static final String DEPARTMENTS_TOPIC = "departments";
+    public static final String FACULTY_LISTS_TOPIC = "faculty-lists";
+
+    private final KafkaTemplate<String, Object> template;
+
+    public StageResultsProducer(KafkaTemplate<String, Object> template) {
+        this.template = template;
+    }
+
+    public void send(final DepartmentFound department) {
+        template.send(DEPARTMENTS_TOPIC, department.institution().name(), department).join();
+        log.debug("Sent: " + department.toString());
+    }
+
+    public void send(final FacultyListFound facultyList) {
+        template.send(FACULTY_LISTS_TOPIC, facultyList.institution().name(), facultyList).join();
+        log.debug("Sent: " + facultyList.toString());
+    }
+}
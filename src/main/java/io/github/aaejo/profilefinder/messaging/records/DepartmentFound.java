@@ -0,0 +1,15 @@
+package io.github.aaejo.profilefinder.messaging.records;
+
+import io.github.aaejo.messaging.records.Institution;
+
+/**
+ * Result of the department stage, handed on to the faculty stage.
+ *
+ * @param institution   institution the department is at
+ * @param url           department site that was found
+ * @param confidence    confidence the department site was found with
+ *
+ * @author Omri Harary
+ */
+public record DepartmentFound(Institution institution, String url, double confidence) {
+}
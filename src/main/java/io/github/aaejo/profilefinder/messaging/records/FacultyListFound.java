@@ -0,0 +1,15 @@
+package io.github.aaejo.profilefinder.messaging.records;
+
+import io.github.aaejo.messaging.records.Institution;
+
+/**
+ * Result of the faculty stage, handed on to the profiles stage.
+ *
+ * @param institution   institution the faculty list is for
+ * @param url           faculty list that was found
+ * @param confidence    confidence the faculty list was found with
+ *
+ * @author Omri Harary
+ */
+public record FacultyListFound(Institution institution, String url, double confidence) {
+}
@@ -0,0 +1,72 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+ * Compares the indexed CrawlQueue against the original PriorityQueue based one, by filling a frontier the way a crawl
+ * of a large site would: many links, lots of them repeated with different weights, interleaved with polls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CrawlQueueBenchmark {
+
+    @Param({ "100", "1000", "5000" })
+    int frontierSize;
+
+    String[] urls;
+    double[] weights;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        // Every URL is offered about 3 times, as happens when many pages link to the same places
+        urls = new String[frontierSize * 3];
+        weights = new double[urls.length];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = "https://www.example.edu/department/page-" + random.nextInt(frontierSize);
+            weights[i] = random.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public void indexed(Blackhole bh) {
+        CrawlQueue queue = new CrawlQueue();
+        for (int i = 0; i < urls.length; i++) {
+            bh.consume(queue.add(urls[i], weights[i]));
+            bh.consume(queue.contains(urls[(i * 7) % urls.length]));
+            if (i % 10 == 9) {
+                bh.consume(queue.poll());
+            }
+        }
+    }
+
+    @Benchmark
+    public void priorityQueue(Blackhole bh) {
+        PriorityCrawlQueue queue = new PriorityCrawlQueue();
+        for (int i = 0; i < urls.length; i++) {
+            bh.consume(queue.add(urls[i], weights[i]));
+            bh.consume(queue.contains(urls[(i * 7) % urls.length]));
+            if (i % 10 == 9) {
+                bh.consume(queue.poll());
+            }
+        }
+    }
+}
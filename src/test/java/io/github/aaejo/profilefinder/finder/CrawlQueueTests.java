@@ -0,0 +1,92 @@
+package io.github.aaejo.profilefinder.finder;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class CrawlQueueTests {
+
+    @Test
+    void poll_differentWeights_highestWeightFirst() {
+        CrawlQueue queue = new CrawlQueue();
+        queue.add("https://example.edu/a", 0.2);
+        queue.add("https://example.edu/b", 1.5);
+        queue.add("https://example.edu/c", 0.9);
+
+        assertThat(queue.poll().url()).isEqualTo("https://example.edu/b");
+        assertThat(queue.poll().url()).isEqualTo("https://example.edu/c");
+        assertThat(queue.poll().url()).isEqualTo("https://example.edu/a");
+        assertThat(queue.poll()).isNull();
+    }
+
+    @Test
+    void add_sameUrlHigherWeight_keepsHigherWeight() {
+        CrawlQueue queue = new CrawlQueue();
+        queue.add("https://example.edu/a", 0.2);
+        queue.add("https://example.edu/b", 0.5);
+
+        assertThat(queue.add("https://example.edu/a", 0.9)).isTrue();
+
+        assertThat(queue).hasSize(2);
+        assertThat(queue.peek().url()).isEqualTo("https://example.edu/a");
+        assertThat(queue.peek().weight()).isEqualTo(0.9);
+    }
+
+    @Test
+    void add_sameUrlLowerOrEqualWeight_isSkipped() {
+        CrawlQueue queue = new CrawlQueue();
+        queue.add("https://example.edu/a", 0.9);
+
+        assertThat(queue.add("https://example.edu/a", 0.2)).isFalse();
+        assertThat(queue.add("https://example.edu/a", 0.9)).isFalse();
+
+        assertThat(queue).hasSize(1);
+        assertThat(queue.get("https://example.edu/a").weight()).isEqualTo(0.9);
+    }
+
+    @Test
+    void contains_afterPoll_isFalse() {
+        CrawlQueue queue = new CrawlQueue();
+        queue.add("https://example.edu/a", 0.9);
+
+        assertThat(queue.contains("https://example.edu/a")).isTrue();
+        assertThat(queue.contains(new CrawlTarget("https://example.edu/a", 0, null))).isTrue();
+        queue.poll();
+        assertThat(queue.contains("https://example.edu/a")).isFalse();
+    }
+
+    @Test
+    void poll_randomOperations_matchesHighestWeightPerUrl() {
+        Random random = new Random(42);
+        CrawlQueue queue = new CrawlQueue(1);
+        Map<String, Double> expected = new HashMap<>();
+
+        for (int i = 0; i < 5000; i++) {
+            String url = "https://example.edu/" + random.nextInt(500);
+            double weight = random.nextDouble();
+            queue.add(url, weight);
+            expected.merge(url, weight, Math::max);
+
+            if (random.nextInt(4) == 0) {
+                CrawlTarget polled = queue.poll();
+                assertThat(polled.weight()).isEqualTo(expected.values().stream().mapToDouble(d -> d).max().getAsDouble());
+                assertThat(expected.remove(polled.url())).isEqualTo(polled.weight());
+            }
+        }
+
+        List<Double> drained = new ArrayList<>();
+        CrawlTarget target;
+        while ((target = queue.poll()) != null) {
+            assertThat(expected.remove(target.url())).isEqualTo(target.weight());
+            drained.add(target.weight());
+        }
+        assertThat(expected).isEmpty();
+        assertThat(drained).isSortedAccordingTo((a, b) -> Double.compare(b, a));
+    }
+}
@@ -15,6 +15,8 @@ import org.junit.jupiter.api.Test;
 import io.github.aaejo.finder.client.FinderClientResponse;
 import io.github.aaejo.profilefinder.finder.configuration.CrawlingProperties;
 import io.github.aaejo.profilefinder.finder.configuration.DepartmentFinderProperties;
+import io.github.aaejo.profilefinder.finder.configuration.EarlyTerminationProperties;
+import io.github.aaejo.profilefinder.finder.configuration.TemplateProbingProperties;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 /*
@@ -39,8 +41,10 @@ public class DepartmentFinderExampleTests {
     DepartmentFinderProperties dfProps = new DepartmentFinderProperties(commonTemplates, departmentKeywords);
     
     String[] disallowedHosts = { "outlook.com", "sharepoint.com" };
-    CrawlingProperties cProps = new CrawlingProperties(false, 0.0001, disallowedHosts);
-    private final DepartmentFinder departmentFinder = new DepartmentFinder(null, dfProps, cProps, new SimpleMeterRegistry());
+    CrawlingProperties cProps = new CrawlingProperties(false, 0.0001, disallowedHosts, 0, 0, null);
+    TemplateProbingProperties tpProps = new TemplateProbingProperties(false, 3);
+    EarlyTerminationProperties etProps = new EarlyTerminationProperties(EarlyTerminationProperties.Policy.NONE, 1.4, 10, 1.0);
+    private final DepartmentFinder departmentFinder = new DepartmentFinder(null, dfProps, tpProps, cProps, etProps, new SimpleMeterRegistry());
 
     @Test
     void foundDepartmentSite_queensPhilosophy_isDepartmentSite() throws IOException {
@@ -0,0 +1,142 @@
+package io.github.aaejo.profilefinder.finder;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.collections.api.map.primitive.ImmutableObjectDoubleMap;
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectDoubleHashMap;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class DepartmentPageScorerTests {
+
+    List<DepartmentKeyword> keywords = List.of(
+            new DepartmentKeyword(new String[]{"philosophy", "philosophies"}, 1.0, true),
+            new DepartmentKeyword(new String[]{"humanities"}, 0.8, false),
+            new DepartmentKeyword(new String[]{"social science", "social-science", "socialscience"}, 0.8, false),
+            new DepartmentKeyword(new String[]{"departments", "faculties", "schools", "school of", "school-of",
+                    "schoolof", "college of", "college-of", "collegeof", "art", "arts"}, 0.01, false));
+    DepartmentPageScorer scorer = new DepartmentPageScorer(keywords);
+
+    @ParameterizedTest
+    @CsvSource({
+            "queens-philosophy.html,         https://www.queensu.ca/philosophy/",
+            "mit-philosophy.html,            https://philosophy.mit.edu/",
+            "harvard-philosophy.html,        https://philosophy.fas.harvard.edu/",
+            "berkeley-philosophy.html,       https://philosophy.berkeley.edu/",
+            "uah-philosophy.html,            https://www.uah.edu/ahs/departments/philosophy",
+            "nazereth-philosophy-major.html, https://www2.naz.edu/academics/philosophy-major/",
+            "nazereth-philosophy.html,       https://www2.naz.edu/dept/philosophy"
+    })
+    void score_examplePages_matchesPerKeywordSelectors(String file, String location) throws IOException {
+        Document page = Jsoup.parse(new File("src/test/resources/department-examples/" + file), "UTF-8", location);
+
+        ImmutableObjectDoubleMap<DepartmentKeyword> expected = scoreWithSelectors(page, location);
+        ImmutableObjectDoubleMap<DepartmentKeyword> actual = scorer.score(page, location);
+
+        assertThat(actual.keySet()).containsExactlyInAnyOrderElementsOf(keywords);
+        for (DepartmentKeyword keyword : keywords) {
+            assertThat(actual.get(keyword))
+                    .as("%s confidence for %s", file, keyword.getVariants()[0])
+                    .isCloseTo(expected.get(keyword), within(1e-9));
+        }
+    }
+
+    @Test
+    void score_linksImagesAndHeadings_scoredForEachMatchingKeyword() {
+        String location = "https://example.edu/dept";
+        Document page = Jsoup.parse("""
+                <html><head><title>Home</title></head><body>
+                <h2>Philosophy and the Humanities</h2>
+                <a href="/dept">Social Science</a>
+                <a href="/elsewhere">Philosophy</a>
+                <a href="/dept"><span><img alt="Humanities logo"></span></a>
+                <img alt="Philosophy">
+                </body></html>""", location);
+
+        ImmutableObjectDoubleMap<DepartmentKeyword> report = scorer.score(page, location);
+
+        assertThat(report.get(keywords.get(0))).isCloseTo(0.82, within(1e-9));
+        assertThat(report.get(keywords.get(1))).isCloseTo(0.82, within(1e-9)); // Image's parent is not the link
+        assertThat(report.get(keywords.get(2))).isCloseTo(0.8, within(1e-9));
+        assertThat(report.get(keywords.get(3))).isZero();
+    }
+
+    @Test
+    void match_wholeWordsOnly_overlappingVariantsAllFound() {
+        KeywordMatcher matcher = new KeywordMatcher(keywords);
+
+        assertThat(matcher.match("PHILOSOPHY department")).isEqualTo(0b0001);
+        assertThat(matcher.match("philosophyx, arts_and humanity")).isZero();
+        assertThat(matcher.match("The School of Social Science and Philosophies")).isEqualTo(0b1101);
+        assertThat(matcher.matchesAny("")).isFalse();
+    }
+
+    /**
+     * How pages were scored before the single-pass scorer, with one set of selectors per keyword.
+     */
+    private ImmutableObjectDoubleMap<DepartmentKeyword> scoreWithSelectors(Document page, String location) {
+        ObjectDoubleHashMap<DepartmentKeyword> confidence = ObjectDoubleHashMap.newMap();
+        String title = page.title();
+
+        for (DepartmentKeyword keyword : keywords) {
+            confidence.addToValue(keyword, 0);
+
+            if (StringUtils.containsAnyIgnoreCase(title, keyword.getVariants())
+                    || StringUtils.containsAnyIgnoreCase(location, keyword.getVariants())) {
+                HashSet<String> tokenizedIdentifiers = new HashSet<>();
+                for (String token : location.split("\\W")) {
+                    tokenizedIdentifiers.add(token.toLowerCase());
+                }
+                for (String token : title.split(" ")) {
+                    tokenizedIdentifiers.add(token.toLowerCase());
+                }
+                for (String token : tokenizedIdentifiers) {
+                    if (StringUtils.equalsAnyIgnoreCase(token, keyword.getVariants())) {
+                        confidence.addToValue(keyword, 0.5);
+                    } else {
+                        confidence.addToValue(keyword, switch (token) {
+                            case "department", "school" -> 0.5;
+                            case "degree"               -> -1.0;
+                            case "calendar"             -> -5.0;
+                            default -> 0.0;
+                        });
+                    }
+                }
+            }
+
+            for (Element imgLink : page.select(keyword.getRelevantImageLink())) {
+                if (imgLink.parent().absUrl("href").equals(location)) {
+                    confidence.addToValue(keyword, 0.8);
+                }
+            }
+            for (Element link : page.select(keyword.getRelevantLink())) {
+                if (link.absUrl("href").equals(location)) {
+                    confidence.addToValue(keyword, 0.8);
+                }
+            }
+            for (Element heading : page.select(keyword.getRelevantHeading())) {
+                confidence.addToValue(keyword, switch (heading.tagName()) {
+                    case "h1" -> 0.85;
+                    case "h2" -> 0.82;
+                    case "h3" -> 0.8;
+                    case "h4" -> 0.5;
+                    case "h5" -> 0.3;
+                    case "h6" -> 0.1;
+                    default -> 0;
+                });
+            }
+        }
+
+        return confidence.toImmutable();
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.aaejo.profilefinder.finder;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.aaejo.profilefinder.finder.configuration.EarlyTerminationProperties;
+import io.github.aaejo.profilefinder.finder.configuration.EarlyTerminationProperties.Policy;
+
+public class EarlyTerminationTests {
+
+    @Test
+    void shouldStop_none_neverStops() {
+        EarlyTermination earlyTermination = new EarlyTermination(new EarlyTerminationProperties(Policy.NONE, 1.4, 2, 1.0));
+
+        assertThat(earlyTermination.shouldStop(5.0)).isFalse();
+        assertThat(earlyTermination.shouldStop(0.1)).isFalse();
+        assertThat(earlyTermination.shouldStop(0.1)).isFalse();
+    }
+
+    @Test
+    void shouldStop_firstOverThreshold_stopsAtThreshold() {
+        EarlyTermination earlyTermination = new EarlyTermination(
+                new EarlyTerminationProperties(Policy.FIRST_OVER_THRESHOLD, 1.4, 2, 1.0));
+
+        assertThat(earlyTermination.shouldStop(0.5)).isFalse();
+        assertThat(earlyTermination.shouldStop(1.39)).isFalse();
+        assertThat(earlyTermination.shouldStop(1.4)).isTrue();
+    }
+
+    @Test
+    void shouldStop_noImprovement_stopsAfterPatienceOnceGoodEnough() {
+        EarlyTermination earlyTermination = new EarlyTermination(
+                new EarlyTerminationProperties(Policy.NO_IMPROVEMENT, 1.4, 2, 1.0));
+
+        // Nothing good enough yet, so keep going regardless of improvement
+        assertThat(earlyTermination.shouldStop(0.5)).isFalse();
+        assertThat(earlyTermination.shouldStop(0.2)).isFalse();
+        assertThat(earlyTermination.shouldStop(0.2)).isFalse();
+
+        assertThat(earlyTermination.shouldStop(1.1)).isFalse();
+        assertThat(earlyTermination.shouldStop(0.3)).isFalse();
+        assertThat(earlyTermination.shouldStop(1.2)).isFalse(); // Improvement resets patience
+        assertThat(earlyTermination.shouldStop(0.3)).isFalse();
+        assertThat(earlyTermination.shouldStop(1.2)).isTrue(); // Equal is not an improvement
+    }
+}
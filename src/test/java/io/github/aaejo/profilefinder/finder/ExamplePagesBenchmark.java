@@ -0,0 +1,126 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.collections.api.map.primitive.ImmutableObjectDoubleMap;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.github.aaejo.profilefinder.finder.configuration.CrawlingProperties;
+import io.github.aaejo.profilefinder.finder.configuration.DepartmentFinderProperties;
+import io.github.aaejo.profilefinder.finder.configuration.EarlyTerminationProperties;
+import io.github.aaejo.profilefinder.finder.configuration.PaginationProperties;
+import io.github.aaejo.profilefinder.finder.configuration.TemplateProbingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*
+ * Throughput of page scoring and profile extraction on the department example pages, so that scoring changes can be
+ * judged before they reach production. The default benchmark profile args include -prof gc, for allocation rates.
+ *
+ *   mvn -P benchmark verify -Dbenchmark.args="ExamplePagesBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExamplePagesBenchmark {
+
+    // Where each example page was saved from, see src/test/resources/department-examples/README.md
+    static final Map<String, String> LOCATIONS = Map.of(
+            "berkeley-philosophy.html", "https://philosophy.berkeley.edu/",
+            "harvard-philosophy.html", "https://philosophy.fas.harvard.edu/",
+            "mit-philosophy.html", "https://philosophy.mit.edu/",
+            "queens-philosophy.html", "https://www.queensu.ca/philosophy/",
+            "uah-philosophy.html", "https://www.uah.edu/ahs/departments/philosophy",
+            "nazereth-philosophy-major.html", "https://www2.naz.edu/academics/philosophy-major/",
+            "nazereth-philosophy.html", "https://www2.naz.edu/dept/philosophy");
+
+    @Param({ "berkeley-philosophy.html", "harvard-philosophy.html", "mit-philosophy.html", "queens-philosophy.html",
+            "uah-philosophy.html", "nazereth-philosophy-major.html", "nazereth-philosophy.html" })
+    String file;
+
+    FinderClientResponse page;
+    Element content;
+    Element firstList;
+    Element firstTable;
+
+    DepartmentFinder departmentFinder;
+    FacultyFinder facultyFinder;
+    ProfileFinder profileFinder;
+
+    @Setup
+    public void setUp() throws IOException {
+        page = new FinderClientResponse(Jsoup.parse(
+                new File("src/test/resources/department-examples/" + file), "UTF-8", LOCATIONS.get(file)));
+
+        DepartmentFinderProperties dfProps = new DepartmentFinderProperties(
+                List.of("https://%s/philosophy", "https://philosophy.%s"),
+                new ArrayList<>(List.of(
+                        new DepartmentKeyword(new String[]{"philosophy", "philosophies"}, 1.0, true),
+                        new DepartmentKeyword(new String[]{"humanities"}, 0.8, false),
+                        new DepartmentKeyword(new String[]{"social science", "social-science", "socialscience"}, 0.8, false))));
+        CrawlingProperties cProps = new CrawlingProperties(false, 0.0001, new String[0], 0, 0, null);
+        EarlyTerminationProperties etProps = new EarlyTerminationProperties(EarlyTerminationProperties.Policy.NONE, 1.4, 10, 1.0);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        departmentFinder = new DepartmentFinder(null, dfProps, new TemplateProbingProperties(false, 3), cProps, etProps,
+                registry);
+        facultyFinder = new FacultyFinder(null, dfProps, cProps, etProps, registry);
+        profileFinder = new ProfileFinder(null, departmentFinder,
+                new ProfileHtmlMinifier(ProfileHtmlMinifier.Level.SEMANTIC), new PaginationProperties(false, 1, 100), null,
+                cProps, registry);
+
+        content = profileFinder.drillDownToUniqueMain(page.document()).get(0);
+        firstList = content.getElementsByTag("ul").first();
+        firstTable = content.getElementsByTag("table").first();
+    }
+
+    @Benchmark
+    public ImmutableObjectDoubleMap<DepartmentKeyword> foundDepartmentSiteDetailed() {
+        return departmentFinder.foundDepartmentSiteDetailed(page);
+    }
+
+    @Benchmark
+    public double foundFacultyList() {
+        return facultyFinder.foundFacultyList(page);
+    }
+
+    @Benchmark
+    public List<Element> drillDownToContent() {
+        return profileFinder.drillDownToContent(page.document());
+    }
+
+    @Benchmark
+    public List<Element> commonTagStrategy() {
+        return profileFinder.commonTagStrategy(content);
+    }
+
+    @Benchmark
+    public List<Element> singleListStrategy() {
+        return firstList != null ? profileFinder.singleListStrategy(firstList) : List.of();
+    }
+
+    @Benchmark
+    public List<Element> singleTableStrategy() {
+        return firstTable != null ? profileFinder.singleTableStrategy(firstTable) : List.of();
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.aaejo.profilefinder.finder;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.github.aaejo.profilefinder.finder.configuration.CrawlingProperties;
+import io.github.aaejo.profilefinder.finder.configuration.DepartmentFinderProperties;
+import io.github.aaejo.profilefinder.finder.configuration.EarlyTerminationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class FacultyFinderTests {
+
+    List<DepartmentKeyword> departmentKeywords = new ArrayList<>(List.of(
+            new DepartmentKeyword(new String[]{"philosophy", "philosophies"}, 1.0, true),
+            new DepartmentKeyword(new String[]{"humanities"}, 0.8, false),
+            new DepartmentKeyword(new String[]{"social science", "social-science", "socialscience"}, 0.8, false)));
+    DepartmentFinderProperties dfProps = new DepartmentFinderProperties(List.of(), departmentKeywords);
+    CrawlingProperties cProps = new CrawlingProperties(false, 0.0001, new String[0], 0, 0, null);
+    EarlyTerminationProperties etProps = new EarlyTerminationProperties(EarlyTerminationProperties.Policy.NONE, 1.4, 10, 1.0);
+    FacultyFinder facultyFinder = new FacultyFinder(null, dfProps, cProps, etProps, new SimpleMeterRegistry());
+
+    @ParameterizedTest
+    @CsvSource({
+            "queens-philosophy.html,         https://www.queensu.ca/philosophy/",
+            "mit-philosophy.html,            https://philosophy.mit.edu/",
+            "harvard-philosophy.html,        https://philosophy.fas.harvard.edu/",
+            "berkeley-philosophy.html,       https://philosophy.berkeley.edu/",
+            "uah-philosophy.html,            https://www.uah.edu/ahs/departments/philosophy",
+            "nazereth-philosophy-major.html, https://www2.naz.edu/academics/philosophy-major/",
+            "nazereth-philosophy.html,       https://www2.naz.edu/dept/philosophy"
+    })
+    void foundFacultyList_examplePages_matchesSelectorScoring(String file, String location) throws IOException {
+        Document page = Jsoup.parse(new File("src/test/resources/department-examples/" + file), "UTF-8", location);
+        LegacyFacultyListScorer legacy = new LegacyFacultyListScorer(facultyFinder, dfProps,
+                FacultyPageFeatures.MAX_TERM_COUNT);
+
+        double expected = legacy.foundFacultyList(new FinderClientResponse(page));
+        double actual = facultyFinder.foundFacultyList(new FinderClientResponse(page));
+
+        assertThat(actual).isCloseTo(expected, within(1e-9));
+    }
+
+    @Test
+    void foundFacultyList_manyTermMatches_termCountsCapped() {
+        String location = "https://example.edu/people";
+        Document few = Jsoup.parse("<main>" + "Professor ".repeat(FacultyPageFeatures.MAX_TERM_COUNT) + "</main>", location);
+        Document many = Jsoup.parse("<main>" + "Professor ".repeat(FacultyPageFeatures.MAX_TERM_COUNT * 4) + "</main>", location);
+
+        assertThat(facultyFinder.foundFacultyList(new FinderClientResponse(many)))
+                .isEqualTo(facultyFinder.foundFacultyList(new FinderClientResponse(few)));
+    }
+
+    @Test
+    void count_overlappingTerms_matchesCountMatches() {
+        String text = "Prof. Dr. Jane Doe, Professor; PROF Lecturer, dr Smith. aaa";
+        String[] terms = { "professor", "prof", "prof.", "dr ", "dr.", "aa", "lecturer" };
+
+        int[] counts = new TermCounter(terms).count(text);
+
+        for (int i = 0; i < terms.length; i++) {
+            assertThat(counts[i]).as(terms[i]).isEqualTo(StringUtils.countMatches(text.toLowerCase(), terms[i]));
+        }
+        assertThat(new TermCounter(terms).count(text, 1)).containsOnly(1);
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.Jsoup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.github.aaejo.profilefinder.finder.configuration.CrawlingProperties;
+import io.github.aaejo.profilefinder.finder.configuration.DepartmentFinderProperties;
+import io.github.aaejo.profilefinder.finder.configuration.EarlyTerminationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*
+ * Compares the single traversal FacultyFinder.foundFacultyList against the original selector and repeated text based
+ * scoring, on the department example pages. Run with -prof gc to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FacultyListScoringBenchmark {
+
+    @Param({ "queens-philosophy.html", "berkeley-philosophy.html", "uah-philosophy.html" })
+    String file;
+
+    FinderClientResponse page;
+    FacultyFinder facultyFinder;
+    LegacyFacultyListScorer legacyScorer;
+
+    @Setup
+    public void setUp() throws IOException {
+        page = new FinderClientResponse(Jsoup.parse(
+                new File("src/test/resources/department-examples/" + file), "UTF-8", "https://example.edu/people"));
+
+        DepartmentFinderProperties dfProps = new DepartmentFinderProperties(List.of(), new ArrayList<>(List.of(
+                new DepartmentKeyword(new String[]{"philosophy", "philosophies"}, 1.0, true))));
+        facultyFinder = new FacultyFinder(null, dfProps,
+                new CrawlingProperties(false, 0.0001, new String[0], 0, 0, null),
+                new EarlyTerminationProperties(EarlyTerminationProperties.Policy.NONE, 1.4, 10, 1.0),
+                new SimpleMeterRegistry());
+        legacyScorer = new LegacyFacultyListScorer(facultyFinder, dfProps, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public double singleTraversal() {
+        return facultyFinder.foundFacultyList(page);
+    }
+
+    @Benchmark
+    public double selectors() {
+        return legacyScorer.foundFacultyList(page);
+    }
+}
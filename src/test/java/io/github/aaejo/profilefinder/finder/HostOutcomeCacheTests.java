@@ -0,0 +1,110 @@
+package io.github.aaejo.profilefinder.finder;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class HostOutcomeCacheTests {
+
+    static final String HOST = "example.edu";
+
+    @TempDir
+    Path directory;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MutableClock clock = new MutableClock();
+
+    HostOutcomeCache newCache() {
+        return new HostOutcomeCache(directory, Duration.ofDays(7), Duration.ofDays(1), clock, registry);
+    }
+
+    @Test
+    void getTemplateOutcome_newCacheOnSameDirectory_persisted() {
+        newCache().putTemplateOutcome(HOST, "https://example.edu/philosophy", 404, -10);
+        newCache().putTemplateOutcome(HOST, "https://example.edu/arts/philosophy", 200, 0.5);
+
+        HostOutcomeCache cache = newCache();
+        assertThat(cache.getTemplateOutcome(HOST, "https://example.edu/philosophy").status()).isEqualTo(404);
+        assertThat(cache.getTemplateOutcome(HOST, "https://example.edu/arts/philosophy").confidence()).isEqualTo(0.5);
+        assertThat(cache.getTemplateOutcome(HOST, "https://philosophy.example.edu")).isNull();
+
+        assertThat(registry.get("jds.profile-finder.host-cache.lookup").tags("kind", "template", "result", "hit")
+                .counter().count()).isEqualTo(2);
+        assertThat(registry.get("jds.profile-finder.host-cache.fetches-saved").tags("kind", "template")
+                .counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void putTemplateOutcome_transientOrFound_notCached() {
+        HostOutcomeCache cache = newCache();
+        cache.putTemplateOutcome(HOST, "https://example.edu/a", 503, -10);
+        cache.putTemplateOutcome(HOST, "https://example.edu/b", 429, -10);
+        cache.putTemplateOutcome(HOST, "https://example.edu/c", -1, -10);
+        cache.putTemplateOutcome(HOST, "https://example.edu/d", 200, 2.5);
+
+        for (String path : List.of("a", "b", "c", "d")) {
+            assertThat(cache.getTemplateOutcome(HOST, "https://example.edu/" + path)).as(path).isNull();
+        }
+    }
+
+    @Test
+    void getSiteMapCandidates_afterTtl_expired() {
+        HostOutcomeCache cache = newCache();
+        cache.putTemplateOutcome(HOST, "https://example.edu/philosophy", 404, -10);
+        cache.putSiteMapCandidates(HOST, List.of(
+                new HostOutcomeCache.SiteMapCandidate("https://example.edu/arts/philosophy-dept", 1.0)));
+
+        assertThat(cache.getSiteMapCandidates(HOST))
+                .extracting(HostOutcomeCache.SiteMapCandidate::url)
+                .containsExactly("https://example.edu/arts/philosophy-dept");
+
+        clock.advance(Duration.ofDays(2));
+        assertThat(cache.getSiteMapCandidates(HOST)).isNull();
+        assertThat(cache.getTemplateOutcome(HOST, "https://example.edu/philosophy")).isNotNull();
+
+        clock.advance(Duration.ofDays(6));
+        assertThat(cache.getTemplateOutcome(HOST, "https://example.edu/philosophy")).isNull();
+    }
+
+    @Test
+    void putSiteMapCandidates_none_notCached() {
+        HostOutcomeCache cache = newCache();
+        cache.putSiteMapCandidates(HOST, List.of());
+
+        assertThat(cache.getSiteMapCandidates(HOST)).isNull();
+    }
+
+    static class MutableClock extends Clock {
+        Instant now = Instant.parse("2023-05-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+import org.jsoup.nodes.Element;
+
+/**
+ * The original {@link ProfileFinder#commonTagStrategy(Element)}, which takes only the single container with the most
+ * block-level children. Ties go to the first such container in the page, where the original depended on hash order.
+ * Kept only as a baseline for {@link ProfileFinderTests}.
+ */
+class LegacyCommonTagStrategy {
+
+    static List<Element> commonTagStrategy(Element content) {
+        Element mostChildren = null;
+        List<Element> mostBlockChildren = List.of();
+        for (Element element : content.getAllElements()) {
+            List<Element> blockChildren = element.children().stream().filter(c -> c.tag().isBlock()).toList();
+            if (mostChildren == null || blockChildren.size() > mostBlockChildren.size()) {
+                mostChildren = element;
+                mostBlockChildren = blockChildren;
+            }
+        }
+
+        ObjectIntHashMap<String> tagFrequency = ObjectIntHashMap.newMap();
+        String commonTag = null;
+        for (Element element : mostBlockChildren) {
+            tagFrequency.addToValue(element.tagName(), 1);
+            if (commonTag == null || tagFrequency.get(element.tagName()) > tagFrequency.get(commonTag)) {
+                commonTag = element.tagName();
+            }
+        }
+
+        List<Element> commonTagChildren = new ArrayList<>(mostBlockChildren);
+        String tag = commonTag;
+        commonTagChildren.removeIf(e -> !e.tagName().equals(tag));
+        return commonTagChildren;
+    }
+}
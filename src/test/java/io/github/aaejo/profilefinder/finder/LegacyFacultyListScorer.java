@@ -0,0 +1,125 @@
+package io.github.aaejo.profilefinder.finder;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.github.aaejo.profilefinder.finder.configuration.DepartmentFinderProperties;
+
+/**
+ * The original selector and repeated text based {@link FacultyFinder#foundFacultyList(FinderClientResponse)}, with
+ * the term counts optionally capped. Kept only as a baseline for {@link FacultyFinderTests} and
+ * {@link FacultyListScoringBenchmark}.
+ */
+class LegacyFacultyListScorer {
+
+    static final Evaluator RELEVANT_HEADINGS = QueryParser.parse(
+            "h1:contains(professors), h1:contains(instructors), h1:contains(faculty):not(:contains(faculty of)), h1:contains(staff), h1:contains(people), h1:contains(persons), h1:contains(members), h1:contains(employee), h1:contains(directory), h1:contains(contact), h1:contains(profiles), "
+            + "h2:contains(professors), h2:contains(instructors), h2:contains(faculty):not(:contains(faculty of)), h2:contains(staff), h2:contains(people), h2:contains(persons), h2:contains(members), h2:contains(employee), h2:contains(directory), h2:contains(contact), h2:contains(profiles), "
+            + "h3:contains(professors), h3:contains(instructors), h3:contains(faculty):not(:contains(faculty of)), h3:contains(staff), h3:contains(people), h3:contains(persons), h3:contains(members), h3:contains(employee), h3:contains(directory), h3:contains(contact), h3:contains(profiles), "
+            + "h4:contains(professors), h4:contains(instructors), h4:contains(faculty):not(:contains(faculty of)), h4:contains(staff), h4:contains(people), h4:contains(persons), h4:contains(members), h4:contains(employee), h4:contains(directory), h4:contains(contact), h4:contains(profiles), "
+            + "h5:contains(professors), h5:contains(instructors), h5:contains(faculty):not(:contains(faculty of)), h5:contains(staff), h5:contains(people), h5:contains(persons), h5:contains(members), h5:contains(employee), h5:contains(directory), h5:contains(contact), h5:contains(profiles), "
+            + "h6:contains(professors), h6:contains(instructors), h6:contains(faculty):not(:contains(faculty of)), h6:contains(staff), h6:contains(people), h6:contains(persons), h6:contains(members), h6:contains(employee), h6:contains(directory), h6:contains(contact), h6:contains(profiles)");
+
+    private final FacultyFinder facultyFinder;
+    private final DepartmentFinderProperties departmentFinderProperties;
+    private final int cap;
+
+    LegacyFacultyListScorer(FacultyFinder facultyFinder, DepartmentFinderProperties departmentFinderProperties,
+            int cap) {
+        this.facultyFinder = facultyFinder;
+        this.departmentFinderProperties = departmentFinderProperties;
+        this.cap = cap;
+    }
+
+    double foundFacultyList(final FinderClientResponse page) {
+        double confidence = 0;
+        String location = page.location();
+        String title = page.document().title();
+
+        HashSet<String> tokenizedIdentifiers = new HashSet<>();
+        Arrays.stream(location.split("\\W"))
+                .map(token -> token.toLowerCase())
+                .forEach(token -> tokenizedIdentifiers.add(token));
+        Arrays.stream(title.split(" "))
+                .map(token -> token.toLowerCase())
+                .forEach(token -> tokenizedIdentifiers.add(token));
+        for (String token : tokenizedIdentifiers) {
+            double modifier = switch (token) {
+                case "professors"           -> 0.7;
+                case "instructors"          -> 0.5;
+                case "faculty"              -> 0.4;
+                case "staff"                -> 0.4;
+                case "people", "persons"    -> 0.37;
+                case "profiles"             -> 0.35;
+                case "members"              -> 0.35;
+                case "employee"             -> 0.25;
+                case "directory"            -> 0.1;
+                case "contact"              -> 0.1;
+                default -> 0.0;
+            };
+
+            confidence += modifier;
+        }
+
+        Element content = facultyFinder.drillDownToUniqueMain(page.document()).get(0);
+
+        confidence += 0.03 * capped(StringUtils.countMatches(content.text().toLowerCase(), "professor"));
+        confidence += 0.02 * capped(StringUtils.countMatches(content.text().toLowerCase(), "lecturer"));
+        confidence += 0.01 * capped(StringUtils.countMatches(content.text().toLowerCase(), "prof."));
+        confidence += 0.01 * capped(StringUtils.countMatches(content.text().toLowerCase(), "prof "));
+        confidence += 0.01 * capped(StringUtils.countMatches(content.text().toLowerCase(), "dr."));
+        confidence += 0.01 * capped(StringUtils.countMatches(content.text().toLowerCase(), "dr "));
+
+        Elements mailLinks = content.select("a[href^=mailto:]");
+        confidence += 0.05 * mailLinks.size();
+        Elements telLinks = content.select("a[href^=tel:]");
+        confidence += 0.03 * telLinks.size();
+
+        Elements images = content.getElementsByTag("img");
+        confidence += 0.001 * images.size();
+
+        Elements relevantHeadings = content.select(RELEVANT_HEADINGS);
+        for (Element heading : relevantHeadings) {
+            double modifier = switch (heading.tagName()) {
+                case "h1" -> 0.85;
+                case "h2" -> 0.82;
+                case "h3" -> 0.8;
+                case "h4" -> 0.5;
+                case "h5" -> 0.3;
+                case "h6" -> 0.1;
+                default -> 0;
+            };
+            confidence += modifier;
+        }
+
+        Elements tables = content.getElementsByTag("table");
+        if (!tables.isEmpty()) {
+            confidence += (5 - tables.size()) / 5.0;
+        }
+
+        boolean anyMatchedKeywords = false;
+        for (DepartmentKeyword keyword : departmentFinderProperties.getImportantDepartmentKeywords()) {
+            if (StringUtils.containsAnyIgnoreCase(location, keyword.getVariants())) {
+                anyMatchedKeywords = true;
+                confidence *= keyword.getWeight();
+                break;
+            }
+        }
+        if (!anyMatchedKeywords) {
+            confidence *= 0.4;
+        }
+
+        return confidence;
+    }
+
+    private int capped(int count) {
+        return Math.min(count, cap);
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.aaejo.profilefinder.finder;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+
+public class PageCacheTests {
+
+    private static FinderClientResponse page(String location, String body) {
+        return new FinderClientResponse(Jsoup.parse("<html><body>" + body + "</body></html>", location));
+    }
+
+    @Test
+    void get_requestedUrlOrLocation_returnsPage() {
+        PageCache cache = new PageCache(10, Long.MAX_VALUE);
+        FinderClientResponse page = page("https://www.example.edu/philosophy/", "<h1>Philosophy</h1>");
+
+        cache.put("http://example.edu/phil", page);
+
+        assertThat(cache.get("https://example.edu/phil")).isSameAs(page);
+        assertThat(cache.get("https://example.edu/philosophy")).isSameAs(page);
+        assertThat(cache.get("https://example.edu/arts")).isNull();
+    }
+
+    @Test
+    void put_overMaxEntries_evictsLeastRecentlyUsed() {
+        PageCache cache = new PageCache(2, Long.MAX_VALUE);
+        cache.put("https://example.edu/a", page("https://example.edu/a", "a"));
+        cache.put("https://example.edu/b", page("https://example.edu/b", "b"));
+        cache.get("https://example.edu/a");
+
+        cache.put("https://example.edu/c", page("https://example.edu/c", "c"));
+
+        assertThat(cache.get("https://example.edu/a")).isNotNull();
+        assertThat(cache.get("https://example.edu/b")).isNull();
+        assertThat(cache.get("https://example.edu/c")).isNotNull();
+    }
+
+    @Test
+    void put_overMaxBytes_evictsUntilWithinLimit() {
+        PageCache cache = new PageCache(100, 4_000);
+        cache.put("https://example.edu/a", page("https://example.edu/a", "a".repeat(1_000)));
+        long onePage = cache.getBytes();
+
+        cache.put("https://example.edu/b", page("https://example.edu/b", "b".repeat(1_000)));
+
+        assertThat(cache.getBytes()).isEqualTo(onePage);
+        assertThat(cache.get("https://example.edu/a")).isNull();
+        assertThat(cache.get("https://example.edu/b")).isNotNull();
+    }
+}
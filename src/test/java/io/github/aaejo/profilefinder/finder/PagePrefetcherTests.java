@@ -0,0 +1,188 @@
+package io.github.aaejo.profilefinder.finder;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Test;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PagePrefetcherTests {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    Map<String, String> site = new HashMap<>();
+    List<String> fetched = new ArrayList<>();
+    Queue<Runnable> scheduled = new ArrayDeque<>();
+
+    @Test
+    void next_followsNextLinksInOrder() {
+        page("https://example.edu/people?page=1", "Ada", "https://example.edu/people?page=2");
+        page("https://example.edu/people?page=2", "Grace", "https://example.edu/people?page=3");
+        page("https://example.edu/people?page=3", "Alan", null);
+
+        PagePrefetcher pages = prefetcher(null, 1);
+        pages.start(fetch("https://example.edu/people?page=1"), content("https://example.edu/people?page=1"));
+
+        assertThat(texts(pages)).containsExactly("Grace", "Alan");
+        assertThat(registry.get("jds.profile-finder.pagination.stopped").tag("reason", "end").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void next_sameContentUnderNewUrl_stopsAsLoop() {
+        page("https://example.edu/people", "Ada", "https://example.edu/people?start=10");
+        page("https://example.edu/people?start=10", "Grace", "https://example.edu/people?start=20");
+        // Past the end, the list starts over from the top under yet another URL
+        page("https://example.edu/people?start=20", "Ada", "https://example.edu/people?start=30");
+
+        PagePrefetcher pages = prefetcher(null, 1);
+        pages.start(fetch("https://example.edu/people"), content("https://example.edu/people"));
+
+        assertThat(texts(pages)).containsExactly("Grace");
+        assertThat(fetched).doesNotContain("https://example.edu/people?start=30");
+        assertThat(registry.get("jds.profile-finder.pagination.stopped").tag("reason", "loop").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void next_linkBackToSeenUrl_notFetched() {
+        page("https://www.example.edu/people/", "Ada", "https://example.edu/people/?page=2");
+        page("https://example.edu/people/?page=2", "Grace", "https://example.edu/people/?utm_source=pager");
+
+        PagePrefetcher pages = prefetcher(null, 1);
+        pages.start(fetch("https://www.example.edu/people/"), content("https://www.example.edu/people/"));
+
+        assertThat(texts(pages)).containsExactly("Grace");
+        assertThat(fetched).hasSize(1);
+    }
+
+    @Test
+    void next_notPipelined_fetchesEachPageOnlyWhenAskedFor() {
+        page("https://example.edu/people?page=1", "Ada", "https://example.edu/people?page=2");
+        page("https://example.edu/people?page=2", "Grace", "https://example.edu/people?page=3");
+        page("https://example.edu/people?page=3", "Alan", null);
+
+        PagePrefetcher pages = prefetcher(null, 2);
+        pages.start(fetch("https://example.edu/people?page=1"), content("https://example.edu/people?page=1"));
+        assertThat(fetched).isEmpty();
+
+        assertThat(pages.next().content().text()).isEqualTo("Grace");
+        assertThat(fetched).containsExactly("https://example.edu/people?page=2");
+        assertThat(pages.next().content().text()).isEqualTo("Alan");
+        assertThat(pages.next()).isNull();
+    }
+
+    @Test
+    void next_pipelinedContentLookupFails_stopsAsFailed() throws Exception {
+        page("https://example.edu/people?page=1", "Ada", "https://example.edu/people?page=2");
+        page("https://example.edu/people?page=2", "Grace", "https://example.edu/people?page=3");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        PagePrefetcher pages = new PagePrefetcher(executor, 2, 100, this::fetch, page -> {
+            throw new IllegalStateException("No content found on " + page.location());
+        }, content -> "https://example.edu/people?page=2", registry);
+        try {
+            pages.start(fetch("https://example.edu/people?page=1"), content("https://example.edu/people?page=1"));
+
+            assertThat(CompletableFuture.supplyAsync(pages::next).get(1, TimeUnit.SECONDS)).isNull();
+            assertThat(registry.get("jds.profile-finder.pagination.stopped").tag("reason", "failed").counter().count())
+                    .isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void start_pipelined_fetchesAheadUpToLimit() {
+        for (int i = 1; i <= 5; i++) {
+            page("https://example.edu/people?page=" + i, "Person " + i,
+                    i < 5 ? "https://example.edu/people?page=" + (i + 1) : null);
+        }
+
+        PagePrefetcher pages = prefetcher(scheduled::add, 2);
+        pages.start(fetch("https://example.edu/people?page=1"), content("https://example.edu/people?page=1"));
+        runScheduled();
+
+        // Pages 2 and 3 are fetched while page 1 is still being extracted, and no further
+        assertThat(fetched).containsExactly("https://example.edu/people?page=2", "https://example.edu/people?page=3");
+
+        assertThat(pages.next().content().text()).isEqualTo("Person 2");
+        runScheduled();
+        assertThat(fetched).hasSize(3);
+        assertThat(pages.next().content().text()).isEqualTo("Person 3");
+        runScheduled();
+        assertThat(pages.next().content().text()).isEqualTo("Person 4");
+        runScheduled();
+        assertThat(pages.next().content().text()).isEqualTo("Person 5");
+        assertThat(pages.next()).isNull();
+    }
+
+    @Test
+    void start_executorShutDown_stopsAsRejected() {
+        page("https://example.edu/people?page=1", "Ada", "https://example.edu/people?page=2");
+        page("https://example.edu/people?page=2", "Grace", null);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+
+        PagePrefetcher pages = prefetcher(executor, 1);
+        pages.start(fetch("https://example.edu/people?page=1"), content("https://example.edu/people?page=1"));
+
+        assertThat(pages.next()).isNull();
+        assertThat(fetched).isEmpty();
+        assertThat(registry.get("jds.profile-finder.pagination.stopped").tag("reason", "rejected").counter().count())
+                .isEqualTo(1);
+    }
+
+    PagePrefetcher prefetcher(Executor executor, int maxPagesInFlight) {
+        return new PagePrefetcher(executor, maxPagesInFlight, 100, url -> {
+            fetched.add(url);
+            return fetch(url);
+        }, page -> page.document().selectFirst("main"), content -> {
+            Element next = content.parent().selectFirst("a.next");
+            return next != null ? next.absUrl("href") : null;
+        }, registry);
+    }
+
+    void page(String url, String person, String nextUrl) {
+        site.put(url, "<main>" + person + "</main>"
+                + (nextUrl != null ? "<a class=\"next\" href=\"" + nextUrl + "\">Next</a>" : ""));
+    }
+
+    FinderClientResponse fetch(String url) {
+        return new FinderClientResponse(Jsoup.parse(site.get(url), url));
+    }
+
+    Element content(String url) {
+        return fetch(url).document().selectFirst("main");
+    }
+
+    void runScheduled() {
+        Runnable task;
+        while ((task = scheduled.poll()) != null) {
+            task.run();
+        }
+    }
+
+    static List<String> texts(PagePrefetcher pages) {
+        List<String> texts = new ArrayList<>();
+        PagePrefetcher.Page page;
+        while ((page = pages.next()) != null) {
+            texts.add(page.content().text());
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.aaejo.profilefinder.finder;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.github.aaejo.profilefinder.finder.configuration.CrawlingProperties;
+import io.github.aaejo.profilefinder.finder.configuration.PaginationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ProfileFinderTests {
+
+    CrawlingProperties cProps = new CrawlingProperties(false, 0.0001, new String[0], 0, 0, null);
+    ProfileFinder profileFinder = new ProfileFinder(null, null,
+            new ProfileHtmlMinifier(ProfileHtmlMinifier.Level.NONE), new PaginationProperties(false, 1, 100), null, cProps,
+            new SimpleMeterRegistry());
+
+    @ParameterizedTest
+    @ValueSource(strings = { "queens-philosophy.html", "mit-philosophy.html", "harvard-philosophy.html",
+            "berkeley-philosophy.html", "uah-philosophy.html", "nazereth-philosophy-major.html",
+            "nazereth-philosophy.html" })
+    void blockContainers_examplePages_largestMatchesFullScan(String file) throws IOException {
+        Element content = Jsoup.parse(new File("src/test/resources/department-examples/" + file), "UTF-8").body();
+
+        int mostBlockChildren = content.getAllElements().stream()
+                .mapToInt(e -> (int) e.children().stream().filter(c -> c.tag().isBlock()).count())
+                .max().getAsInt();
+        List<ProfileFinder.BlockContainer> containers = profileFinder.blockContainers(content, 4);
+
+        assertThat(containers).hasSizeLessThanOrEqualTo(4);
+        assertThat(containers.get(0).blockChildren()).isEqualTo(mostBlockChildren);
+        assertThat(containers).isSortedAccordingTo((a, b) -> Integer.compare(b.blockChildren(), a.blockChildren()));
+    }
+
+    @Test
+    void commonTagStrategy_singleList_takesCommonTagOnly() {
+        Element content = Jsoup.parse("""
+                <main>
+                  <div class="people">
+                    <h2>Faculty</h2>
+                    <div class="person">Ada Lovelace</div>
+                    <div class="person">Grace Hopper</div>
+                    <div class="person">Alan Turing</div>
+                  </div>
+                  <ul><li>Home</li><li>About</li></ul>
+                </main>
+                """).selectFirst("main");
+
+        assertThat(profileFinder.commonTagStrategy(content)).extracting(Element::text)
+                .containsExactly("Ada Lovelace", "Grace Hopper", "Alan Turing");
+    }
+
+    @Test
+    void commonTagStrategy_sectionsFromSameTemplate_allTakenInPageOrder() {
+        Element content = Jsoup.parse("""
+                <main>
+                  <h2>Professors</h2>
+                  <div class="people">
+                    <p>Ada Lovelace</p><p>Grace Hopper</p><p>Alan Turing</p><p>Barbara Liskov</p>
+                    <p>Edsger Dijkstra</p><p>John McCarthy</p><p>Frances Allen</p>
+                  </div>
+                  <h2>Lecturers</h2>
+                  <div class="people">
+                    <p>Tony Hoare</p><p>Niklaus Wirth</p><p>Robin Milner</p><p>Leslie Lamport</p>
+                  </div>
+                  <div class="menu"><p>Home</p><p>About</p><p>News</p><p>Events</p></div>
+                  <div class="people"><p>Donald Knuth</p></div>
+                </main>
+                """).selectFirst("main");
+
+        assertThat(profileFinder.commonTagStrategy(content)).extracting(Element::text)
+                .containsExactly("Ada Lovelace", "Grace Hopper", "Alan Turing", "Barbara Liskov", "Edsger Dijkstra",
+                        "John McCarthy", "Frances Allen", "Tony Hoare", "Niklaus Wirth", "Robin Milner",
+                        "Leslie Lamport");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "queens-philosophy.html", "mit-philosophy.html", "harvard-philosophy.html",
+            "berkeley-philosophy.html", "uah-philosophy.html", "nazereth-philosophy-major.html",
+            "nazereth-philosophy.html" })
+    void commonTagStrategy_examplePages_sameAsLegacy(String file) throws IOException {
+        Element content = Jsoup.parse(new File("src/test/resources/department-examples/" + file), "UTF-8").body();
+
+        assertThat(profileFinder.commonTagStrategy(content))
+                .containsExactlyElementsOf(LegacyCommonTagStrategy.commonTagStrategy(content));
+    }
+
+    @Test
+    void commonTagStrategy_unclassedContainers_mergedOnlyWithSameEntryShape() {
+        Element content = Jsoup.parse("""
+                <main>
+                  <div>
+                    <div><h3>Ada Lovelace</h3><p>Professor</p></div>
+                    <div><h3>Grace Hopper</h3><p>Professor</p></div>
+                    <div><h3>Alan Turing</h3><p>Lecturer</p></div>
+                    <div><h3>Barbara Liskov</h3><p>Lecturer</p></div>
+                  </div>
+                  <div>
+                    <div><a>Home</a></div><div><a>About</a></div><div><a>News</a></div>
+                  </div>
+                  <div>
+                    <div><h3>Tony Hoare</h3><p>Emeritus</p></div>
+                    <div><h3>Niklaus Wirth</h3><p>Emeritus</p></div>
+                  </div>
+                </main>
+                """).selectFirst("main");
+
+        assertThat(profileFinder.commonTagStrategy(content)).extracting(entry -> entry.selectFirst("h3").text())
+                .containsExactly("Ada Lovelace", "Grace Hopper", "Alan Turing", "Barbara Liskov", "Tony Hoare",
+                        "Niklaus Wirth");
+    }
+
+    @Test
+    void commonTagStrategy_noBlockChildren_nothingFound() {
+        Element content = Jsoup.parse("<p>Nothing <b>to</b> see</p>").selectFirst("p");
+
+        assertThat(profileFinder.commonTagStrategy(content)).isEmpty();
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.aaejo.profilefinder.finder;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Test;
+
+public class ProfileHtmlMinifierTests {
+
+    static final String PROFILE = """
+            <div class="person" style="margin: 0" data-track="card-17">
+              <!-- generated by the CMS -->
+              <svg class="icon"><title>Person</title><path d="M0 0h24v24H0z"/></svg>
+              <script>track('card-17')</script>
+              <img src="/img/ada.jpg" alt="Ada Lovelace" width="120" onerror="fallback(this)">
+              <div class="name"><a href="/people/ada" class="link" onclick="go()">Ada   Lovelace</a></div>
+              <div class="title"><span class="label">Professor</span></div>
+              <a href="mailto:ada@example.edu">Email</a> <a href="tel:+1-555-0100">Call</a>
+              <a href="javascript:void(0)">More</a>
+            </div>
+            """;
+
+    Element profile() {
+        return Jsoup.parse(PROFILE, "https://example.edu/philosophy/people").selectFirst(".person");
+    }
+
+    @Test
+    void minify_none_unchanged() {
+        Element element = profile();
+
+        assertThat(new ProfileHtmlMinifier(ProfileHtmlMinifier.Level.NONE).minify(element))
+                .isEqualTo(element.outerHtml());
+    }
+
+    @Test
+    void minify_attributes_keepsLinksAndTextOnly() {
+        String html = new ProfileHtmlMinifier(ProfileHtmlMinifier.Level.ATTRIBUTES).minify(profile());
+
+        assertThat(html).doesNotContain("class=", "style=", "data-track", "onclick", "<svg", "<script", "<!--",
+                "javascript:", "   ");
+        assertThat(html).contains("<img src=\"https://example.edu/img/ada.jpg\" alt=\"Ada Lovelace\">",
+                "<a href=\"https://example.edu/people/ada\">Ada Lovelace</a>",
+                "<a href=\"mailto:ada@example.edu\">Email</a>", "<a href=\"tel:+1-555-0100\">Call</a>",
+                "<span>Professor</span>");
+    }
+
+    @Test
+    void minify_semantic_unwrapsLayoutElements() {
+        Element element = profile();
+        String html = new ProfileHtmlMinifier(ProfileHtmlMinifier.Level.SEMANTIC).minify(element);
+
+        assertThat(html).startsWith("<div>").doesNotContain("<span", "  ");
+        assertThat(Jsoup.parse(html).select("div")).hasSize(1);
+        assertThat(Jsoup.parse(html).text()).isEqualTo("Ada Lovelace Professor Email Call More");
+        assertThat(html.length()).isLessThan(element.outerHtml().length() / 2);
+        // The page's own element is left as it was
+        assertThat(element.hasClass("person")).isTrue();
+    }
+}
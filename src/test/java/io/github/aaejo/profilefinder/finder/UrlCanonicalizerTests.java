@@ -0,0 +1,56 @@
+package io.github.aaejo.profilefinder.finder;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class UrlCanonicalizerTests {
+
+    @Test
+    void canonicalize_variationsOfSamePage_areEqual() {
+        String canonical = UrlCanonicalizer.canonicalize("https://www.queensu.ca/philosophy");
+
+        assertThat(UrlCanonicalizer.canonicalize("http://www.queensu.ca/philosophy")).isEqualTo(canonical);
+        assertThat(UrlCanonicalizer.canonicalize("https://queensu.ca/philosophy/")).isEqualTo(canonical);
+        assertThat(UrlCanonicalizer.canonicalize("https://WWW.QueensU.ca:443/philosophy#main-content")).isEqualTo(canonical);
+        assertThat(UrlCanonicalizer.canonicalize("https://www.queensu.ca/philosophy?utm_source=news&fbclid=abc"))
+                .isEqualTo(canonical);
+    }
+
+    @Test
+    void canonicalize_queryParameters_areSortedAndKept() {
+        assertThat(UrlCanonicalizer.canonicalize("https://example.edu/people?page=2&type=faculty&utm_medium=email"))
+                .isEqualTo("example.edu/people?page=2&type=faculty");
+        assertThat(UrlCanonicalizer.canonicalize("https://example.edu/people?type=faculty&page=2"))
+                .isEqualTo("example.edu/people?page=2&type=faculty");
+    }
+
+    @Test
+    void canonicalize_differentPages_areNotEqual() {
+        assertThat(UrlCanonicalizer.canonicalize("https://example.edu/philosophy"))
+                .isNotEqualTo(UrlCanonicalizer.canonicalize("https://example.edu/Philosophy"));
+        assertThat(UrlCanonicalizer.canonicalize("https://example.edu:8080/philosophy"))
+                .isNotEqualTo(UrlCanonicalizer.canonicalize("https://example.edu/philosophy"));
+        assertThat(UrlCanonicalizer.canonicalize("https://philosophy.example.edu"))
+                .isNotEqualTo(UrlCanonicalizer.canonicalize("https://example.edu/philosophy"));
+    }
+
+    @Test
+    void canonicalize_unparseable_returnsTrimmedWithoutFragment() {
+        assertThat(UrlCanonicalizer.canonicalize(" https://example.edu/a b#top ")).isEqualTo("https://example.edu/a b");
+        assertThat(UrlCanonicalizer.canonicalize("mailto:someone@example.edu")).isEqualTo("mailto:someone@example.edu");
+    }
+
+    @Test
+    void checkedLinks_variationsOfCheckedUrl_areContained() {
+        CheckedLinks checkedLinks = new CheckedLinks();
+        checkedLinks.add("https://www.example.edu/philosophy/", 0.5);
+        checkedLinks.add("http://example.edu/philosophy#people", 1.2);
+        checkedLinks.add("https://example.edu/arts", 0.9);
+
+        assertThat(checkedLinks).hasSize(2);
+        assertThat(checkedLinks.contains("https://example.edu/philosophy")).isTrue();
+        assertThat(checkedLinks.getBest().url()).isEqualTo("http://example.edu/philosophy#people");
+        assertThat(checkedLinks.getBest().weight()).isEqualTo(1.2);
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.aaejo.profilefinder.finder.checkpoint;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.aaejo.messaging.records.Institution;
+
+public class FileCheckpointStoreTests {
+
+    static final Instant NOW = Instant.parse("2023-05-01T00:00:00Z");
+    static final Institution INSTITUTION = new Institution("Example University", "USA", "1 College Ave",
+            "https://www.example.edu");
+
+    @TempDir
+    Path directory;
+
+    FileCheckpointStore store(Instant now) {
+        return new FileCheckpointStore(directory, Duration.ofDays(1), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void load_savedStages_resumesFromLatest() {
+        StageCheckpoint department = StageCheckpoint.department("https://www.example.edu/philosophy", 2.1,
+                NOW.toEpochMilli());
+        store(NOW).save(INSTITUTION, department);
+
+        StageCheckpoint loaded = store(NOW).load(INSTITUTION).orElseThrow();
+        assertThat(loaded).isEqualTo(department);
+        assertThat(loaded.hasFacultyList()).isFalse();
+        assertThat(loaded.resumeUrl()).isEqualTo("https://www.example.edu/philosophy");
+
+        store(NOW).save(INSTITUTION, loaded.withFacultyList("https://www.example.edu/philosophy/people", 3.2,
+                NOW.toEpochMilli()));
+
+        loaded = store(NOW).load(INSTITUTION).orElseThrow();
+        assertThat(loaded.hasFacultyList()).isTrue();
+        assertThat(loaded.resumeUrl()).isEqualTo("https://www.example.edu/philosophy/people");
+        assertThat(loaded.departmentConfidence()).isEqualTo(2.1);
+    }
+
+    @Test
+    void load_facultyListWithoutDepartment_roundTrips() {
+        StageCheckpoint checkpoint = new StageCheckpoint(null, Double.NaN, "https://www.example.edu/people", 1.8,
+                NOW.toEpochMilli());
+        store(NOW).save(INSTITUTION, checkpoint);
+
+        assertThat(store(NOW).load(INSTITUTION)).contains(checkpoint);
+    }
+
+    @Test
+    void load_expiredOrCleared_empty() {
+        store(NOW).save(INSTITUTION, StageCheckpoint.department("https://www.example.edu/philosophy", 2.1,
+                NOW.toEpochMilli()));
+
+        assertThat(store(NOW.plus(Duration.ofDays(2))).load(INSTITUTION)).isEmpty();
+        assertThat(directory).isEmptyDirectory();
+
+        store(NOW).save(INSTITUTION, StageCheckpoint.department("https://www.example.edu/philosophy", 2.1,
+                NOW.toEpochMilli()));
+        store(NOW).clear(INSTITUTION);
+        assertThat(store(NOW).load(INSTITUTION)).isEmpty();
+    }
+
+    @Test
+    void save_expiredCheckpointsOfOtherInstitutions_sweptUp() throws IOException {
+        store(NOW).save(INSTITUTION, StageCheckpoint.department("https://www.example.edu/philosophy", 2.1,
+                NOW.toEpochMilli()));
+        Path stale = Files.createTempFile(directory, "checkpoint-", ".tmp");
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.setLastModifiedTime(file, FileTime.from(NOW.minus(Duration.ofDays(2))));
+            }
+        }
+
+        Institution other = new Institution("Other College", "USA", "2 College Ave", "https://www.other.edu");
+        store(NOW).save(other, StageCheckpoint.department("https://www.other.edu/philosophy", 1.9,
+                NOW.toEpochMilli()));
+
+        assertThat(stale).doesNotExist();
+        assertThat(store(NOW).load(INSTITUTION)).isEmpty();
+        assertThat(store(NOW).load(other)).isPresent();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).hasSize(1);
+        }
+    }
+
+    @Test
+    void load_unreadable_empty() throws IOException {
+        store(NOW).save(INSTITUTION, StageCheckpoint.department("https://www.example.edu/philosophy", 2.1,
+                NOW.toEpochMilli()));
+        try (Stream<Path> files = Files.list(directory)) {
+            Files.writeString(files.findFirst().orElseThrow(), "{ not json");
+        }
+
+        assertThat(store(NOW).load(INSTITUTION)).isEmpty();
+        assertThat(directory).isEmptyDirectory();
+    }
+}
@@ -0,0 +1,144 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.net.ssl.SSLHandshakeException;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AimdFetchLimiterTests {
+
+    static final String URL = "https://www.example.edu/philosophy";
+    static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    AimdFetchLimiter limiter = new AimdFetchLimiter(2, 1, 8, 0.5, 3.0, registry);
+
+    @Test
+    void release_flatLatency_limitIncreasesToMax() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire(URL).release(response(200), 100 * MS);
+        }
+
+        assertThat(limiter.getLimit("example.edu")).isEqualTo(8);
+        assertThat(registry.get("jds.profile-finder.fetch-limiter.limit").tag("host", "example.edu").gauge().value())
+                .isEqualTo(8);
+    }
+
+    @Test
+    void release_overloadSignals_limitCut() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire(URL).release(response(200), 100 * MS);
+        }
+
+        limiter.acquire(URL).release(response(503), 100 * MS);
+        assertThat(limiter.getLimit("example.edu")).isEqualTo(4);
+
+        limiter.acquire(URL).release(new FinderClientResponse(null, -1,
+                Optional.of(new SocketTimeoutException())), 100 * MS);
+        assertThat(limiter.getLimit("example.edu")).isEqualTo(2);
+
+        limiter.acquire(URL).release(response(200), 1000 * MS); // Latency spike
+        assertThat(limiter.getLimit("example.edu")).isEqualTo(1);
+
+        limiter.acquire(URL).release(response(429), 100 * MS);
+        assertThat(limiter.getLimit("example.edu")).isEqualTo(1);
+    }
+
+    @Test
+    void release_connectionReset_limitCut() throws InterruptedException {
+        limiter.acquire(URL).release(new FinderClientResponse(null, -1,
+                Optional.of(new IOException(new SocketException("Connection reset")))), 100 * MS);
+
+        assertThat(limiter.getLimit("example.edu")).isEqualTo(1);
+    }
+
+    @Test
+    void release_failureUnrelatedToLoad_limitUnchanged() throws InterruptedException {
+        for (Exception failure : List.of(new UnknownHostException("www.example.edu"),
+                new SSLHandshakeException("PKIX path building failed"), new IllegalArgumentException("Illegal URL"),
+                new ConnectException("Connection refused"))) {
+            limiter.acquire(URL).release(new FinderClientResponse(null, -1, Optional.of(failure)), 100 * MS);
+        }
+
+        assertThat(limiter.getLimit("example.edu")).isEqualTo(2);
+    }
+
+    @Test
+    void acquire_atLimit_waitsForRelease() throws Exception {
+        FetchLimiter.Permit first = limiter.acquire(URL);
+        FetchLimiter.Permit second = limiter.acquire(URL);
+
+        CompletableFuture<FetchLimiter.Permit> third = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire(URL);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThatExceptionOfType(TimeoutException.class).isThrownBy(() -> third.get(200, TimeUnit.MILLISECONDS));
+
+        first.release(response(200), 100 * MS);
+        third.get(1, TimeUnit.SECONDS).release(response(200), 100 * MS);
+        second.release(response(200), 100 * MS);
+    }
+
+    @Test
+    void acquireAsync_atLimit_grantedByRelease() throws Exception {
+        FetchLimiter.Permit first = limiter.acquireAsync(URL).get(1, TimeUnit.SECONDS);
+        FetchLimiter.Permit second = limiter.acquireAsync(URL).get(1, TimeUnit.SECONDS);
+
+        CompletableFuture<FetchLimiter.Permit> cancelled = limiter.acquireAsync(URL);
+        CompletableFuture<FetchLimiter.Permit> fourth = limiter.acquireAsync(URL);
+        assertThat(fourth).isNotDone();
+        cancelled.cancel(false);
+
+        first.release(response(200), 100 * MS);
+        assertThat(fourth).isCompleted();
+        fourth.get().release(response(200), 100 * MS);
+        second.release(response(200), 100 * MS);
+
+        limiter.evictIdleHosts(System.nanoTime() + TimeUnit.MINUTES.toNanos(10));
+        assertThat(registry.find("jds.profile-finder.fetch-limiter.limit").tag("host", "example.edu").gauge())
+                .isNull();
+    }
+
+    @Test
+    void evictIdleHosts_idleHost_limitAndGaugeDropped() throws InterruptedException {
+        limiter.acquire(URL).release(response(503), 100 * MS);
+        FetchLimiter.Permit busy = limiter.acquire("https://www.example.com/");
+        assertThat(limiter.getLimit("example.edu")).isEqualTo(1);
+
+        limiter.evictIdleHosts(System.nanoTime() + TimeUnit.MINUTES.toNanos(10));
+
+        assertThat(limiter.getLimit("example.edu")).isEqualTo(2);
+        assertThat(registry.find("jds.profile-finder.fetch-limiter.limit").tag("host", "example.edu").gauge())
+                .isNull();
+        assertThat(registry.find("jds.profile-finder.fetch-limiter.limit").tag("host", "example.com").gauge())
+                .isNotNull();
+        busy.release(response(200), 100 * MS);
+
+        limiter.acquire(URL).release(response(200), 100 * MS);
+        assertThat(registry.get("jds.profile-finder.fetch-limiter.limit").tag("host", "example.edu").gauge().value())
+                .isEqualTo(2);
+    }
+
+    static FinderClientResponse response(int status) {
+        return new FinderClientResponse(Jsoup.parse("<html></html>", URL), status, Optional.empty());
+    }
+}
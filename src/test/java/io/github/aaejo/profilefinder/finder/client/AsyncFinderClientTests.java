@@ -0,0 +1,176 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.jsoup.Jsoup;
+import org.jsoup.UnsupportedMimeTypeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.github.aaejo.finder.client.FinderClientProperties;
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AsyncFinderClientTests {
+
+    static final String PAGE = "<html><head><title>Philosophy Faculty</title></head><body><h1>Faculty</h1></body></html>";
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    HttpServer server;
+    String base;
+    AsyncFinderClient client;
+    AtomicInteger privateFetches = new AtomicInteger();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/plain", exchange -> respond(exchange, 200, "text/html; charset=UTF-8", null,
+                PAGE.getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/gzip", exchange -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (OutputStream gzip = new GZIPOutputStream(bytes)) {
+                gzip.write(PAGE.getBytes(StandardCharsets.UTF_8));
+            }
+            respond(exchange, 200, "text/html", "gzip", bytes.toByteArray());
+        });
+        server.createContext("/deflate", exchange -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (OutputStream deflate = new DeflaterOutputStream(bytes)) {
+                deflate.write(PAGE.getBytes(StandardCharsets.UTF_8));
+            }
+            respond(exchange, 200, "text/html", "deflate", bytes.toByteArray());
+        });
+        server.createContext("/moved", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/plain");
+            respond(exchange, 301, "text/html", null, new byte[0]);
+        });
+        server.createContext("/missing", exchange -> respond(exchange, 404, "text/html", null,
+                "<html><body>Not Found</body></html>".getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/cv.pdf", exchange -> respond(exchange, 200, "application/pdf", null,
+                "%PDF-1.4".getBytes(StandardCharsets.US_ASCII)));
+        server.createContext("/robots.txt", exchange -> respond(exchange, 200, "text/plain", null,
+                "User-agent: *\nDisallow: /private\n".getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/private", exchange -> {
+            privateFetches.incrementAndGet();
+            respond(exchange, 200, "text/html", null, PAGE.getBytes(StandardCharsets.UTF_8));
+        });
+        server.start();
+
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+        client = new AsyncFinderClient(Jsoup.newSession(), new FinderClientProperties(), Duration.ofSeconds(5),
+                Duration.ofSeconds(5), true, "profile-finder-test", 2,
+                new HtmlIngest(1024 * 1024, Set.of("script", "style", "svg"), true, registry),
+                new RobotsRules(Duration.ofSeconds(5), "profile-finder-test", Duration.ofDays(1), 16));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void get_compressedResponses_decoded() {
+        for (String path : List.of("/plain", "/gzip", "/deflate")) {
+            FinderClientResponse response = client.get(base + path);
+
+            assertThat(response.isSuccess()).as(path).isTrue();
+            assertThat(response.document().title()).as(path).isEqualTo("Philosophy Faculty");
+        }
+    }
+
+    @Test
+    void get_redirect_locationIsFinalUrl() {
+        FinderClientResponse response = client.get(base + "/moved");
+
+        assertThat(response.status()).isEqualTo(200);
+        assertThat(response.location()).isEqualTo(base + "/plain");
+    }
+
+    @Test
+    void get_httpError_returnsPageWithStatus() {
+        FinderClientResponse response = client.get(base + "/missing");
+
+        assertThat(response.status()).isEqualTo(404);
+        assertThat(response.document().text()).isEqualTo("Not Found");
+    }
+
+    @Test
+    void get_unsupportedContentType_failedResponse() {
+        FinderClientResponse response = client.get(base + "/cv.pdf");
+
+        assertThat(response.document()).isNull();
+        assertThat(response.exception()).containsInstanceOf(UnsupportedMimeTypeException.class);
+        assertThat(registry.get("jds.profile-finder.ingest.rejected").tag("reason", "content-type").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void get_disallowedByRobots_notFetched() {
+        for (FinderClientResponse response : List.of(client.get(base + "/private/staff"),
+                client.get(base + "/private", true), client.getAsync(base + "/private").join())) {
+            assertThat(response.document()).isNull();
+            assertThat(response.exception()).get().extracting(Throwable::getMessage).asString()
+                    .contains("disallowed by robots.txt");
+        }
+        assertThat(privateFetches).hasValue(0);
+    }
+
+    @Test
+    void get_notRespectingRobots_fetchedAnyway() {
+        FinderClientResponse response = client.get(base + "/private", false);
+
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.document().title()).isEqualTo("Philosophy Faculty");
+        assertThat(privateFetches).hasValue(1);
+    }
+
+    @Test
+    void getAsync_unreachableHost_completesWithFailedResponse() {
+        server.stop(0);
+
+        FinderClientResponse response = client.getAsync(base + "/plain").join();
+
+        assertThat(response.status()).isEqualTo(-1);
+        assertThat(response.exception()).containsInstanceOf(IOException.class);
+    }
+
+    @Test
+    void getAsync_manyInFlight_allComplete() {
+        List<CompletableFuture<FinderClientResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(client.getAsync(base + (i % 2 == 0 ? "/plain" : "/gzip")));
+        }
+
+        assertThat(futures).allSatisfy(future -> assertThat(future.join().isSuccess()).isTrue());
+    }
+
+    static void respond(HttpExchange exchange, int status, String contentType, String contentEncoding, byte[] body)
+            throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        if (contentEncoding != null) {
+            exchange.getResponseHeaders().add("Content-Encoding", contentEncoding);
+        }
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
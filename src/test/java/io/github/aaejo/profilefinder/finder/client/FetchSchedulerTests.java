@@ -0,0 +1,120 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class FetchSchedulerTests {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void acquire_overRate_pacedByTokenBucket() throws InterruptedException {
+        FetchScheduler scheduler = new FetchScheduler(20, 1, 0, 0, Map.of(), registry);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            scheduler.acquire("https://example.edu/page-" + i).close();
+        }
+
+        // First fetch uses the burst token, the rest wait 50ms each
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(190));
+        assertThat(registry.get("jds.profile-finder.fetch-scheduler.wait").tag("host", "example.edu").timer().count())
+                .isEqualTo(5);
+    }
+
+    @Test
+    void acquire_busyHost_otherHostsNotBlocked() throws Exception {
+        FetchScheduler scheduler = new FetchScheduler(0, 1, 1, 0, Map.of(), registry);
+        FetchScheduler.Permit slowFetch = scheduler.acquire("https://slow.example.edu/a");
+
+        CompletableFuture<FetchScheduler.Permit> queuedOnSlowHost = CompletableFuture.supplyAsync(() -> {
+            try {
+                return scheduler.acquire("https://slow.example.edu/b");
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        FetchScheduler.Permit fastFetch = CompletableFuture.supplyAsync(() -> {
+            try {
+                return scheduler.acquire("https://fast.example.edu/a");
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }).get(1, TimeUnit.SECONDS);
+
+        assertThatExceptionOfType(TimeoutException.class)
+                .isThrownBy(() -> queuedOnSlowHost.get(200, TimeUnit.MILLISECONDS));
+        assertThat(registry.get("jds.profile-finder.fetch-scheduler.queue-depth").tag("host", "slow.example.edu")
+                .gauge().value()).isEqualTo(1);
+
+        slowFetch.close();
+        queuedOnSlowHost.get(1, TimeUnit.SECONDS).close();
+        fastFetch.close();
+        assertThat(scheduler.getInFlight()).isZero();
+    }
+
+    @Test
+    void acquire_withCrawlDelay_waitsForDelay() throws InterruptedException {
+        FetchScheduler scheduler = new FetchScheduler(0, 10, 0, 0, Map.of(), registry);
+        scheduler.setCrawlDelay("www.example.edu", Duration.ofMillis(100));
+
+        long start = System.nanoTime();
+        scheduler.acquire("https://example.edu/a").close();
+        scheduler.acquire("https://www.example.edu/b").close();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(95));
+    }
+
+    @Test
+    void acquireAsync_overRate_grantedWhenTokenDue() throws Exception {
+        FetchScheduler scheduler = new FetchScheduler(10, 1, 0, 0, Map.of(), registry);
+        scheduler.acquireAsync("https://example.edu/a").get(1, TimeUnit.SECONDS).close();
+
+        long start = System.nanoTime();
+        CompletableFuture<FetchScheduler.Permit> second = scheduler.acquireAsync("https://example.edu/b");
+        assertThat(second).isNotDone();
+
+        second.get(1, TimeUnit.SECONDS).close();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(90));
+        assertThat(registry.get("jds.profile-finder.fetch-scheduler.wait").tag("host", "example.edu").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void acquireAsync_busyHost_grantedOnRelease() throws Exception {
+        FetchScheduler scheduler = new FetchScheduler(0, 1, 1, 0, Map.of(), registry);
+        FetchScheduler.Permit first = scheduler.acquire("https://example.edu/a");
+
+        CompletableFuture<FetchScheduler.Permit> second = scheduler.acquireAsync("https://example.edu/b");
+        assertThatExceptionOfType(TimeoutException.class).isThrownBy(() -> second.get(200, TimeUnit.MILLISECONDS));
+
+        first.close();
+        second.get(1, TimeUnit.SECONDS).close();
+        assertThat(scheduler.getInFlight()).isZero();
+    }
+
+    @Test
+    void acquireAsync_cancelled_leavesQueue() throws Exception {
+        FetchScheduler scheduler = new FetchScheduler(0, 1, 1, 0, Map.of(), registry);
+        FetchScheduler.Permit first = scheduler.acquire("https://example.edu/a");
+
+        CompletableFuture<FetchScheduler.Permit> cancelled = scheduler.acquireAsync("https://example.edu/b");
+        CompletableFuture<FetchScheduler.Permit> third = scheduler.acquireAsync("https://example.edu/c");
+        cancelled.cancel(false);
+        assertThat(registry.get("jds.profile-finder.fetch-scheduler.queue-depth").tag("host", "example.edu")
+                .gauge().value()).isEqualTo(1);
+
+        first.close();
+        third.get(1, TimeUnit.SECONDS).close();
+        assertThat(scheduler.getInFlight()).isZero();
+    }
+}
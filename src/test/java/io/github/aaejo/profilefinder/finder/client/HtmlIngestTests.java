@@ -0,0 +1,101 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class HtmlIngestTests {
+
+    static final List<String> EXAMPLES = List.of("berkeley-philosophy.html", "harvard-philosophy.html",
+            "mit-philosophy.html", "nazereth-philosophy-major.html", "nazereth-philosophy.html",
+            "queens-philosophy.html");
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    HtmlIngest ingest = new HtmlIngest(1024 * 1024, Set.of("script", "style", "svg"), true, registry);
+
+    @Test
+    void parse_examplePages_keepsWhatFindersUse() throws IOException {
+        for (String example : EXAMPLES) {
+            byte[] html = Files.readAllBytes(new File("src/test/resources/department-examples/" + example).toPath());
+            Document full = Jsoup.parse(new ByteArrayInputStream(html), null, "https://example.edu/philosophy");
+
+            Document ingested = ingest.parse(new ByteArrayInputStream(html), null, "https://example.edu/philosophy");
+
+            assertThat(ingested.select("script, style, svg")).as(example).isEmpty();
+            assertThat(ingested.title()).as(example).isEqualTo(full.title());
+            assertThat(texts(ingested, "h1, h2, h3, h4, h5, h6")).as(example)
+                    .isEqualTo(texts(full, "h1, h2, h3, h4, h5, h6"));
+            assertThat(ingested.select("a[href]").eachAttr("abs:href")).as(example)
+                    .isEqualTo(full.select("a[href]").eachAttr("abs:href"));
+            assertThat(ingested.select("img[alt]").eachAttr("alt")).as(example)
+                    .isEqualTo(full.select("img[alt]").eachAttr("alt"));
+        }
+
+        double downloaded = registry.get("jds.profile-finder.ingest.bytes").tag("kind", "downloaded").summary()
+                .totalAmount();
+        assertThat(downloaded).isPositive();
+        assertThat(registry.get("jds.profile-finder.ingest.bytes").tag("kind", "retained").summary().count())
+                .isEqualTo(EXAMPLES.size());
+    }
+
+    @Test
+    void parse_dataUri_dropped() throws IOException {
+        String html = "<html><body><img src=\"data:image/png;base64,iVBORw0KGgo=\" alt=\"Portrait\">"
+                + "<a href=\"/people\" style=\"color: red\">People</a></body></html>";
+
+        Document document = parse(html);
+
+        assertThat(document.selectFirst("img").attributes().size()).isEqualTo(1);
+        assertThat(document.selectFirst("img").attr("alt")).isEqualTo("Portrait");
+        assertThat(document.selectFirst("a").attr("href")).isEqualTo("/people");
+    }
+
+    @Test
+    void parse_overMaxBodySize_truncated() throws IOException {
+        HtmlIngest small = new HtmlIngest(64, Set.of(), false, registry);
+        String html = "<html><body><p>First</p>" + "<p>Filler</p>".repeat(100) + "<p>Last</p></body></html>";
+
+        Document document = small.parse(new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)), "UTF-8",
+                "https://example.edu/");
+
+        assertThat(document.text()).startsWith("First").doesNotContain("Last");
+        assertThat(registry.get("jds.profile-finder.ingest.truncated").counter().count()).isEqualTo(1);
+        assertThat(registry.get("jds.profile-finder.ingest.bytes").tag("kind", "downloaded").summary().totalAmount())
+                .isEqualTo(64);
+    }
+
+    @Test
+    void reject_byHeaders_rejectedBeforeBody() {
+        assertThat(ingest.reject("text/html; charset=UTF-8", 10_000)).isNull();
+        assertThat(ingest.reject(null, -1)).isNull();
+        assertThat(ingest.reject("application/pdf", 10_000)).isEqualTo("content-type");
+        assertThat(ingest.reject("text/calendar", 2L * 1024 * 1024)).isEqualTo("too-large");
+
+        assertThat(registry.get("jds.profile-finder.ingest.rejected").tag("reason", "content-type").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("jds.profile-finder.ingest.rejected").tag("reason", "too-large").counter().count())
+                .isEqualTo(1);
+    }
+
+    Document parse(String html) throws IOException {
+        return ingest.parse(new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)), "UTF-8",
+                "https://example.edu/");
+    }
+
+    static List<String> texts(Document document, String query) {
+        return document.select(query).stream().map(Element::text).toList();
+    }
+}
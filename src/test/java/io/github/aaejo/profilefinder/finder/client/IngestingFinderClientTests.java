@@ -0,0 +1,96 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.github.aaejo.finder.client.FinderClientProperties;
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class IngestingFinderClientTests {
+
+    static final String PAGE = "<html><head><title>Philosophy Faculty</title><script>track()</script></head>"
+            + "<body><h1>Faculty</h1></body></html>";
+
+    HttpServer server;
+    String base;
+    AtomicInteger privateFetches = new AtomicInteger();
+    IngestingFinderClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/robots.txt", exchange -> respond(exchange, "text/plain",
+                "User-agent: *\nDisallow: /private\n"));
+        server.createContext("/people", exchange -> respond(exchange, "text/html", PAGE));
+        server.createContext("/private", exchange -> {
+            privateFetches.incrementAndGet();
+            respond(exchange, "text/html", PAGE);
+        });
+        server.start();
+
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+        client = new IngestingFinderClient(Jsoup.newSession().ignoreHttpErrors(true), new FinderClientProperties(),
+                new HtmlIngest(1024 * 1024, Set.of("script", "style", "svg"), true, new SimpleMeterRegistry()),
+                new RobotsRules(Duration.ofSeconds(5), null, Duration.ofDays(1), 16));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void get_allowedByRobots_fetchedThroughIngest() {
+        FinderClientResponse response = client.get(base + "/people");
+
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.document().title()).isEqualTo("Philosophy Faculty");
+        assertThat(response.document().select("script")).isEmpty();
+    }
+
+    @Test
+    void get_disallowedByRobots_notFetched() {
+        for (FinderClientResponse response : List.of(client.get(base + "/private/staff"),
+                client.get(base + "/private", true))) {
+            assertThat(response.document()).isNull();
+            assertThat(response.exception()).get().extracting(Throwable::getMessage).asString()
+                    .contains("disallowed by robots.txt");
+        }
+        assertThat(privateFetches).hasValue(0);
+    }
+
+    @Test
+    void get_notRespectingRobots_fetchedThroughIngest() {
+        FinderClientResponse response = client.get(base + "/private", false);
+
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.document().select("script")).isEmpty();
+        assertThat(privateFetches).hasValue(1);
+    }
+
+    static void respond(HttpExchange exchange, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.aaejo.finder.client.FinderClient;
+import io.github.aaejo.finder.client.FinderClientProperties;
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ReplayFinderClientTests {
+
+    @TempDir
+    Path archiveDirectory;
+
+    @Test
+    void get_recordedResponses_replayedFromArchive() {
+        FetchArchive archive = new FetchArchive(archiveDirectory);
+        FinderClient recorder = new RecordingFinderClient(Jsoup.newSession(), new FinderClientProperties(),
+                new FixedFinderClient(), archive);
+        recorder.get("https://example.edu/philosophy");
+        recorder.get("https://example.edu/down");
+        recorder.getSiteMapURLs("https://example.edu");
+
+        ReplayFinderClient replay = new ReplayFinderClient(new FinderClientProperties(), archive, Duration.ZERO,
+                Duration.ZERO, new SimpleMeterRegistry());
+
+        FinderClientResponse page = replay.get("https://example.edu/philosophy");
+        assertThat(page.status()).isEqualTo(200);
+        assertThat(page.location()).isEqualTo("https://example.edu/philosophy/");
+        assertThat(page.document().selectFirst("h1").text()).isEqualTo("Philosophy");
+
+        FinderClientResponse failed = replay.get("https://example.edu/down");
+        assertThat(failed.document()).isNull();
+        assertThat(failed.status()).isEqualTo(-1);
+        assertThat(failed.exception()).get().extracting(Exception::getMessage).asString().contains("timed out");
+
+        assertThat(replay.getSiteMapURLs("https://example.edu"))
+                .containsExactlyInAnyOrder("https://example.edu/a", "https://example.edu/b");
+    }
+
+    @Test
+    void get_unrecordedUrl_failsLikeConnectionError() {
+        ReplayFinderClient replay = new ReplayFinderClient(new FinderClientProperties(),
+                new FetchArchive(archiveDirectory), Duration.ZERO, Duration.ZERO, new SimpleMeterRegistry());
+
+        FinderClientResponse response = replay.get("https://example.edu/never-fetched");
+
+        assertThat(response.status()).isEqualTo(-1);
+        assertThat(response.exception()).get().isInstanceOf(IOException.class);
+        assertThat(replay.getSiteMapURLs("https://example.edu")).isEmpty();
+    }
+
+    @Test
+    void get_withLatency_takesAtLeastLatency() {
+        ReplayFinderClient replay = new ReplayFinderClient(new FinderClientProperties(),
+                new FetchArchive(archiveDirectory), Duration.ofMillis(50), Duration.ofMillis(10),
+                new SimpleMeterRegistry());
+
+        long start = System.nanoTime();
+        replay.get("https://example.edu/never-fetched");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+    }
+
+    private static class FixedFinderClient extends FinderClient {
+
+        FixedFinderClient() {
+            super(Jsoup.newSession(), new FinderClientProperties());
+        }
+
+        @Override
+        public FinderClientResponse get(String url) {
+            if (url.endsWith("/down")) {
+                return new FinderClientResponse(null, -1, Optional.of(new SocketTimeoutException("Read timed out")));
+            }
+            return new FinderClientResponse(
+                    Jsoup.parse("<html><body><h1>Philosophy</h1></body></html>", url + "/"), 200, Optional.empty());
+        }
+
+        @Override
+        public HashSet<String> getSiteMapURLs(String url) {
+            return new HashSet<>(Set.of(url + "/a", url + "/b"));
+        }
+    }
+}
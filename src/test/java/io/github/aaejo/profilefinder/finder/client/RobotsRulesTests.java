@@ -0,0 +1,91 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class RobotsRulesTests {
+
+    HttpServer server;
+    String base;
+    AtomicReference<String> robotsTxt = new AtomicReference<>();
+    AtomicInteger robotsStatus = new AtomicInteger(200);
+    AtomicInteger robotsFetches = new AtomicInteger();
+    RobotsRules robots = new RobotsRules(Duration.ofSeconds(5), "profile-finder/1.1 (+https://example.edu)",
+            Duration.ofDays(1), 16);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/robots.txt", exchange -> {
+            robotsFetches.incrementAndGet();
+            byte[] body = robotsTxt.get().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(robotsStatus.get(), body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void isAllowed_longestMatchWins() {
+        robotsTxt.set("""
+                User-agent: *
+                Disallow: /people
+                Allow: /people/faculty
+                Disallow: /*.pdf$
+                """);
+
+        assertThat(robots.isAllowed(base + "/people/staff")).isFalse();
+        assertThat(robots.isAllowed(base + "/people/faculty/smith")).isTrue();
+        assertThat(robots.isAllowed(base + "/files/cv.pdf")).isFalse();
+        assertThat(robots.isAllowed(base + "/files/cv.pdf?download=1")).isTrue();
+        assertThat(robots.isAllowed(base + "/philosophy")).isTrue();
+        assertThat(robotsFetches).hasValue(1);
+    }
+
+    @Test
+    void isAllowed_groupForProductToken_usedInsteadOfWildcard() {
+        robotsTxt.set("""
+                User-agent: *
+                Disallow: /
+
+                User-agent: other-bot
+                User-agent: Profile-Finder
+                Disallow: /private # Only this
+                """);
+
+        assertThat(robots.isAllowed(base + "/philosophy")).isTrue();
+        assertThat(robots.isAllowed(base + "/private/notes")).isFalse();
+    }
+
+    @Test
+    void isAllowed_missingOrUnreachableRobots() {
+        robotsTxt.set("");
+        robotsStatus.set(404);
+        assertThat(robots.isAllowed(base + "/philosophy")).isTrue();
+
+        RobotsRules fresh = new RobotsRules(Duration.ofSeconds(5), null, Duration.ofDays(1), 16);
+        robotsStatus.set(503);
+        assertThat(fresh.isAllowed(base + "/philosophy")).isFalse();
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+
+import io.github.aaejo.finder.client.FinderClientProperties;
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ScheduledAsyncFinderClientTests {
+
+    static final String URL = "https://www.example.edu/philosophy";
+
+    AsyncFinderClient delegate = mock(AsyncFinderClient.class);
+    FetchScheduler scheduler = new FetchScheduler(0, 1, 1, 0, Map.of(), new SimpleMeterRegistry());
+    ScheduledAsyncFinderClient client = new ScheduledAsyncFinderClient(Jsoup.newSession(),
+            new FinderClientProperties(), delegate, scheduler);
+
+    @Test
+    void getAsync_turnHeldUntilResponse() throws Exception {
+        CompletableFuture<FinderClientResponse> delegateResponse = new CompletableFuture<>();
+        when(delegate.getAsync(URL)).thenReturn(delegateResponse);
+
+        CompletableFuture<FinderClientResponse> response = client.getAsync(URL);
+        assertThat(scheduler.getInFlight()).isEqualTo(1);
+
+        FinderClientResponse page = new FinderClientResponse(Jsoup.parse("<html></html>", URL), 200, Optional.empty());
+        delegateResponse.complete(page);
+        assertThat(response.get(1, TimeUnit.SECONDS)).isSameAs(page);
+        assertThat(scheduler.getInFlight()).isZero();
+    }
+
+    @Test
+    void getAsync_cancelledWhileQueued_neverFetched() throws Exception {
+        FetchScheduler.Permit busy = scheduler.acquire(URL);
+
+        CompletableFuture<FinderClientResponse> response = client.getAsync(URL);
+        response.cancel(false);
+        busy.close();
+
+        verify(delegate, after(200).never()).getAsync(URL);
+        assertThat(scheduler.getInFlight()).isZero();
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.aaejo.profilefinder.finder.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SiteMapReaderTests {
+
+    HttpServer server;
+    String base;
+    SiteMapReader reader;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+        reader = new SiteMapReader(Duration.ofSeconds(5), 1, 0, null, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void read_robotsWithGzippedIndex_readsAllUrls() throws IOException {
+        serve("/robots.txt", "User-agent: *\nDisallow: /private\nSitemap: " + base + "/sitemap-index.xml\n");
+        serve("/sitemap-index.xml", """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <sitemapindex xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+                  <sitemap><loc>%1$s/sitemap-pages.xml.gz</loc></sitemap>
+                  <sitemap><loc>%1$s/sitemap-news.xml</loc></sitemap>
+                </sitemapindex>
+                """.formatted(base));
+        serveGzipped("/sitemap-pages.xml.gz", urlSet("/philosophy", "/history"));
+        serve("/sitemap-news.xml", urlSet("/news/1"));
+
+        List<String> urls = new ArrayList<>();
+        long read = reader.read(base + "/about", urls::add);
+
+        assertThat(read).isEqualTo(3);
+        assertThat(urls).containsExactly(base + "/philosophy", base + "/history", base + "/news/1");
+    }
+
+    @Test
+    void read_noRobots_fallsBackToSitemapXml() throws IOException {
+        serve("/sitemap.xml", urlSet("/philosophy"));
+
+        List<String> urls = new ArrayList<>();
+        reader.read(base + "/", urls::add);
+
+        assertThat(urls).containsExactly(base + "/philosophy");
+    }
+
+    @Test
+    void read_consumerStops_readsNoFurther() throws IOException {
+        serve("/sitemap.xml", urlSet("/a", "/b", "/c", "/d"));
+
+        List<String> urls = new ArrayList<>();
+        long read = reader.read(base + "/", url -> urls.add(url) && urls.size() < 2);
+
+        assertThat(read).isEqualTo(2);
+        assertThat(urls).containsExactly(base + "/a", base + "/b");
+    }
+
+    @Test
+    void read_externalEntity_notResolved() throws IOException {
+        serve("/sitemap.xml", """
+                <?xml version="1.0"?>
+                <!DOCTYPE urlset [<!ENTITY secret SYSTEM "file:///etc/hostname">]>
+                <urlset><url><loc>%s/&secret;</loc></url></urlset>
+                """.formatted(base));
+
+        List<String> urls = new ArrayList<>();
+        reader.read(base + "/", urls::add);
+
+        assertThat(urls).allSatisfy(url -> assertThat(url).isEqualTo(base + "/"));
+    }
+
+    String urlSet(String... paths) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+        for (String path : paths) {
+            xml.append("  <url><loc>").append(base).append(path).append("</loc><priority>0.5</priority></url>\n");
+        }
+        return xml.append("</urlset>\n").toString();
+    }
+
+    void serve(String path, String body) {
+        server.createContext(path, exchange -> respond(exchange, body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    void serveGzipped(String path, String body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        server.createContext(path, exchange -> respond(exchange, bytes.toByteArray()));
+    }
+
+    static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
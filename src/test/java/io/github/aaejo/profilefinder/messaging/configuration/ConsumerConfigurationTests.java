@@ -0,0 +1,26 @@
+package io.github.aaejo.profilefinder.messaging.configuration;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+public class ConsumerConfigurationTests {
+
+    @Test
+    void workerPoolPollSize_replacesLongPollInterval() {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, "1800000");
+        DefaultKafkaConsumerFactory<Object, Object> consumerFactory = new DefaultKafkaConsumerFactory<>(configs);
+
+        new ConsumerConfiguration().workerPoolPollSize(new WorkerPoolProperties(true, 6)).customize(consumerFactory);
+
+        assertThat(consumerFactory.getConfigurationProperties())
+                .containsEntry(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 6)
+                .containsEntry(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, 300_000);
+    }
+}
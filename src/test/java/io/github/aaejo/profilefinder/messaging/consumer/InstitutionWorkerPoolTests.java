@@ -0,0 +1,158 @@
+package io.github.aaejo.profilefinder.messaging.consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.util.backoff.FixedBackOff;
+
+import io.github.aaejo.messaging.records.Institution;
+import io.github.aaejo.profilefinder.finder.exception.NoProfilesFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class InstitutionWorkerPoolTests {
+
+    static final long TIMEOUT_MS = 5000;
+
+    MessageListenerContainer container = mock(MessageListenerContainer.class);
+    KafkaListenerEndpointRegistry endpointRegistry = mock(KafkaListenerEndpointRegistry.class);
+    ConsumerRecordRecoverer recoverer = mock(ConsumerRecordRecoverer.class);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    InstitutionWorkerPool pool;
+
+    @BeforeEach
+    void setUp() {
+        when(endpointRegistry.getListenerContainer(InstitutionsListener.LISTENER_ID)).thenReturn(container);
+        pool = new InstitutionWorkerPool(InstitutionsListener.LISTENER_ID, 2, endpointRegistry, recoverer,
+                new FixedBackOff(0, 1), List.of(NoProfilesFoundException.class), registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void submit_poolFull_containerPausedUntilWorkerFree() throws InterruptedException {
+        CountDownLatch first = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(1);
+
+        pool.submit(record(0, 0), mock(Acknowledgment.class), await(first));
+        verify(container, never()).pause();
+
+        pool.submit(record(1, 0), mock(Acknowledgment.class), await(second));
+        verify(container).pause();
+
+        first.countDown();
+        verify(container, timeout(TIMEOUT_MS)).resume();
+
+        second.countDown();
+        Thread.sleep(100);
+        verify(container, times(1)).pause();
+        verify(container, times(1)).resume();
+        verify(container, never()).pausePartition(any());
+    }
+
+    @Test
+    void submit_idlePartitions_allResumedTogether() {
+        // With one worker, records from two partitions are in flight at once: one running, one queued behind it
+        pool.shutdown();
+        pool = new InstitutionWorkerPool(InstitutionsListener.LISTENER_ID, 1, endpointRegistry, recoverer,
+                new FixedBackOff(0, 1), List.of(), registry);
+        CountDownLatch release = new CountDownLatch(1);
+        Acknowledgment ack0 = mock(Acknowledgment.class);
+        Acknowledgment ack1 = mock(Acknowledgment.class);
+
+        pool.submit(record(0, 0), ack0, await(release));
+        pool.submit(record(1, 0), ack1, () -> {});
+        release.countDown();
+
+        verify(ack0, timeout(TIMEOUT_MS)).acknowledge();
+        verify(ack1, timeout(TIMEOUT_MS)).acknowledge();
+        // Paused once when the pool filled, and resumed, container-wide, once it had emptied
+        verify(container, timeout(TIMEOUT_MS)).resume();
+        verify(container, times(1)).pause();
+    }
+
+    @Test
+    void submit_outOfOrderCompletion_acknowledgedAfterCompletionInOffsetOrder() {
+        CountDownLatch release = new CountDownLatch(1);
+        Acknowledgment earlier = mock(Acknowledgment.class);
+        Acknowledgment later = mock(Acknowledgment.class);
+
+        pool.submit(record(0, 10), earlier, await(release));
+        pool.submit(record(0, 11), later, () -> {});
+
+        verify(later, after(200).never()).acknowledge();
+        verify(earlier, never()).acknowledge();
+
+        release.countDown();
+        InOrder inOrder = inOrder(earlier, later);
+        inOrder.verify(earlier, timeout(TIMEOUT_MS)).acknowledge();
+        inOrder.verify(later, timeout(TIMEOUT_MS)).acknowledge();
+    }
+
+    @Test
+    void submit_failingWork_retriedThenRecoveredAndAcknowledged() {
+        AtomicInteger attempts = new AtomicInteger();
+        RuntimeException failure = new IllegalStateException("Could not load site");
+        Acknowledgment ack = mock(Acknowledgment.class);
+        ConsumerRecord<String, String> record = record(0, 0);
+
+        pool.submit(record, ack, () -> {
+            attempts.incrementAndGet();
+            throw failure;
+        });
+
+        verify(ack, timeout(TIMEOUT_MS)).acknowledge();
+        verify(recoverer).accept(record, failure);
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void submit_notRetryableFailure_recoveredWithoutRetry() {
+        AtomicInteger attempts = new AtomicInteger();
+        RuntimeException failure = new NoProfilesFoundException(
+                new Institution("Example University", "USA", "1 College Ave", "https://www.example.edu"),
+                "https://www.example.edu/philosophy/people");
+        Acknowledgment ack = mock(Acknowledgment.class);
+        ConsumerRecord<String, String> record = record(0, 0);
+
+        pool.submit(record, ack, () -> {
+            attempts.incrementAndGet();
+            throw failure;
+        });
+
+        verify(ack, timeout(TIMEOUT_MS)).acknowledge();
+        verify(recoverer).accept(record, failure);
+        assertThat(attempts).hasValue(1);
+    }
+
+    static ConsumerRecord<String, String> record(int partition, long offset) {
+        return new ConsumerRecord<>("institutions", partition, offset, null, "institution");
+    }
+
+    static Runnable await(CountDownLatch latch) {
+        return () -> {
+            try {
+                latch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+}
@@ -0,0 +1,189 @@
+package io.github.aaejo.profilefinder.messaging.consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.util.unit.DataSize;
+
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.github.aaejo.messaging.records.Institution;
+import io.github.aaejo.profilefinder.finder.DepartmentFinder;
+import io.github.aaejo.profilefinder.finder.FacultyFinder;
+import io.github.aaejo.profilefinder.finder.ProfileFinder;
+import io.github.aaejo.profilefinder.finder.ProfileSearchResult;
+import io.github.aaejo.profilefinder.finder.checkpoint.CheckpointStore;
+import io.github.aaejo.profilefinder.finder.checkpoint.StageCheckpoint;
+import io.github.aaejo.profilefinder.finder.configuration.PageCacheProperties;
+import io.github.aaejo.profilefinder.finder.exception.NoProfilesFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class InstitutionsListenerTests {
+
+    static final Institution INSTITUTION = new Institution("Example University", "USA", "1 College Ave",
+            "https://www.example.edu");
+    static final String DEPARTMENT_URL = "https://www.example.edu/philosophy";
+    static final String FACULTY_URL = "https://www.example.edu/philosophy/people";
+
+    DepartmentFinder departmentFinder = mock(DepartmentFinder.class);
+    FacultyFinder facultyFinder = mock(FacultyFinder.class);
+    ProfileFinder profileFinder = mock(ProfileFinder.class);
+    InstitutionPageLoader pageLoader = mock(InstitutionPageLoader.class);
+    StubCheckpointStore checkpointStore = new StubCheckpointStore();
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    Acknowledgment ack = mock(Acknowledgment.class);
+    InstitutionsListener listener;
+
+    FinderClientResponse homePage = page(INSTITUTION.website());
+    FinderClientResponse departmentPage = page(DEPARTMENT_URL);
+    FinderClientResponse facultyPage = page(FACULTY_URL);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        listener = new InstitutionsListener(departmentFinder, facultyFinder, profileFinder, pageLoader,
+                new PageCacheProperties(16, DataSize.ofMegabytes(1)), checkpointStore, registry);
+        listener.debugTemplate = mock(KafkaTemplate.class);
+
+        when(pageLoader.loadInitialPage(INSTITUTION)).thenReturn(homePage);
+        when(profileFinder.findProfiles(any(), any()))
+                .thenReturn(new ProfileSearchResult(FACULTY_URL, 3, 1, 0, Duration.ZERO));
+    }
+
+    @Test
+    void handle_checkpointedFacultyList_resumesFromProfiles() {
+        checkpointStore.checkpoints.put(INSTITUTION, StageCheckpoint.department(DEPARTMENT_URL, 2.1, 0)
+                .withFacultyList(FACULTY_URL, 3.2, 0));
+        when(pageLoader.loadFoundPage(INSTITUTION, FACULTY_URL)).thenReturn(facultyPage);
+
+        handle();
+
+        verify(pageLoader, never()).loadInitialPage(any());
+        verifyNoInteractions(departmentFinder, facultyFinder);
+        verify(profileFinder).findProfiles(any(), eq(facultyPage));
+        verify(ack).acknowledge();
+        assertThat(checkpointStore.checkpoints).isEmpty();
+        assertThat(registry.get("jds.profile-finder.checkpoint.resumed").tag("stage", "profiles").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void handle_checkpointedDepartment_resumesFromFacultyList() {
+        checkpointStore.checkpoints.put(INSTITUTION, StageCheckpoint.department(DEPARTMENT_URL, 2.1, 0));
+        when(pageLoader.loadFoundPage(INSTITUTION, DEPARTMENT_URL)).thenReturn(departmentPage);
+        when(facultyFinder.foundFacultyList(departmentPage)).thenReturn(0.5);
+        when(facultyFinder.findFacultyList(any(), eq(departmentPage), eq(0.5))).thenReturn(facultyPage);
+        when(facultyFinder.foundFacultyList(facultyPage)).thenReturn(3.2);
+
+        handle();
+
+        verify(pageLoader, never()).loadInitialPage(any());
+        verifyNoInteractions(departmentFinder);
+        verify(profileFinder).findProfiles(any(), eq(facultyPage));
+        assertThat(checkpointStore.saved).singleElement().satisfies(saved -> {
+            assertThat(saved.departmentUrl()).isEqualTo(DEPARTMENT_URL);
+            assertThat(saved.facultyListUrl()).isEqualTo(FACULTY_URL);
+            assertThat(saved.facultyListConfidence()).isEqualTo(3.2);
+        });
+        assertThat(checkpointStore.checkpoints).isEmpty();
+        assertThat(registry.get("jds.profile-finder.checkpoint.resumed").tag("stage", "faculty").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void handle_checkpointedPageFailsToLoad_startsOver() {
+        checkpointStore.checkpoints.put(INSTITUTION, StageCheckpoint.department(DEPARTMENT_URL, 2.1, 0)
+                .withFacultyList(FACULTY_URL, 3.2, 0));
+        when(pageLoader.loadFoundPage(INSTITUTION, FACULTY_URL)).thenReturn(null);
+        when(facultyFinder.foundFacultyList(homePage)).thenReturn(0.1);
+        when(departmentFinder.foundDepartmentSite(any(), eq(homePage))).thenReturn(0.2);
+        when(departmentFinder.findDepartmentSite(any(), eq(homePage), eq(0.2))).thenReturn(departmentPage);
+        when(facultyFinder.foundFacultyList(departmentPage)).thenReturn(0.5);
+        when(departmentFinder.foundDepartmentSite(any(), eq(departmentPage))).thenReturn(2.1);
+        when(facultyFinder.findFacultyList(any(), eq(departmentPage), eq(0.5))).thenReturn(facultyPage);
+        when(facultyFinder.foundFacultyList(facultyPage)).thenReturn(3.2);
+
+        handle();
+
+        assertThat(checkpointStore.clears).isEqualTo(2); // The dropped checkpoint, then the finished institution
+        verify(pageLoader).loadInitialPage(INSTITUTION);
+        verify(departmentFinder).findDepartmentSite(any(), eq(homePage), eq(0.2));
+        verify(profileFinder).findProfiles(any(), eq(facultyPage));
+        assertThat(checkpointStore.saved).extracting(StageCheckpoint::resumeUrl)
+                .containsExactly(DEPARTMENT_URL, FACULTY_URL);
+        assertThat(registry.find("jds.profile-finder.checkpoint.resumed").counter()).isNull();
+    }
+
+    @Test
+    void handle_initialPageIsFacultyList_checkpointsFacultyListOnly() {
+        when(facultyFinder.foundFacultyList(homePage)).thenReturn(2.0);
+
+        handle();
+
+        verifyNoInteractions(departmentFinder);
+        verify(facultyFinder, never()).findFacultyList(any(), any(), anyDouble());
+        verify(profileFinder).findProfiles(any(), eq(homePage));
+        assertThat(checkpointStore.saved).singleElement().satisfies(saved -> {
+            assertThat(saved.departmentUrl()).isNull();
+            assertThat(saved.facultyListUrl()).isEqualTo(INSTITUTION.website());
+        });
+        assertThat(checkpointStore.checkpoints).isEmpty();
+    }
+
+    @Test
+    void handle_noProfilesFound_checkpointCleared() {
+        checkpointStore.checkpoints.put(INSTITUTION, StageCheckpoint.department(DEPARTMENT_URL, 2.1, 0)
+                .withFacultyList(FACULTY_URL, 3.2, 0));
+        when(pageLoader.loadFoundPage(INSTITUTION, FACULTY_URL)).thenReturn(facultyPage);
+        when(profileFinder.findProfiles(any(), eq(facultyPage)))
+                .thenThrow(new NoProfilesFoundException(INSTITUTION, FACULTY_URL));
+
+        assertThatExceptionOfType(NoProfilesFoundException.class).isThrownBy(this::handle);
+
+        assertThat(checkpointStore.checkpoints).isEmpty();
+    }
+
+    void handle() {
+        listener.handle(INSTITUTION, new ConsumerRecord<>("institutions", 0, 0, null, INSTITUTION), ack);
+    }
+
+    static FinderClientResponse page(String url) {
+        return new FinderClientResponse(Jsoup.parse("<html><body></body></html>", url), 200, Optional.empty());
+    }
+
+    static class StubCheckpointStore implements CheckpointStore {
+        final Map<Institution, StageCheckpoint> checkpoints = new HashMap<>();
+        final List<StageCheckpoint> saved = new ArrayList<>();
+        int clears;
+
+        @Override
+        public Optional<StageCheckpoint> load(Institution institution) {
+            return Optional.ofNullable(checkpoints.get(institution));
+        }
+
+        @Override
+        public void save(Institution institution, StageCheckpoint checkpoint) {
+            checkpoints.put(institution, checkpoint);
+            saved.add(checkpoint);
+        }
+
+        @Override
+        public void clear(Institution institution) {
+            checkpoints.remove(institution);
+            clears++;
+        }
+    }
+}
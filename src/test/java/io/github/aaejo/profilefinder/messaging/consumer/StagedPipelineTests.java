@@ -0,0 +1,165 @@
+package io.github.aaejo.profilefinder.messaging.consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.util.unit.DataSize;
+
+import io.github.aaejo.finder.client.FinderClient;
+import io.github.aaejo.finder.client.FinderClientResponse;
+import io.github.aaejo.messaging.records.Institution;
+import io.github.aaejo.profilefinder.finder.DepartmentFinder;
+import io.github.aaejo.profilefinder.finder.FacultyFinder;
+import io.github.aaejo.profilefinder.finder.ProfileFinder;
+import io.github.aaejo.profilefinder.finder.ProfileSearchResult;
+import io.github.aaejo.profilefinder.finder.configuration.PageCacheProperties;
+import io.github.aaejo.profilefinder.finder.exception.StagePageFetchFailedException;
+import io.github.aaejo.profilefinder.messaging.producer.StageResultsProducer;
+import io.github.aaejo.profilefinder.messaging.records.DepartmentFound;
+import io.github.aaejo.profilefinder.messaging.records.FacultyListFound;
+
+public class StagedPipelineTests {
+
+    static final Institution INSTITUTION = new Institution("Example University", "USA", "1 College Ave",
+            "http://example.edu");
+    static final String HOME_URL = "https://www.example.edu/";
+    static final String DEPARTMENT_URL = "https://www.example.edu/philosophy";
+    static final String FACULTY_URL = "https://www.example.edu/philosophy/people";
+
+    FinderClient client = mock(FinderClient.class);
+    DepartmentFinder departmentFinder = mock(DepartmentFinder.class);
+    FacultyFinder facultyFinder = mock(FacultyFinder.class);
+    ProfileFinder profileFinder = mock(ProfileFinder.class);
+    StageResultsProducer producer = mock(StageResultsProducer.class);
+    Acknowledgment ack = mock(Acknowledgment.class);
+    PageCacheProperties pageCacheProperties = new PageCacheProperties(16, DataSize.ofMegabytes(1));
+    InstitutionPageLoader pageLoader = new InstitutionPageLoader(client);
+
+    DepartmentStageListener departmentStage;
+    FacultyStageListener facultyStage;
+    ProfileStageListener profileStage;
+
+    // The institution's website redirects to its home page
+    FinderClientResponse homePage = page(HOME_URL);
+    FinderClientResponse departmentPage = page(DEPARTMENT_URL);
+    FinderClientResponse facultyPage = page(FACULTY_URL);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        departmentStage = new DepartmentStageListener(departmentFinder, facultyFinder, pageLoader, pageCacheProperties,
+                producer);
+        departmentStage.debugTemplate = mock(KafkaTemplate.class);
+        facultyStage = new FacultyStageListener(facultyFinder, pageLoader, pageCacheProperties, producer);
+        facultyStage.debugTemplate = mock(KafkaTemplate.class);
+        profileStage = new ProfileStageListener(profileFinder, pageLoader, pageCacheProperties);
+        profileStage.debugTemplate = mock(KafkaTemplate.class);
+
+        when(client.get(INSTITUTION.website(), false)).thenReturn(homePage);
+        when(client.get(DEPARTMENT_URL, true)).thenReturn(departmentPage);
+        when(client.get(FACULTY_URL, true)).thenReturn(facultyPage);
+        when(profileFinder.findProfiles(any(), any()))
+                .thenReturn(new ProfileSearchResult(FACULTY_URL, 3, 1, 0, Duration.ZERO));
+    }
+
+    @Test
+    void departmentStage_departmentFound_routedToFacultyStage() {
+        when(facultyFinder.foundFacultyList(homePage)).thenReturn(0.1);
+        when(departmentFinder.foundDepartmentSite(any(), eq(homePage))).thenReturn(0.2);
+        when(departmentFinder.findDepartmentSite(any(), eq(homePage), eq(0.2))).thenReturn(departmentPage);
+        when(departmentFinder.foundDepartmentSite(any(), eq(departmentPage))).thenReturn(2.1);
+
+        departmentStage.handle(INSTITUTION, ack);
+
+        verify(ack).acknowledge();
+        verify(producer).send(new DepartmentFound(INSTITUTION, DEPARTMENT_URL, 2.1));
+        verify(producer, never()).send(any(FacultyListFound.class));
+    }
+
+    @Test
+    void departmentStage_initialPageIsFacultyList_skipsToProfileStage() {
+        when(facultyFinder.foundFacultyList(homePage)).thenReturn(2.0);
+
+        departmentStage.handle(INSTITUTION, ack);
+
+        verifyNoInteractions(departmentFinder);
+        verify(producer).send(new FacultyListFound(INSTITUTION, INSTITUTION.website(), 2.0));
+        verify(producer, never()).send(any(DepartmentFound.class));
+    }
+
+    @Test
+    void departmentStage_initialPageIsDepartment_handedOnAsWebsite() {
+        when(facultyFinder.foundFacultyList(homePage)).thenReturn(0.1);
+        when(departmentFinder.foundDepartmentSite(any(), eq(homePage))).thenReturn(2.1);
+
+        departmentStage.handle(INSTITUTION, ack);
+
+        verify(departmentFinder, never()).findDepartmentSite(any(), any(), anyDouble());
+        verify(producer).send(new DepartmentFound(INSTITUTION, INSTITUTION.website(), 2.1));
+    }
+
+    @Test
+    void facultyStage_departmentFound_routedToProfileStage() {
+        when(facultyFinder.foundFacultyList(departmentPage)).thenReturn(0.5);
+        when(facultyFinder.findFacultyList(any(), eq(departmentPage), eq(0.5))).thenReturn(facultyPage);
+        when(facultyFinder.foundFacultyList(facultyPage)).thenReturn(3.2);
+
+        facultyStage.handle(new DepartmentFound(INSTITUTION, DEPARTMENT_URL, 2.1), ack);
+
+        verify(ack).acknowledge();
+        verify(producer).send(new FacultyListFound(INSTITUTION, FACULTY_URL, 3.2));
+    }
+
+    @Test
+    void profileStage_facultyListFound_profilesExtracted() {
+        profileStage.handle(new FacultyListFound(INSTITUTION, FACULTY_URL, 3.2), ack);
+
+        verify(ack).acknowledge();
+        verify(profileFinder).findProfiles(any(), eq(facultyPage));
+    }
+
+    @Test
+    void stages_websiteDisallowedByRobots_reloadedAnyway() {
+        when(client.get(anyString(), eq(true))).thenReturn(new FinderClientResponse(null, -1,
+                Optional.of(new IOException("Fetching is disallowed by robots.txt"))));
+        when(client.get("https://example.edu", false)).thenReturn(homePage);
+        when(facultyFinder.foundFacultyList(homePage)).thenReturn(0.1);
+        when(facultyFinder.findFacultyList(any(), eq(homePage), eq(0.1))).thenReturn(facultyPage);
+
+        facultyStage.handle(new DepartmentFound(INSTITUTION, INSTITUTION.website(), 2.1), ack);
+        profileStage.handle(new FacultyListFound(INSTITUTION, "https://example.edu", 2.0), ack);
+
+        verify(client, never()).get(anyString(), eq(true));
+        verify(facultyFinder).findFacultyList(any(), eq(homePage), eq(0.1));
+        verify(profileFinder).findProfiles(any(), eq(homePage));
+    }
+
+    @Test
+    void stages_pageFailsToReload_recordFailedUnacknowledged() {
+        when(client.get(DEPARTMENT_URL, true)).thenReturn(new FinderClientResponse(null, 503, Optional.empty()));
+        when(client.get(FACULTY_URL, true)).thenReturn(null);
+
+        assertThatExceptionOfType(StagePageFetchFailedException.class)
+                .isThrownBy(() -> facultyStage.handle(new DepartmentFound(INSTITUTION, DEPARTMENT_URL, 2.1), ack))
+                .withMessageContaining("[503]");
+        assertThatExceptionOfType(StagePageFetchFailedException.class)
+                .isThrownBy(() -> profileStage.handle(new FacultyListFound(INSTITUTION, FACULTY_URL, 3.2), ack));
+
+        verify(ack, never()).acknowledge();
+        verifyNoInteractions(producer, profileFinder);
+    }
+
+    static FinderClientResponse page(String url) {
+        return new FinderClientResponse(Jsoup.parse("<html><body></body></html>", url), 200, Optional.empty());
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.aaejo.profilefinder.messaging.producer;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import io.github.aaejo.messaging.records.Institution;
+import io.github.aaejo.messaging.records.Profile;
+import io.github.aaejo.profilefinder.finder.exception.ProfilePublishFailedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ProfileBatchTests {
+
+    static final Institution INSTITUTION = new Institution("Example University", "USA", null,
+            "https://example.edu/philosophy/people");
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MockProducer<String, Profile> producer = new MockProducer<>(true, new StringSerializer(),
+            (topic, profile) -> profile.htmlContent().getBytes(StandardCharsets.UTF_8)) {
+        @Override
+        public void close(Duration timeout) {
+            // The template closes its producer after every send, but this one is shared for the whole test
+        }
+    };
+    ProfilesProducer profilesProducer = new ProfilesProducer(new KafkaTemplate<>(() -> producer),
+            Duration.ofSeconds(5), registry);
+
+    @Test
+    void flush_bufferedProfiles_sentTogether() {
+        ProfileBatch batch = profilesProducer.newBatch(INSTITUTION);
+        batch.add(profile("Ada"));
+        batch.add(profile("Grace"));
+
+        assertThat(producer.history()).isEmpty();
+        assertThat(batch.flush(INSTITUTION.website())).isEqualTo(2);
+
+        assertThat(producer.history()).extracting(record -> record.value().htmlContent())
+                .containsExactly("<li>Ada</li>", "<li>Grace</li>");
+        assertThat(registry.get("jds.profile-finder.profiles.batch-size").summary().totalAmount()).isEqualTo(2);
+        assertThat(registry.get("jds.profile-finder.profiles.send-latency").timer().count()).isEqualTo(1);
+        assertThat(registry.get("jds.profile-finder.profiles.serialized-bytes").summary().count()).isEqualTo(1);
+        assertThat(batch.flush(INSTITUTION.website())).isZero();
+    }
+
+    @Test
+    void flush_sameProfileTwice_sameKey() {
+        ProfileBatch batch = profilesProducer.newBatch(INSTITUTION);
+        batch.add(new Profile("<li>Ada</li>", "https://example.edu/people/ada", null, INSTITUTION));
+        batch.add(profile("Grace"));
+        batch.flush(INSTITUTION.website());
+
+        // As when a failed institution is retried and the page is published again
+        ProfileBatch retried = profilesProducer.newBatch(INSTITUTION);
+        retried.add(new Profile("<li>Ada</li>", "https://example.edu/people/ada", null, INSTITUTION));
+        retried.add(profile("Grace"));
+        retried.flush(INSTITUTION.website());
+
+        assertThat(producer.history()).extracting(record -> record.key()).containsExactly(
+                "Example University\nhttps://example.edu/people/ada", batch.key(profile("Grace")),
+                "Example University\nhttps://example.edu/people/ada", batch.key(profile("Grace")));
+        assertThat(batch.key(profile("Grace"))).startsWith("Example University\n")
+                .isNotEqualTo(batch.key(profile("Ada")));
+    }
+
+    @Test
+    void flush_sendFails_failsInstitution() {
+        producer.sendException = new KafkaException("Broker unavailable");
+        ProfileBatch batch = profilesProducer.newBatch(INSTITUTION);
+        batch.add(profile("Ada"));
+
+        assertThatThrownBy(() -> batch.flush(INSTITUTION.website()))
+                .isInstanceOf(ProfilePublishFailedException.class)
+                .hasMessageContaining("1 of 1")
+                .hasMessageContaining(INSTITUTION.name());
+        assertThat(registry.get("jds.profile-finder.profiles.send-failures").counter().count()).isEqualTo(1);
+    }
+
+    static Profile profile(String name) {
+        return new Profile("<li>" + name + "</li>", "", null, INSTITUTION);
+    }
+}